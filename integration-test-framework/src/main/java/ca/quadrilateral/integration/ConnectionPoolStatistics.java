@@ -0,0 +1,48 @@
+package ca.quadrilateral.integration;
+
+public class ConnectionPoolStatistics {
+    /**
+     * Reported by transports whose client does not expose its connections; every count is -1.
+     */
+    public static final ConnectionPoolStatistics UNAVAILABLE = new ConnectionPoolStatistics(-1, -1, -1, -1);
+
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+
+    public ConnectionPoolStatistics(final int leased, final int pending, final int available, final int max) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public boolean isAvailable() {
+        return max >= 0;
+    }
+
+    @Override
+    public String toString() {
+        if (!isAvailable()) {
+            return "[unavailable]";
+        }
+        return "[leased: " + leased + "; pending: " + pending + "; available: " + available + "; max: " + max + "]";
+    }
+}
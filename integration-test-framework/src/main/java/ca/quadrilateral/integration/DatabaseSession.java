@@ -0,0 +1,47 @@
+package ca.quadrilateral.integration;
+
+import java.io.Closeable;
+
+/**
+ * A transaction held open on the support server for the database calls of an Integration.  While the session is
+ * open, test data creation, queries and clearing all run inside it, and closing it rolls everything back, which is
+ * far cheaper than clearing the configured tables between tests.
+ *
+ * The uncommitted data is only visible to database calls made through the session; the application under test
+ * reads through its own connections and does not see it.
+ */
+public final class DatabaseSession implements Closeable {
+    private final Integration integration;
+    private final String id;
+
+    DatabaseSession(final Integration integration, final String id) {
+        this.integration = integration;
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Marks the point rollback returns to, such as after fixtures shared by every test in a class.
+     */
+    public void setSavepoint() throws Exception {
+        integration.executeDatabaseSessionCommand(this, "/savepoint");
+    }
+
+    /**
+     * Undoes everything since the savepoint, or since the session was opened, and keeps the session open.
+     */
+    public void rollback() throws Exception {
+        integration.executeDatabaseSessionCommand(this, "/rollback");
+    }
+
+    /**
+     * Rolls back everything done in the session and ends it.
+     */
+    @Override
+    public void close() {
+        integration.endDatabaseSession(this);
+    }
+}
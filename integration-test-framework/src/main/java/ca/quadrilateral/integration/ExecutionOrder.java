@@ -0,0 +1,6 @@
+package ca.quadrilateral.integration;
+
+public enum ExecutionOrder {
+    IN_ORDER,
+    RANDOM
+}
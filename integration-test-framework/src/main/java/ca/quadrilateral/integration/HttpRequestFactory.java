@@ -1,6 +1,7 @@
 package ca.quadrilateral.integration;
 
 import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpOptions;
@@ -9,8 +10,21 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpTrace;
+import org.apache.http.client.methods.HttpUriRequest;
 
 public class HttpRequestFactory {
+    public static HttpUriRequest getRequestObject(final Request request) {
+        final HttpRequestBase httpRequest = getRequestObject(request.method);
+        httpRequest.setURI(request.uri);
+        httpRequest.setHeaders(request.getHeaders());
+
+        if (request.hasBodyEntity()) {
+            ((HttpEntityEnclosingRequestBase)httpRequest).setEntity(request.getHttpEntity());
+        }
+
+        return httpRequest;
+    }
+
     public static HttpRequestBase getRequestObject(final HttpMethod method) {
         if (method == HttpMethod.DELETE) {
             return new HttpDelete();
@@ -1,49 +1,130 @@
 package ca.quadrilateral.integration;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.http.Consts;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+
+import ca.quadrilateral.integration.body.PreviewWriter;
+import ca.quadrilateral.integration.util.json.JsonPrettyPrinter;
 
 public class HttpRequestLogStatementGenerator {
     
     public String toLogStatement(final HttpUriRequest request) {
+        return toLogStatement(request, -1);
+    }
+
+    public String toLogStatement(final HttpUriRequest request, final int maxBodyLength) {
         final StringBuilder builder = new StringBuilder(0xfff);
         
         builder.append("\nRequest\n");
         builder.append("*******\n");
-        builder.append(request.getMethod() + " Request to " + request.getURI().toString() + "\n\n");
+        builder.append(request.getMethod()).append(" Request to ").append(request.getURI().toString()).append("\n\n");
         builder.append("Headers:\n");
 
         for (final Header header : request.getAllHeaders()) {
-            builder.append("    " + header.getName() + " => " + header.getValue() + "\n");
+            builder.append("    ").append(header.getName()).append(" => ").append(header.getValue()).append("\n");
         }
         
         builder.append("\n");
         builder.append("Body:\n");
         
-        if (HttpEntityEnclosingRequestBase.class.isAssignableFrom(request.getClass())) {
-            final HttpEntityEnclosingRequestBase entityRequest = (HttpEntityEnclosingRequestBase)request;
-            final HttpEntity entity = entityRequest.getEntity();
-            if (entity != null) {
-
-	            try {
-	            	final String content = IOUtils.toString(entity.getContent());
-	            	builder.append(content).append("\n\n");
-	            } catch (final IOException e) {
-	            	throw new RuntimeException(e);
-	            }
-            } else {
-                builder.append("<NONE>\n\n");
-            }
-        } else {
+        final HttpEntity entity = request instanceof HttpEntityEnclosingRequest
+                ? ((HttpEntityEnclosingRequest)request).getEntity()
+                : null;
+
+        if (entity == null) {
             builder.append("<NONE>\n\n");
+        } else if (!entity.isRepeatable()) {
+            // Reading a non-repeatable entity here would leave nothing to send
+            builder.append("<NON-REPEATABLE ENTITY, ").append(entity.getContentLength()).append(" BYTES>\n\n");
+        } else {
+            appendEntityContent(builder, entity, maxBodyLength);
+            builder.append("\n\n");
         }
         
         return builder.toString();
     }
-    
+
+    private void appendEntityContent(final StringBuilder builder, final HttpEntity entity, final int maxBodyLength) {
+        if (isJson(entity)) {
+            appendJsonEntityContent(builder, entity, maxBodyLength);
+            return;
+        }
+
+        final Charset charset = getCharset(entity);
+        final char[] buffer = new char[0x800];
+
+        try (
+                final InputStream inputStream = entity.getContent();
+                final Reader reader = new InputStreamReader(inputStream, charset)) {
+
+            int written = 0;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (maxBodyLength >= 0 && written + read > maxBodyLength) {
+                    builder.append(PreviewWriter.truncated(new String(buffer, 0, maxBodyLength - written), entity.getContentLength()));
+                    return;
+                }
+                builder.append(buffer, 0, read);
+                written += read;
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Compact JSON is indented straight from its bytes for readability; when truncating, only as many bytes as the
+     * preview could need are read.
+     */
+    private void appendJsonEntityContent(final StringBuilder builder, final HttpEntity entity, final int maxBodyLength) {
+        final int maxBytes = maxBodyLength < 0 ? Integer.MAX_VALUE : (int)Math.min(maxBodyLength * 4L + 4, Integer.MAX_VALUE);
+
+        try (final InputStream inputStream = entity.getContent()) {
+            final byte[] bytes = readPrefix(inputStream, maxBytes);
+            final String pretty = JsonPrettyPrinter.toPrettyString(bytes, getCharset(entity), maxBytes);
+            if (maxBodyLength >= 0 && pretty.length() > maxBodyLength) {
+                builder.append(PreviewWriter.truncated(pretty.substring(0, maxBodyLength), entity.getContentLength()));
+            } else {
+                builder.append(pretty);
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private byte[] readPrefix(final InputStream inputStream, final int maxBytes) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[0x800];
+        int read;
+        while (outputStream.size() < maxBytes
+                && (read = inputStream.read(buffer, 0, Math.min(buffer.length, maxBytes - outputStream.size()))) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private boolean isJson(final HttpEntity entity) {
+        final ContentType contentType = ContentType.get(entity);
+        return contentType != null
+                && MediaType.APPLICATION_JSON.getMediaTypeString().equalsIgnoreCase(contentType.getMimeType());
+    }
+
+    private Charset getCharset(final HttpEntity entity) {
+        final ContentType contentType = ContentType.get(entity);
+        if (contentType == null || contentType.getCharset() == null) {
+            return Consts.UTF_8;
+        }
+        return contentType.getCharset();
+    }
 }
@@ -2,20 +2,43 @@ package ca.quadrilateral.integration;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
@@ -23,8 +46,6 @@ import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -33,16 +54,40 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ca.quadrilateral.integration.body.JSONBody;
+import ca.quadrilateral.integration.builder.BaseTestDataSqlBuilder;
+import ca.quadrilateral.integration.builder.BulkRowEntity;
+import ca.quadrilateral.integration.builder.FixturePlan;
 import ca.quadrilateral.integration.builder.ITestDataSqlBuilder;
+import ca.quadrilateral.integration.builder.SqlStatement;
+import ca.quadrilateral.integration.logging.RequestResponseLogger;
+import ca.quadrilateral.integration.metrics.EndpointMetricsRecorder;
+import ca.quadrilateral.integration.metrics.EndpointStatistics;
+import ca.quadrilateral.integration.query.ColumnarResult;
+import ca.quadrilateral.integration.recording.TrafficRecorder;
+import ca.quadrilateral.integration.streaming.IByteBufferConsumer;
+import ca.quadrilateral.integration.streaming.IInputStreamConsumer;
+import ca.quadrilateral.integration.streaming.ResponseBodyConsumers;
+import ca.quadrilateral.integration.streaming.StreamedBody;
+import ca.quadrilateral.integration.streaming.StreamedResponse;
+import ca.quadrilateral.integration.streaming.StreamedRows;
+import ca.quadrilateral.integration.transport.IHttpTransport;
+import ca.quadrilateral.integration.util.json.JsonArrayReader;
 
 public class Integration implements Closeable {
     private static final Logger logger = LoggerFactory.getLogger(Integration.class);
+    private static final String DATABASE_SESSION_HEADER = "X-Integration-Session";
 
-    private Random random = new Random();
-    private Queue<HttpUriRequest> requestQueue = new ConcurrentLinkedDeque<>();
-    private Map<HttpUriRequest, QueuedRequestResponseFuture> requestResponseMap = new ConcurrentHashMap<>();
+    private final Random random = new Random();
+    private final Queue<QueuedRequestResponseFuture> requestQueue = new ConcurrentLinkedQueue<>();
 
-    private final CloseableHttpClient defaultHttpClient;
+    private final IntegrationConfiguration configuration;
+    private final IHttpTransport transport;
+    private final RequestResponseLogger requestResponseLogger;
+    private final EndpointMetricsRecorder endpointMetricsRecorder;
+    private volatile TrafficRecorder trafficRecorder;
+    private final ConcurrentMap<ITestDataSqlBuilder, CompletableFuture<Void>> testDataLoads = new ConcurrentHashMap<>();
+    private final Map<String, Set<ITestDataSqlBuilder>> snapshotTestData = new ConcurrentHashMap<>();
+    private volatile DatabaseSession databaseSession = null;
 
     private final String appBasePath;
     private final String host;
@@ -52,20 +97,46 @@ public class Integration implements Closeable {
         this("localhost", 8080, appBasePath);
     }
 
+    public Integration(final String appBasePath, final IntegrationConfiguration configuration) {
+        this("localhost", 8080, appBasePath, configuration);
+    }
+
     public Integration(final String host, final int port, final String appBasePath) {
-        defaultHttpClient = HttpClients.createDefault();
+        this(host, port, appBasePath, IntegrationConfiguration.getDefault());
+    }
+
+    public Integration(final String host, final int port, final String appBasePath, final IntegrationConfiguration configuration) {
         this.appBasePath = appBasePath;
         this.host = host;
         this.port = port;
+        this.configuration = configuration;
+        this.requestResponseLogger = new RequestResponseLogger(logger, configuration);
+        this.endpointMetricsRecorder = configuration.recordEndpointMetrics ? new EndpointMetricsRecorder() : null;
+
+        this.transport = configuration.transportFactory.create(configuration);
     }
 
     @Override
     public void close() {
-        try {
-            defaultHttpClient.close();
-        } catch (final IOException e) {
-            logger.error("Error closing HTTP client", e);
-        }
+        stopRecording();
+        transport.close();
+        requestResponseLogger.close();
+    }
+
+    public IntegrationConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public IHttpTransport getTransport() {
+        return transport;
+    }
+
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        return transport.getConnectionPoolStatistics();
+    }
+
+    public ConnectionPoolStatistics getConnectionPoolStatisticsForHost() {
+        return transport.getConnectionPoolStatistics(host, port);
     }
 
     public Response executeRequest(final RequestBuilder requestBuilder) throws RequestBuilderException {
@@ -81,116 +152,262 @@ public class Integration implements Closeable {
     }
 
     public Response executeRequest(final HttpUriRequest request, final Integer statusToAssert) {
-        logger.info(new HttpRequestLogStatementGenerator().toLogStatement(request));
+        requestResponseLogger.logRequest(request);
 
-        try (final CloseableHttpResponse httpResponse = defaultHttpClient.execute(request)) {
-            final Response response = new Response(request, httpResponse);
-            logger.info(response.toString());
+        final long startNanos = System.nanoTime();
+        try {
+            return transport.execute(request, httpResponse -> toResponse(request, httpResponse, statusToAssert, startNanos));
+        } catch (IOException e) {
+            recordFailure(request, startNanos);
+            throw new RequestException(e);
+        }
+    }
 
-            if (statusToAssert != null) {
-                Assert.assertEquals("Incorrect status code returned in HTTP Request", (int)statusToAssert, response.getStatusCode());
-            }
+    public Response executeRequest(final Request request) {
+        return executeRequest(request, null);
+    }
+
+    public Response executeRequest(final Request request, final Integer statusToAssert) {
+        return executeRequest(HttpRequestFactory.getRequestObject(request), statusToAssert);
+    }
+
+    public <T> StreamedResponse<T> executeStreamingRequest(final HttpUriRequest request, final IByteBufferConsumer<T> bodyConsumer) {
+        return executeStreamingRequest(request, null, ResponseBodyConsumers.fromByteBufferConsumer(bodyConsumer));
+    }
+
+    public <T> StreamedResponse<T> executeStreamingRequest(final HttpUriRequest request, final IInputStreamConsumer<T> bodyConsumer) {
+        return executeStreamingRequest(request, null, bodyConsumer);
+    }
+
+    public <T> StreamedResponse<T> executeStreamingRequest(final Request request, final Integer statusToAssert, final IByteBufferConsumer<T> bodyConsumer) {
+        return executeStreamingRequest(HttpRequestFactory.getRequestObject(request), statusToAssert, ResponseBodyConsumers.fromByteBufferConsumer(bodyConsumer));
+    }
+
+    public <T> StreamedResponse<T> executeStreamingRequest(final Request request, final Integer statusToAssert, final IInputStreamConsumer<T> bodyConsumer) {
+        return executeStreamingRequest(HttpRequestFactory.getRequestObject(request), statusToAssert, bodyConsumer);
+    }
+
+    public <T> StreamedResponse<T> executeStreamingRequest(final HttpUriRequest request, final Integer statusToAssert, final IByteBufferConsumer<T> bodyConsumer) {
+        return executeStreamingRequest(request, statusToAssert, ResponseBodyConsumers.fromByteBufferConsumer(bodyConsumer));
+    }
 
-            return response;
+    /**
+     * Executes the request and passes the response body to the consumer as it arrives instead of buffering it, so
+     * bodies of any size can be verified in bounded memory.  The returned response carries the status and headers
+     * along with the consumer's result.
+     */
+    public <T> StreamedResponse<T> executeStreamingRequest(final HttpUriRequest request, final Integer statusToAssert, final IInputStreamConsumer<T> bodyConsumer) {
+        requestResponseLogger.logRequest(request);
+
+        final long startNanos = System.nanoTime();
+        final StreamedResponse<T> response;
+        try (final CloseableHttpResponse httpResponse = transport.executeStreaming(request)) {
+            final HttpEntity entity = httpResponse.getEntity();
+
+            if (entity == null || httpResponse.getStatusLine().getStatusCode() == HttpURLConnection.HTTP_NO_CONTENT) {
+                response = new StreamedResponse<>(request, httpResponse, new StreamedBody(0), null);
+            } else {
+                try (final CountingInputStream body = new CountingInputStream(entity.getContent())) {
+                    final T result = bodyConsumer.consume(body);
+                    response = new StreamedResponse<>(request, httpResponse, new StreamedBody(body.getByteCount()), result);
+                }
+            }
         } catch (IOException e) {
+            recordFailure(request, startNanos);
             throw new RequestException(e);
         }
+
+        return completeResponse(request, response, statusToAssert, startNanos);
     }
 
-    /*
-    public Future<Response> queueRequest(final Request request) {
-        final QueuedRequestResponseFuture future = new QueuedRequestResponseFuture(request);
-        requestQueue.offer(request);
-        requestResponseMap.put(request, future);
-        return future;
+    public CompletableFuture<Response> executeRequestAsync(final RequestBuilder requestBuilder) throws RequestBuilderException {
+        return executeRequestAsync(requestBuilder.build());
     }
 
-    public Future<Response> queueRequest(final RequestBuilder requestBuilder) throws RequestBuilderException {
-        return queueRequest(requestBuilder.build());
+    public CompletableFuture<Response> executeRequestAsync(final RequestBuilder requestBuilder, final Integer statusToAssert) throws RequestBuilderException {
+        return executeRequestAsync(requestBuilder.build(), statusToAssert);
     }
 
-    public void clearRequestQueue() {
-        requestQueue.clear();
-        requestResponseMap.clear();
+    public CompletableFuture<Response> executeRequestAsync(final Request request) {
+        return executeRequestAsync(request, null);
     }
 
-    public void executeQueuedRequestsConcurrently() {
-        executeQueuedRequestsConcurrently(ExecutionOrder.IN_ORDER);
+    public CompletableFuture<Response> executeRequestAsync(final Request request, final Integer statusToAssert) {
+        return executeRequestAsync(HttpRequestFactory.getRequestObject(request), statusToAssert);
     }
 
-    public void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder) {
-        executeQueuedRequestsConcurrently(executionOrder, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2), true);
+    public CompletableFuture<Response> executeRequestAsync(final HttpUriRequest request) {
+        return executeRequestAsync(request, null);
     }
 
-    public void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder, final int threads) {
-        executeQueuedRequestsConcurrently(executionOrder, Executors.newFixedThreadPool(threads), true);
+    public CompletableFuture<Response> executeRequestAsync(final HttpUriRequest request, final Integer statusToAssert) {
+        requestResponseLogger.logRequest(request);
+
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        final long startNanos = System.nanoTime();
+        transport.executeAsync(request).whenComplete((httpResponse, throwable) -> {
+            if (throwable instanceof CancellationException) {
+                future.cancel(false);
+            } else if (throwable != null) {
+                recordFailure(request, startNanos);
+                future.completeExceptionally(new RequestException(throwable));
+            } else {
+                try {
+                    future.complete(toResponse(request, httpResponse, statusToAssert, startNanos));
+                } catch (final Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+
+        return future;
     }
 
-    public void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder, final ExecutorService executor) {
-        if (executionOrder == ExecutionOrder.IN_ORDER) {
-            executeQueuedRequestsConcurrentlyInOrder(executor, false);
-        } else if (executionOrder == ExecutionOrder.RANDOM) {
-            executeQueuedRequestsConcurrentlyInRandomOrder(executor, false);
-        } else {
-            throw new AssertionError("Invalid ExecutionOrder: " + executionOrder);
+    private Response toResponse(final HttpUriRequest request, final HttpResponse httpResponse, final Integer statusToAssert, final long startNanos) {
+        return completeResponse(request, new Response(request, httpResponse), statusToAssert, startNanos);
+    }
+
+    private <R extends Response> R completeResponse(final HttpUriRequest request, final R response, final Integer statusToAssert, final long startNanos) {
+        if (endpointMetricsRecorder != null) {
+            endpointMetricsRecorder.record(
+                    request.getMethod(),
+                    request.getURI(),
+                    response.getStatusCode(),
+                    System.nanoTime() - startNanos,
+                    getRequestBodyLength(request),
+                    response.getBodyLength());
+        }
+        final TrafficRecorder recorder = trafficRecorder;
+        if (recorder != null) {
+            recorder.record(request, startNanos, response);
         }
+        requestResponseLogger.logResponse(response);
+
+        if (statusToAssert != null) {
+            Assert.assertEquals("Incorrect status code returned in HTTP Request", (int)statusToAssert, response.getStatusCode());
+        }
+
+        return response;
     }
 
-    private void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder, final ExecutorService executor, final boolean shutdownExecutorWhenDone) {
-        if (executionOrder == ExecutionOrder.IN_ORDER) {
-            executeQueuedRequestsConcurrentlyInOrder(executor, shutdownExecutorWhenDone);
-        } else if (executionOrder == ExecutionOrder.RANDOM) {
-            executeQueuedRequestsConcurrentlyInRandomOrder(executor, shutdownExecutorWhenDone);
-        } else {
-            throw new AssertionError("Invalid ExecutionOrder: " + executionOrder);
+    private void recordFailure(final HttpUriRequest request, final long startNanos) {
+        if (endpointMetricsRecorder != null) {
+            endpointMetricsRecorder.recordFailure(request.getMethod(), request.getURI(), getRequestBodyLength(request));
+        }
+        final TrafficRecorder recorder = trafficRecorder;
+        if (recorder != null) {
+            recorder.record(request, startNanos, null);
         }
     }
 
-    private void executeQueuedRequestsConcurrentlyInOrder(final ExecutorService executor, final boolean shutdownExecutorWhenDone) {
-        final Queue<RequestAdapter> requestRunnableQueue = new ConcurrentLinkedDeque<>();
+    public synchronized void startRecording(final Path file, final boolean includeResponses) throws IOException {
+        if (trafficRecorder != null) {
+            throw new IllegalStateException("Traffic is already being recorded");
+        }
+        trafficRecorder = new TrafficRecorder(file, includeResponses);
+    }
 
-        while (!requestQueue.isEmpty()) {
-            requestRunnableQueue.offer(new RequestAdapter(requestQueue.poll()));
+    public synchronized void stopRecording() {
+        if (trafficRecorder != null) {
+            try {
+                trafficRecorder.close();
+            } catch (final IOException e) {
+                logger.error("Error closing traffic recording", e);
+            }
+            trafficRecorder = null;
         }
+    }
 
-        executeRequestRunnablesConcurrently(executor, requestRunnableQueue, shutdownExecutorWhenDone);
+    public boolean isRecording() {
+        return trafficRecorder != null;
     }
 
-    private void executeQueuedRequestsConcurrentlyInRandomOrder(final ExecutorService executor, final boolean shutdownExecutorWhenDone) {
-        final List<RequestAdapter> requestRunnableList = new ArrayList<>(requestQueue.size());
-        while (!requestQueue.isEmpty()) {
-            requestRunnableList.add(new RequestAdapter(requestQueue.poll()));
+    private static long getRequestBodyLength(final HttpUriRequest request) {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            final HttpEntity entity = ((HttpEntityEnclosingRequest)request).getEntity();
+            return entity == null ? 0 : entity.getContentLength();
         }
+        return 0;
+    }
 
-        Collections.sort(requestRunnableList, new Comparator<RequestAdapter>() {
+    public SortedMap<String, EndpointStatistics> getEndpointStatistics() {
+        if (endpointMetricsRecorder == null) {
+            throw new IllegalStateException("Endpoint metrics recording is disabled in the IntegrationConfiguration");
+        }
+        return endpointMetricsRecorder.getSnapshot();
+    }
 
-            @Override
-            public int compare(final RequestAdapter o1, final RequestAdapter o2) {
-                return random.nextInt(3) - 1;
-            }
+    public void resetEndpointStatistics() {
+        if (endpointMetricsRecorder != null) {
+            endpointMetricsRecorder.reset();
+        }
+    }
 
-        });
+    public Future<Response> queueRequest(final Request request) {
+        final QueuedRequestResponseFuture future = new QueuedRequestResponseFuture(request);
+        requestQueue.offer(future);
+        return future;
+    }
+
+    public Future<Response> queueRequest(final Request.RequestBuilder requestBuilder) throws RequestBuilderException {
+        return queueRequest(requestBuilder.build());
+    }
 
-        executeRequestRunnablesConcurrently(executor, requestRunnableList, shutdownExecutorWhenDone);
+    public int getQueuedRequestCount() {
+        return requestQueue.size();
     }
 
-    private void executeRequestRunnablesConcurrently(final ExecutorService executor, final Collection<RequestAdapter> requestTasks, final boolean shutdownExecutorWhenDone) {
+    public void clearRequestQueue() {
+        requestQueue.clear();
+    }
+
+    public void executeQueuedRequestsConcurrently() {
+        executeQueuedRequestsConcurrently(ExecutionOrder.IN_ORDER);
+    }
+
+    public void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder) {
+        executeQueuedRequestsConcurrently(executionOrder, RequestExecutors.newDefaultExecutor(), true);
+    }
+
+    public void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder, final int threads) {
+        executeQueuedRequestsConcurrently(executionOrder, RequestExecutors.newFixedExecutor(threads), true);
+    }
+
+    public void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder, final ExecutorService executor) {
+        executeQueuedRequestsConcurrently(executionOrder, executor, false);
+    }
+
+    private void executeQueuedRequestsConcurrently(final ExecutionOrder executionOrder, final ExecutorService executor, final boolean shutdownExecutorWhenDone) {
+        final List<RequestAdapter> requestTasks = new ArrayList<>(requestQueue.size());
+        for (final QueuedRequestResponseFuture future : drainRequestQueue(executionOrder)) {
+            if (!future.isCancelled()) {
+                requestTasks.add(new RequestAdapter(future));
+            }
+        }
+
+        executeRequestTasksConcurrently(executor, requestTasks, shutdownExecutorWhenDone);
+    }
+
+    private void executeRequestTasksConcurrently(final ExecutorService executor, final Collection<RequestAdapter> requestTasks, final boolean shutdownExecutorWhenDone) {
         final CountDownLatch latch = new CountDownLatch(requestTasks.size());
 
-        final List<Future<Response>> futures = new LinkedList<>();
+        final List<Future<Response>> futures = new ArrayList<>(requestTasks.size());
 
-        for (final RequestAdapter request : requestTasks) {
-            request.setLatch(latch);
+        for (final RequestAdapter requestTask : requestTasks) {
+            requestTask.setLatch(latch);
 
-            final Future<Response> future = executor.submit(request);
+            final Future<Response> future = executor.submit(requestTask);
             futures.add(future);
-            requestResponseMap.get(request.request).setWrappedFuture(future);
+            requestTask.queuedFuture.setWrappedFuture(future);
 
             latch.countDown();
         }
-        clearRequestQueue();
+
         if (shutdownExecutorWhenDone) {
-            new Thread(new ExecutorShutdownTask(executor, futures)).start();
+            final Thread shutdownThread = new Thread(new ExecutorShutdownTask(executor, futures), "queued-request-executor-shutdown");
+            shutdownThread.setDaemon(true);
+            shutdownThread.start();
         }
     }
 
@@ -199,47 +416,41 @@ public class Integration implements Closeable {
     }
 
     public void executeQueuedRequestsSerially(final ExecutionOrder executionOrder) {
-        if (executionOrder == ExecutionOrder.IN_ORDER) {
-            executeQueuedRequestsSeriallyInOrder();
-        } else if (executionOrder == ExecutionOrder.RANDOM) {
-            executeQueuedRequestsSeriallyInRandomOrder();
-        } else {
-            throw new AssertionError("Invalid ExecutionOrder: " + executionOrder);
+        for (final QueuedRequestResponseFuture future : drainRequestQueue(executionOrder)) {
+            if (future.isCancelled()) {
+                continue;
+            }
+            try {
+                future.setResponse(executeRequest(future.getRequest()));
+            } catch (final RuntimeException | AssertionError e) {
+                future.setException(e);
+            }
         }
     }
 
-    private void executeQueuedRequestsSeriallyInOrder() {
-        final Queue<Request> requests = new ConcurrentLinkedDeque<>(requestQueue);
-        executeRequestsSerially(requests);
-    }
-
-    private void executeQueuedRequestsSeriallyInRandomOrder() {
-        final List<Request> requests = new ArrayList<>(requestQueue);
-        Collections.sort(requests, new Comparator<Request>() {
-
-            @Override
-            public int compare(final Request o1, final Request o2) {
-                return random.nextInt(3) - 1;
-            }
-        });
+    private List<QueuedRequestResponseFuture> drainRequestQueue(final ExecutionOrder executionOrder) {
+        final List<QueuedRequestResponseFuture> futures = new ArrayList<>(requestQueue.size());
 
-        executeRequestsSerially(requests);
-    }
+        QueuedRequestResponseFuture future;
+        while ((future = requestQueue.poll()) != null) {
+            futures.add(future);
+        }
 
-    private void executeRequestsSerially(final Collection<Request> requests) {
-        for (final Request request : requests) {
-            final Response response = executeRequest(request);
-            requestResponseMap.get(request).setResponse(response);
+        if (executionOrder == ExecutionOrder.RANDOM) {
+            Collections.shuffle(futures, random);
+        } else if (executionOrder != ExecutionOrder.IN_ORDER) {
+            throw new AssertionError("Invalid ExecutionOrder: " + executionOrder);
         }
-        clearRequestQueue();
+
+        return futures;
     }
 
     private class RequestAdapter implements Callable<Response> {
-        private final Request request;
+        private final QueuedRequestResponseFuture queuedFuture;
         private CountDownLatch latch = null;
 
-        public RequestAdapter(final Request request) {
-            this.request = request;
+        public RequestAdapter(final QueuedRequestResponseFuture queuedFuture) {
+            this.queuedFuture = queuedFuture;
         }
 
         public void setLatch(final CountDownLatch latch) {
@@ -248,21 +459,18 @@ public class Integration implements Closeable {
 
         @Override
         public Response call() throws Exception {
-            if (latch == null) {
-                return executeRequest(request);
-            } else {
+            if (latch != null) {
                 latch.await();
-                return executeRequest(request);
             }
+            // Cancelled after the queue was drained but before its executor future was attached
+            if (queuedFuture.isCancelled()) {
+                return null;
+            }
+            return executeRequest(queuedFuture.getRequest());
         }
     }
 
-    private static enum ExecutionOrder {
-        IN_ORDER,
-        RANDOM
-    }
-
-    private class ExecutorShutdownTask implements Runnable {
+    private static class ExecutorShutdownTask implements Runnable {
         private final ExecutorService executor;
         private final Collection<Future<Response>> futures;
 
@@ -283,7 +491,6 @@ public class Integration implements Closeable {
             executor.shutdownNow();
         }
     }
-    */
 
     public void executeTestDataCreation(final ITestDataSqlBuilder... testDataItems) throws Exception {
         executeDatabaseCommands(
@@ -301,8 +508,7 @@ public class Integration implements Closeable {
     public void executeDatabaseCommands(final List<String> commands) throws Exception {
         final String commandText = StringUtils.join(commands, ";");
 
-        HttpUriRequest httpRequest = RequestBuilder
-                .create(HttpMethod.POST.toString())
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.POST)
                 .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
                 .addHeader(getHeader(RequestHeader.CONTENT_TYPE, MediaType.TEXT_PLAIN))
                 .setEntity(new StringEntity(commandText, Charset.forName("UTF-8")))
@@ -314,9 +520,244 @@ public class Integration implements Closeable {
         }
     }
 
+    /**
+     * Creates the test data as JDBC batches of batchSize statements within a single database transaction.  The
+     * builders' statements are sent with their parameters, so the server prepares each distinct statement once and
+     * binds every row to it.  A batchSize of zero or less uses the batch size configured on the support server.
+     */
+    public int[] executeTestDataCreation(final int batchSize, final ITestDataSqlBuilder... testDataItems) throws Exception {
+        return executeStatements(
+                batchSize,
+                Arrays
+                    .stream(testDataItems)
+                    .flatMap(testDataItem -> testDataItem.buildStatements().stream())
+                    .collect(Collectors.toList())
+                );
+    }
+
+    /**
+     * Loads the builders and their declared dependencies, level by level: once a level's dependencies are loaded,
+     * its builders are split across up to parallelism concurrent requests, each run in its own transaction on its own
+     * database connection.  Builders already loaded through this Integration are skipped until clearDatabase or
+     * clearTestDataHistory is called, and builders another thread is loading are waited for.  Returns the number of
+     * builders loaded.
+     *
+     * If a request fails, the builders it carried and those of later levels are forgotten, so a later call can
+     * retry them; builders committed by other requests stay loaded.
+     */
+    public int loadTestData(final int parallelism, final ITestDataSqlBuilder... testDataItems) throws Exception {
+        final FixturePlan plan = FixturePlan.create(Arrays.asList(testDataItems), testDataLoads);
+
+        if (plan.getBuilderCount() > 0) {
+            final ExecutorService executor = RequestExecutors.newFixedExecutor(Math.max(parallelism, 1));
+            int levelIndex = 0;
+            try {
+                for (; levelIndex < plan.getLevels().size(); levelIndex++) {
+                    loadTestDataLevel(plan, plan.getLevels().get(levelIndex), Math.max(parallelism, 1), executor);
+                }
+            } catch (final Exception e) {
+                for (int i = levelIndex + 1; i < plan.getLevels().size(); i++) {
+                    completeTestDataLoads(plan, plan.getLevels().get(i), e);
+                }
+                throw e;
+            } finally {
+                executor.shutdownNow();
+            }
+            logger.debug("Loaded " + plan.getBuilderCount() + " test data builders in " + plan.getLevels().size() + " levels");
+        }
+
+        for (final CompletableFuture<Void> pendingLoad : plan.getPendingLoads()) {
+            awaitTestDataLoad(pendingLoad, null);
+        }
+        return plan.getBuilderCount();
+    }
+
+    /**
+     * Loads the level's builders in up to parallelism groups and waits for every group, so each builder's load is
+     * completed or forgotten according to whether its own group committed.  Rethrows the first failure.
+     */
+    private void loadTestDataLevel(
+            final FixturePlan plan,
+            final List<ITestDataSqlBuilder> level,
+            final int parallelism,
+            final ExecutorService executor) throws Exception {
+
+        final int groupCount = Math.min(parallelism, level.size());
+        final List<List<ITestDataSqlBuilder>> groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < level.size(); i++) {
+            groups.get(i % groupCount).add(level.get(i));
+        }
+
+        final List<Future<?>> futures = new ArrayList<>(groupCount);
+        for (final List<ITestDataSqlBuilder> group : groups) {
+            futures.add(executor.submit(() -> {
+                awaitTestDataPrerequisites(plan, group);
+                final List<SqlStatement> statements = new ArrayList<>();
+                group.forEach(builder -> statements.addAll(builder.buildOwnStatements(plan.getInlinedBuilders(builder)::contains)));
+                if (!statements.isEmpty()) {
+                    executeStatements(0, statements);
+                }
+                return null;
+            }));
+        }
+
+        Exception failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+                completeTestDataLoads(plan, groups.get(i), null);
+            } catch (final ExecutionException e) {
+                final Exception cause = e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+                completeTestDataLoads(plan, groups.get(i), cause);
+                failure = failure == null ? cause : failure;
+            } catch (final InterruptedException e) {
+                completeTestDataLoads(plan, groups.get(i), e);
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Marks the builders, and those they inlined, loaded, or forgets them when failure is given so a later call loads
+     * them again.
+     */
+    private void completeTestDataLoads(final FixturePlan plan, final List<ITestDataSqlBuilder> builders, final Throwable failure) {
+        for (final ITestDataSqlBuilder builder : builders) {
+            final CompletableFuture<Void> load = testDataLoads.get(builder);
+            if (load == null) {
+                continue;
+            }
+            if (failure == null) {
+                load.complete(null);
+            } else {
+                testDataLoads.remove(builder, load);
+                plan.getInlinedBuilders(builder).forEach(inlined -> testDataLoads.remove(inlined, load));
+                load.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Waits for prerequisites another thread is still loading; those loaded by this plan are already complete.
+     */
+    private void awaitTestDataPrerequisites(final FixturePlan plan, final List<ITestDataSqlBuilder> builders) throws Exception {
+        for (final ITestDataSqlBuilder builder : builders) {
+            for (final ITestDataSqlBuilder prerequisite : plan.getPrerequisites(builder)) {
+                final CompletableFuture<Void> load = testDataLoads.get(prerequisite);
+                if (load != null) {
+                    awaitTestDataLoad(load, prerequisite);
+                }
+            }
+        }
+    }
+
+    private void awaitTestDataLoad(final CompletableFuture<Void> load, final ITestDataSqlBuilder builder) throws Exception {
+        try {
+            load.get();
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException(
+                    "Test data " + (builder == null ? "" : builder + " ") + "being loaded by another caller failed to load",
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Forgets which builders loadTestData has loaded or inlined, so they are loaded again when next given, and which
+     * builders buildSql and buildStatements have inlined.
+     */
+    public void clearTestDataHistory() {
+        testDataLoads.clear();
+        BaseTestDataSqlBuilder.clearBuilderHistory();
+    }
+
+    public int[] executeDatabaseCommands(final int batchSize, final String... commands) throws Exception {
+        return executeDatabaseCommands(batchSize, Arrays.asList(commands));
+    }
+
+    /**
+     * Executes the commands as JDBC batches within a single database transaction, which is rolled back entirely if
+     * any command fails.  Returns the update count of each command, in order.
+     */
+    public int[] executeDatabaseCommands(final int batchSize, final List<String> commands) throws Exception {
+        final String commandText = StringUtils.join(commands, ";");
+        return executeDatabaseBatch(batchSize, new StringEntity(commandText, Charset.forName("UTF-8")), MediaType.TEXT_PLAIN);
+    }
+
+    public int[] executeStatements(final int batchSize, final SqlStatement... statements) throws Exception {
+        return executeStatements(batchSize, Arrays.asList(statements));
+    }
+
+    /**
+     * As executeDatabaseCommands(int, List), binding each statement's parameters to a prepared statement.
+     */
+    public int[] executeStatements(final int batchSize, final List<SqlStatement> statements) throws Exception {
+        final String statementJson = SqlStatement.toJSON(statements);
+        return executeDatabaseBatch(batchSize, new StringEntity(statementJson, ContentType.APPLICATION_JSON.withCharset("UTF-8")), MediaType.APPLICATION_JSON);
+    }
+
+    private int[] executeDatabaseBatch(final int batchSize, final HttpEntity entity, final MediaType contentType) throws Exception {
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.POST)
+                .setUri(getUriBuilder()
+                        .setPath(getIntegrationBasePath() + "/data/batch")
+                        .addParameter("batchSize", Integer.toString(batchSize))
+                        .build())
+                .addHeader(getHeader(RequestHeader.CONTENT_TYPE, contentType))
+                .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
+                .setEntity(entity)
+                .build();
+
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess()) {
+            throw new RuntimeException("Error executing database command batch.  Successful status was expected.  Actual status was " + response.getStatusCode());
+        }
+
+        final JSONArray counts = ((JSONBody)response.getBody()).getJSONArray();
+        final int[] updateCounts = new int[counts.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            updateCounts[i] = ((Number)counts.get(i)).intValue();
+        }
+        return updateCounts;
+    }
+
+    /**
+     * Streams the rows into the table through the support server's bulk load endpoint, which inserts them in
+     * batches as they arrive within a single transaction.  Each row is an Object array or List holding one value
+     * per column.  Returns the number of rows inserted.
+     */
+    public long bulkLoad(final String table, final List<String> columns, final Iterator<?> rows) throws Exception {
+        final BulkRowEntity entity = new BulkRowEntity(columns, rows);
+
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.POST)
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data/bulk/" + table))
+                .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
+                .setEntity(entity)
+                .build();
+
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess()) {
+            throw new RuntimeException(
+                    "Error (" + response.getStatusCode() + " - " + response.getStatusPhrase() + ") " +
+                    "bulk loading " + table + " after " + entity.getRowCount() + " rows were sent"
+            );
+        }
+
+        return ((Number)((JSONBody)response.getBody()).get("rows")).longValue();
+    }
+
+    public long bulkLoad(final String table, final List<String> columns, final Stream<?> rows) throws Exception {
+        try (final Stream<?> closingRows = rows) {
+            return bulkLoad(table, columns, closingRows.iterator());
+        }
+    }
+
     public JSONObject executeSingleRowQuery(final String command) throws Exception {
-        HttpUriRequest httpRequest = RequestBuilder
-                .create(HttpMethod.GET.toString())
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.GET)
                 .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
                 .addHeader(getHeader(RequestHeader.CONTENT_TYPE, MediaType.TEXT_PLAIN))
                 .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
@@ -342,8 +783,7 @@ public class Integration implements Closeable {
     }
 
     public JSONArray executeMultiRowQuery(final String command) throws Exception {
-        HttpUriRequest httpRequest = RequestBuilder
-                .create(HttpMethod.GET.toString())
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.GET)
                 .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
                 .addHeader(getHeader(RequestHeader.CONTENT_TYPE, MediaType.TEXT_PLAIN))
                 .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
@@ -363,9 +803,84 @@ public class Integration implements Closeable {
         return body.getJSONArray();
     }
 
+    /**
+     * Executes the query and returns its rows as they arrive, so results of any size are verified in bounded memory
+     * on both the client and the support server.  The rows hold a connection until they have all been read or are
+     * closed; within a database session, other database calls wait for them, and fail with 409 Conflict if they are
+     * not closed within the support server's sessionWaitSeconds.
+     */
+    public StreamedRows executeStreamingQuery(final String command) throws Exception {
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.GET)
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
+                .addHeader(getHeader(RequestHeader.CONTENT_TYPE, MediaType.TEXT_PLAIN))
+                .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
+                .setEntity(new StringEntity(command, Charset.forName("UTF-8")))
+                .build();
+
+        requestResponseLogger.logRequest(httpRequest);
+
+        final long startNanos = System.nanoTime();
+        final CloseableHttpResponse httpResponse;
+        try {
+            httpResponse = transport.executeStreaming(httpRequest);
+        } catch (final IOException e) {
+            recordFailure(httpRequest, startNanos);
+            throw new RequestException(e);
+        }
+
+        final HttpEntity entity = httpResponse.getEntity();
+        if (httpResponse.getStatusLine().getStatusCode() != 200 || entity == null) {
+            try (final CloseableHttpResponse closingResponse = httpResponse) {
+                final Response response = completeResponse(httpRequest, new Response(httpRequest, closingResponse), null, startNanos);
+                throw new RuntimeException(
+                        "Error (" + response.getStatusCode() + " - " + response.getStatusPhrase() + ") " +
+                        "executing streaming databse query: " + command
+                );
+            }
+        }
+
+        final CountingInputStream body = new CountingInputStream(entity.getContent());
+        return new StreamedRows(new JsonArrayReader(body), () -> {
+            try {
+                httpResponse.close();
+            } finally {
+                completeResponse(
+                        httpRequest,
+                        new StreamedResponse<Void>(httpRequest, httpResponse, new StreamedBody(body.getByteCount()), null),
+                        null,
+                        startNanos);
+            }
+        });
+    }
+
+    /**
+     * Executes the query, receiving the rows in the support server's columnar binary format and decoding them into
+     * primitive-array-backed columns.  Moves far fewer bytes than a JSON result and allocates little per cell.
+     */
+    public ColumnarResult executeColumnarQuery(final String command) throws Exception {
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.GET)
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
+                .addHeader(getHeader(RequestHeader.CONTENT_TYPE, MediaType.TEXT_PLAIN))
+                .addHeader(getHeader(RequestHeader.ACCEPT, ColumnarResult.MEDIA_TYPE))
+                .setEntity(new StringEntity(command, Charset.forName("UTF-8")))
+                .build();
+
+        final StreamedResponse<ColumnarResult> response = executeStreamingRequest(
+                httpRequest,
+                null,
+                ColumnarResult::readIfColumnar);
+
+        if (response.getStatusCode() != 200 || response.getResult() == null) {
+            throw new RuntimeException(
+                    "Error (" + response.getStatusCode() + " - " + response.getStatusPhrase() + ") " +
+                    "executing columnar databse query: " + command
+            );
+        }
+        return response.getResult();
+    }
+
     public Object executeScalarDatabaseRequest(final String command) throws Exception {
-        HttpUriRequest httpRequest = RequestBuilder
-                .create(HttpMethod.GET.toString())
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.GET)
                 .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
                 .addHeader(getHeader(RequestHeader.CONTENT_TYPE, MediaType.TEXT_PLAIN))
                 .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
@@ -396,13 +911,182 @@ public class Integration implements Closeable {
         return rowObject.get(rowObject.keySet().iterator().next());
     }
 
-    public void clearDatabase() throws Exception {
+    /**
+     * Empties the tables configured on the support server, in foreign key order.  Returns the milliseconds taken to
+     * clear each table, in the order they were cleared.
+     */
+    public Map<String, Long> clearDatabase() throws Exception {
+        clearTestDataHistory();
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.DELETE)
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
+                .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
+                .build();
+
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess()) {
+            throw new RuntimeException("Error clearing database.  Successful status was expected.  Actual status was " + response.getStatusCode());
+        }
+
+        final Map<String, Long> tableMillis = new LinkedHashMap<>();
+        if (response.getBody() instanceof JSONBody) {
+            final JSONObject result = ((JSONBody)response.getBody()).getJSONObject();
+            for (final Object table : (JSONArray)result.get("tables")) {
+                final JSONObject timing = (JSONObject)table;
+                tableMillis.put((String)timing.get("table"), ((Number)timing.get("millis")).longValue());
+            }
+            logger.debug("Cleared " + tableMillis.size() + " tables in " + result.get("millis") + "ms: " + tableMillis);
+        }
+        return tableMillis;
+    }
+
+    /**
+     * Captures the current contents of the tables configured on the support server under the name, replacing any
+     * snapshot of that name.  Build an expensive baseline once, snapshot it, and restore it before each test instead
+     * of clearing and recreating it.  Returns the number of rows captured.
+     */
+    public long snapshot(final String name) throws Exception {
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.POST)
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/snapshots/" + name))
+                .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
+                .build();
+
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess()) {
+            throw new RuntimeException(
+                    "Error (" + response.getStatusCode() + " - " + response.getStatusPhrase() + ") " +
+                    "capturing snapshot " + name
+            );
+        }
+
+        final Set<ITestDataSqlBuilder> loadedTestData = new HashSet<>();
+        testDataLoads.forEach((builder, load) -> {
+            if (load.isDone() && !load.isCompletedExceptionally()) {
+                loadedTestData.add(builder);
+            }
+        });
+        snapshotTestData.put(name, loadedTestData);
+        return ((Number)((JSONBody)response.getBody()).get("rows")).longValue();
+    }
+
+    /**
+     * Replaces the contents of the configured tables with the named snapshot.  Test data builders that had been
+     * loaded when the snapshot was captured count as loaded again.  Returns the number of rows restored.
+     */
+    public long restore(final String name) throws Exception {
+        HttpUriRequest httpRequest = createDatabaseRequest(HttpMethod.POST)
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/snapshots/" + name + "/restore"))
+                .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
+                .build();
+
+        clearTestDataHistory();
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess()) {
+            throw new RuntimeException(
+                    "Error (" + response.getStatusCode() + " - " + response.getStatusPhrase() + ") " +
+                    "restoring snapshot " + name
+            );
+        }
+
+        for (final ITestDataSqlBuilder builder : snapshotTestData.getOrDefault(name, Collections.emptySet())) {
+            testDataLoads.put(builder, CompletableFuture.completedFuture(null));
+        }
+        return ((Number)((JSONBody)response.getBody()).get("rows")).longValue();
+    }
+
+    public void deleteSnapshot(final String name) throws Exception {
         HttpUriRequest httpRequest = RequestBuilder
                 .create(HttpMethod.DELETE.toString())
-                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/data"))
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/snapshots/" + name))
                 .build();
 
-        executeRequest(httpRequest);
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess() && response.getStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+            throw new RuntimeException("Error deleting snapshot.  Successful status was expected.  Actual status was " + response.getStatusCode());
+        }
+        snapshotTestData.remove(name);
+    }
+
+    /**
+     * Opens a transaction on the support server that every database call made through this Integration joins until
+     * the session is closed, when all of it is rolled back.  Only one session can be open at a time.
+     */
+    public DatabaseSession openDatabaseSession() throws Exception {
+        if (databaseSession != null) {
+            throw new IllegalStateException("Database session " + databaseSession.getId() + " is already open");
+        }
+
+        HttpUriRequest httpRequest = RequestBuilder
+                .create(HttpMethod.POST.toString())
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/sessions"))
+                .addHeader(getHeader(RequestHeader.ACCEPT, MediaType.APPLICATION_JSON))
+                .build();
+
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess()) {
+            throw new RuntimeException("Error opening database session.  Successful status was expected.  Actual status was " + response.getStatusCode());
+        }
+
+        databaseSession = new DatabaseSession(this, (String)((JSONBody)response.getBody()).get("sessionId"));
+        return databaseSession;
+    }
+
+    /**
+     * The open database session, or null when database calls each run in their own transaction.
+     */
+    public DatabaseSession getDatabaseSession() {
+        return databaseSession;
+    }
+
+    void executeDatabaseSessionCommand(final DatabaseSession session, final String command) throws Exception {
+        HttpUriRequest httpRequest = RequestBuilder
+                .create(HttpMethod.POST.toString())
+                .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/sessions/" + session.getId() + command))
+                .build();
+
+        final Response response = executeRequest(httpRequest);
+        if (!response.isSuccess()) {
+            throw new RuntimeException(
+                    "Error (" + response.getStatusCode() + " - " + response.getStatusPhrase() + ") " +
+                    "executing " + command + " on database session " + session.getId()
+            );
+        }
+        if (command.equals("/rollback")) {
+            clearTestDataHistory();
+        }
+    }
+
+    void endDatabaseSession(final DatabaseSession session) {
+        if (databaseSession == session) {
+            databaseSession = null;
+        }
+        clearTestDataHistory();
+
+        final Response response;
+        try {
+            HttpUriRequest httpRequest = RequestBuilder
+                    .create(HttpMethod.DELETE.toString())
+                    .setUri(getUriForAbsolutePath(getIntegrationBasePath() + "/sessions/" + session.getId()))
+                    .build();
+            response = executeRequest(httpRequest);
+        } catch (final URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (!response.isSuccess() && response.getStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+            throw new RuntimeException("Error ending database session.  Successful status was expected.  Actual status was " + response.getStatusCode());
+        }
+    }
+
+    /**
+     * Request to the support server's data endpoints, joined to the open database session if there is one.
+     */
+    private RequestBuilder createDatabaseRequest(final HttpMethod method) {
+        final RequestBuilder requestBuilder = RequestBuilder.create(method.toString());
+        final DatabaseSession session = databaseSession;
+        if (session != null) {
+            requestBuilder.addHeader(DATABASE_SESSION_HEADER, session.getId());
+        }
+        return requestBuilder;
     }
 
     public void configureIntegrationSupport(final String configurationJson) throws Exception {
@@ -438,6 +1122,14 @@ public class Integration implements Closeable {
         return getUriBuilder().setPath(getPathBase() + path).setParameters(query).build();
     }
 
+    /**
+     * Template for a path under the application base, for example "/orders/{id}/items".  Compile templates once and
+     * expand them per request rather than building a URI from scratch each time.
+     */
+    public UriTemplate getUriTemplate(final String pathTemplate) {
+        return UriTemplate.compile("http://" + host + ":" + port + getPathBase() + pathTemplate);
+    }
+
     public URI getUriForAbsolutePath(final String absolutePath) throws URISyntaxException {
         return getUriBuilder().setPath(absolutePath).build();
     }
@@ -0,0 +1,203 @@
+package ca.quadrilateral.integration;
+
+import ca.quadrilateral.integration.transport.ApacheHttpTransport;
+import ca.quadrilateral.integration.transport.IHttpTransportFactory;
+
+public class IntegrationConfiguration {
+    public final int maxConnectionsTotal;
+    public final int maxConnectionsPerRoute;
+    public final long connectTimeoutMillis;
+    public final long socketTimeoutMillis;
+    public final long connectionRequestTimeoutMillis;
+    public final long keepAliveMillis;
+    public final long connectionTimeToLiveMillis;
+    public final long idleConnectionTimeoutMillis;
+    public final long idleEvictionIntervalMillis;
+    public final boolean tcpNoDelay;
+    public final int asyncIoThreadCount;
+    public final int logBodyPreviewLength;
+    public final boolean asynchronousLogging;
+    public final int logBufferSize;
+    public final boolean recordEndpointMetrics;
+    public final IHttpTransportFactory transportFactory;
+
+    private IntegrationConfiguration(final IntegrationConfigurationBuilder builder) {
+        this.maxConnectionsTotal = builder.maxConnectionsTotal;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.socketTimeoutMillis = builder.socketTimeoutMillis;
+        this.connectionRequestTimeoutMillis = builder.connectionRequestTimeoutMillis;
+        this.keepAliveMillis = builder.keepAliveMillis;
+        this.connectionTimeToLiveMillis = builder.connectionTimeToLiveMillis;
+        this.idleConnectionTimeoutMillis = builder.idleConnectionTimeoutMillis;
+        this.idleEvictionIntervalMillis = builder.idleEvictionIntervalMillis;
+        this.tcpNoDelay = builder.tcpNoDelay;
+        this.asyncIoThreadCount = builder.asyncIoThreadCount;
+        this.logBodyPreviewLength = builder.logBodyPreviewLength;
+        this.asynchronousLogging = builder.asynchronousLogging;
+        this.logBufferSize = builder.logBufferSize;
+        this.recordEndpointMetrics = builder.recordEndpointMetrics;
+        this.transportFactory = builder.transportFactory;
+    }
+
+    public static IntegrationConfiguration getDefault() {
+        return IntegrationConfigurationBuilder.getInstance().build();
+    }
+
+    public boolean isIdleEvictionEnabled() {
+        return idleEvictionIntervalMillis > 0;
+    }
+
+    public static class IntegrationConfigurationBuilder {
+        private int maxConnectionsTotal = 200;
+        private int maxConnectionsPerRoute = 100;
+        private long connectTimeoutMillis = 10_000;
+        private long socketTimeoutMillis = 60_000;
+        private long connectionRequestTimeoutMillis = 60_000;
+        private long keepAliveMillis = 30_000;
+        private long connectionTimeToLiveMillis = -1;
+        private long idleConnectionTimeoutMillis = 30_000;
+        private long idleEvictionIntervalMillis = 5_000;
+        private boolean tcpNoDelay = true;
+        private int asyncIoThreadCount = Runtime.getRuntime().availableProcessors();
+        private int logBodyPreviewLength = 8192;
+        private boolean asynchronousLogging = false;
+        private int logBufferSize = 1024;
+        private boolean recordEndpointMetrics = true;
+        private IHttpTransportFactory transportFactory = ApacheHttpTransport::new;
+
+        public static IntegrationConfigurationBuilder getInstance() {
+            return new IntegrationConfigurationBuilder();
+        }
+
+        private IntegrationConfigurationBuilder() {}
+
+        public IntegrationConfigurationBuilder setMaxConnectionsTotal(final int maxConnectionsTotal) {
+            this.maxConnectionsTotal = maxConnectionsTotal;
+            return this;
+        }
+
+        public IntegrationConfigurationBuilder setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public IntegrationConfigurationBuilder setConnectTimeoutMillis(final long connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            return this;
+        }
+
+        public IntegrationConfigurationBuilder setSocketTimeoutMillis(final long socketTimeoutMillis) {
+            this.socketTimeoutMillis = socketTimeoutMillis;
+            return this;
+        }
+
+        public IntegrationConfigurationBuilder setConnectionRequestTimeoutMillis(final long connectionRequestTimeoutMillis) {
+            this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Keep-alive applied to pooled connections when the server does not send a Keep-Alive timeout of its own.
+         * A value less than or equal to zero keeps connections alive indefinitely.
+         */
+        public IntegrationConfigurationBuilder setKeepAliveMillis(final long keepAliveMillis) {
+            this.keepAliveMillis = keepAliveMillis;
+            return this;
+        }
+
+        public IntegrationConfigurationBuilder setConnectionTimeToLiveMillis(final long connectionTimeToLiveMillis) {
+            this.connectionTimeToLiveMillis = connectionTimeToLiveMillis;
+            return this;
+        }
+
+        public IntegrationConfigurationBuilder setIdleConnectionTimeoutMillis(final long idleConnectionTimeoutMillis) {
+            this.idleConnectionTimeoutMillis = idleConnectionTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Interval at which expired and idle connections are evicted from the pool.  Zero or less disables eviction.
+         */
+        public IntegrationConfigurationBuilder setIdleEvictionIntervalMillis(final long idleEvictionIntervalMillis) {
+            this.idleEvictionIntervalMillis = idleEvictionIntervalMillis;
+            return this;
+        }
+
+        public IntegrationConfigurationBuilder setTcpNoDelay(final boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        /**
+         * Number of I/O dispatch threads used by the non-blocking client behind executeRequestAsync.
+         */
+        public IntegrationConfigurationBuilder setAsyncIoThreadCount(final int asyncIoThreadCount) {
+            this.asyncIoThreadCount = asyncIoThreadCount;
+            return this;
+        }
+
+        /**
+         * Maximum number of body characters included in request and response log statements.  A negative value logs
+         * bodies in full.
+         */
+        public IntegrationConfigurationBuilder setLogBodyPreviewLength(final int logBodyPreviewLength) {
+            this.logBodyPreviewLength = logBodyPreviewLength;
+            return this;
+        }
+
+        /**
+         * When enabled, request and response log statements are formatted on a background thread instead of the
+         * thread executing the request.  Disabled by default.
+         */
+        public IntegrationConfigurationBuilder setAsynchronousLogging(final boolean asynchronousLogging) {
+            this.asynchronousLogging = asynchronousLogging;
+            return this;
+        }
+
+        /**
+         * Number of pending log statements buffered for the background thread before requests wait for it to catch up.
+         */
+        public IntegrationConfigurationBuilder setLogBufferSize(final int logBufferSize) {
+            this.logBufferSize = logBufferSize;
+            return this;
+        }
+
+        /**
+         * When enabled, every executed request records its latency, status class and byte counts into a per endpoint
+         * histogram available from Integration.getEndpointStatistics().
+         */
+        public IntegrationConfigurationBuilder setRecordEndpointMetrics(final boolean recordEndpointMetrics) {
+            this.recordEndpointMetrics = recordEndpointMetrics;
+            return this;
+        }
+
+        /**
+         * Transport requests are sent through.  Defaults to ApacheHttpTransport; JdkHttpTransport::new selects the
+         * JDK client with HTTP/2.
+         */
+        public IntegrationConfigurationBuilder setTransportFactory(final IHttpTransportFactory transportFactory) {
+            this.transportFactory = transportFactory;
+            return this;
+        }
+
+        public IntegrationConfiguration build() {
+            if (maxConnectionsTotal < 1) {
+                throw new IllegalArgumentException("maxConnectionsTotal must be at least 1");
+            }
+            if (maxConnectionsPerRoute < 1 || maxConnectionsPerRoute > maxConnectionsTotal) {
+                throw new IllegalArgumentException("maxConnectionsPerRoute must be between 1 and maxConnectionsTotal");
+            }
+            if (asyncIoThreadCount < 1) {
+                throw new IllegalArgumentException("asyncIoThreadCount must be at least 1");
+            }
+            if (transportFactory == null) {
+                throw new IllegalArgumentException("A transport factory must be specified");
+            }
+            if (logBufferSize < 1) {
+                throw new IllegalArgumentException("logBufferSize must be at least 1");
+            }
+            return new IntegrationConfiguration(this);
+        }
+    }
+}
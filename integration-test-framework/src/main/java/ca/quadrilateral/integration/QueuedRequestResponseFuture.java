@@ -1,5 +1,6 @@
 package ca.quadrilateral.integration;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -10,9 +11,10 @@ public class QueuedRequestResponseFuture implements Future<Response>{
     private volatile Future<Response> wrappedFuture;
 
     private volatile Response response = null;
+    private volatile Throwable exception = null;
     private volatile boolean isInterrupted = false;
     
-    private boolean isCancelled = false;
+    private volatile boolean isCancelled = false;
     
     public QueuedRequestResponseFuture(final Request request) {
         this.request = request;
@@ -26,13 +28,17 @@ public class QueuedRequestResponseFuture implements Future<Response>{
         this.response = response;
     }
     
+    public void setException(final Throwable exception) {
+        this.exception = exception;
+    }
+
     public void setWrappedFuture(final Future<Response> future) {
         this.wrappedFuture = future;
     }
     
     @Override
     public boolean cancel(final boolean mayInterruptIfRunning) {
-        if (this.response != null) {
+        if (this.response != null || this.exception != null) {
             return false;
         } else if (wrappedFuture != null) {
             return wrappedFuture.cancel(mayInterruptIfRunning);
@@ -63,12 +69,13 @@ public class QueuedRequestResponseFuture implements Future<Response>{
         } else if (wrappedFuture != null) {
             return wrappedFuture.isDone();
         } else {
-            return response != null;
+            return response != null || exception != null;
         }
     }
 
     @Override
     public Response get() throws InterruptedException, ExecutionException {
+        throwCancellationExceptionIfNecessary();
         if (wrappedFuture != null) {
             return wrappedFuture.get();
         }   
@@ -88,6 +95,7 @@ public class QueuedRequestResponseFuture implements Future<Response>{
     @Override
     public Response get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
         final long endTime = System.currentTimeMillis() + unit.toMillis(timeout);
+        throwCancellationExceptionIfNecessary();
         throwInterruptedExceptionIfNecessary();
         
         if (wrappedFuture != null) {
@@ -97,16 +105,25 @@ public class QueuedRequestResponseFuture implements Future<Response>{
         while (System.currentTimeMillis() < endTime) {
             if (response != null) {
                 return response;
+            } else if (exception != null) {
+                throw new ExecutionException(exception);
             } else if (wrappedFuture != null) {
                 return wrappedFuture.get(endTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
             }
             Thread.sleep(100);
+            throwCancellationExceptionIfNecessary();
             throwInterruptedExceptionIfNecessary();
         }
         
         throw new TimeoutException("Timeout expired trying to get result");
     }
 
+    private void throwCancellationExceptionIfNecessary() {
+        if (isCancelled) {
+            throw new CancellationException("Request was cancelled before it was executed");
+        }
+    }
+
     private void throwInterruptedExceptionIfNecessary() throws InterruptedException{
         if (Thread.currentThread().isInterrupted() || isInterrupted) {
             Thread.currentThread().interrupt();
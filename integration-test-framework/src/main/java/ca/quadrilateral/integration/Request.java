@@ -7,8 +7,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.message.BasicHeader;
 import org.json.simple.JSONAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +28,8 @@ public class Request {
     public final URI uri;
     public final IBody requestBody;
     public final Map<String, String> headerMap;
+    private final Header[] headers;
+    private volatile HttpEntity httpEntity;
 
     private Request(final HttpMethod method, final URI uri) {
         this(method, uri, new NoBody(), Collections.emptyMap());
@@ -42,12 +46,34 @@ public class Request {
     private Request(final HttpMethod method, final URI uri, final IBody requestBody, final Map<String, String> headerMap) {
         this.method = method;
         this.uri = uri;
-        this.headerMap = headerMap;
+        this.headerMap = Collections.unmodifiableMap(new HashMap<>(headerMap));
         this.requestBody = requestBody;
+
+        this.headers = new Header[headerMap.size()];
+        int i = 0;
+        for (final Map.Entry<String, String> header : headerMap.entrySet()) {
+            this.headers[i++] = new BasicHeader(header.getKey(), header.getValue());
+        }
+    }
+
+    /**
+     * Headers as immutable Header objects built once, so each execution only copies references.
+     */
+    public Header[] getHeaders() {
+        return headers.clone();
     }
     
+    /**
+     * The body's entity, created on first use and reused by every execution of this request.  Body entities are
+     * repeatable, so sharing one across retries and concurrent executions is safe.
+     */
     public HttpEntity getHttpEntity() {
-        return requestBody.getHttpEntity();
+        HttpEntity entity = httpEntity;
+        if (entity == null) {
+            entity = requestBody.getHttpEntity();
+            httpEntity = entity;
+        }
+        return entity;
     }
     
     public boolean hasBodyEntity() {
@@ -92,6 +118,11 @@ public class Request {
             return this;
         }
         
+        public RequestBuilder setUri(final UriTemplate uriTemplate, final Object... values) {
+            this.uri = new TemplateUri(uriTemplate, values);
+            return this;
+        }
+
         public RequestBuilder setUri(final URIBuilder uriBuilder) throws RequestBuilderException {
             this.uri = new UriBuilderUri(uriBuilder);
             return this;
@@ -192,6 +223,24 @@ public class Request {
         }
     }
     
+    private static class TemplateUri implements IUri {
+        private final UriTemplate uriTemplate;
+        private final Object[] values;
+
+        public TemplateUri(final UriTemplate uriTemplate, final Object[] values) {
+            this.uriTemplate = uriTemplate;
+            this.values = values.clone();
+        }
+
+        public URI getUri() throws URISyntaxException {
+            try {
+                return uriTemplate.expand(values);
+            } catch (final IllegalArgumentException e) {
+                throw new URISyntaxException(uriTemplate.toString(), e.getMessage());
+            }
+        }
+    }
+
     private static class UriBuilderUri implements IUri {
         private final URIBuilder uriBuilder;
         
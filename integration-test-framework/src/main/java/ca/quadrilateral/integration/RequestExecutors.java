@@ -0,0 +1,49 @@
+package ca.quadrilateral.integration;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class RequestExecutors {
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutors.class);
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively so the framework still runs on pre-21 JVMs
+    private static final MethodHandle VIRTUAL_THREAD_EXECUTOR_FACTORY = findVirtualThreadExecutorFactory();
+
+    private RequestExecutors() {}
+
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_EXECUTOR_FACTORY != null;
+    }
+
+    public static ExecutorService newDefaultExecutor() {
+        if (VIRTUAL_THREAD_EXECUTOR_FACTORY != null) {
+            try {
+                return (ExecutorService)VIRTUAL_THREAD_EXECUTOR_FACTORY.invoke();
+            } catch (final Throwable e) {
+                logger.warn("Unable to create virtual thread executor, falling back to a cached thread pool", e);
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    public static ExecutorService newFixedExecutor(final int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    private static MethodHandle findVirtualThreadExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    Executors.class,
+                    "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
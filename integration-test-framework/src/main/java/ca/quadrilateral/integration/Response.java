@@ -1,17 +1,19 @@
 package ca.quadrilateral.integration;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
@@ -19,12 +21,11 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.methods.HttpUriRequest;
-import org.json.simple.JSONAware;
-import org.json.simple.JSONValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ca.quadrilateral.integration.body.BinaryBody;
+import ca.quadrilateral.integration.body.BodyBuffers;
 import ca.quadrilateral.integration.body.IBody;
 import ca.quadrilateral.integration.body.JSONBody;
 import ca.quadrilateral.integration.body.NoBody;
@@ -37,7 +38,9 @@ public class Response {
     private final int statusCode;
     private final String statusPhrase;
     private final Map<String, Header> headerMap = new HashMap<>();
+    private final Header[] allHeaders;
     private final IBody responseBody;
+    private long bodyLength = 0;
 
     private static final Pattern LOCATION_ID_PATTERN = Pattern.compile("^.*/([0-9]+$)");
 
@@ -46,7 +49,7 @@ public class Response {
         this.statusCode = httpResponse.getStatusLine().getStatusCode();
         this.statusPhrase = httpResponse.getStatusLine().getReasonPhrase();
 
-        final Header[] allHeaders = httpResponse.getAllHeaders();
+        this.allHeaders = httpResponse.getAllHeaders();
         for (final Header header : allHeaders) {
             headerMap.put(header.getName().toLowerCase(), header);
         }
@@ -54,6 +57,20 @@ public class Response {
         this.responseBody = buildResponseBody(httpResponse);
     }
 
+    protected Response(final HttpUriRequest request, final HttpResponse httpResponse, final IBody responseBody, final long bodyLength) {
+        this.request = request;
+        this.statusCode = httpResponse.getStatusLine().getStatusCode();
+        this.statusPhrase = httpResponse.getStatusLine().getReasonPhrase();
+
+        this.allHeaders = httpResponse.getAllHeaders();
+        for (final Header header : allHeaders) {
+            headerMap.put(header.getName().toLowerCase(), header);
+        }
+
+        this.responseBody = responseBody;
+        this.bodyLength = bodyLength;
+    }
+
     public boolean isSuccess() {
         return statusCode >= 200 && statusCode < 300;
     }
@@ -83,23 +100,23 @@ public class Response {
             entityInputStream = entity.getContent();
             final long contentLength = entity.getContentLength();
 
-            final ByteArrayOutputStream outputStream;
-            if (contentLength > 0 && contentLength <= Integer.MAX_VALUE) {
-                outputStream = new ByteArrayOutputStream((int)contentLength);
-            } else if (contentLength == 0) {
+            if (contentLength == 0) {
                 return new NoBody();
-            } else if (contentLength == -1) {
-                outputStream = new ByteArrayOutputStream();
-            } else {
-                throw new UnsupportedOperationException("Responses of greater than " + Integer.MAX_VALUE + " bytes are presently not supported.");
+            } else if (contentLength > Integer.MAX_VALUE) {
+                throw new UnsupportedOperationException(
+                        "Responses of greater than " + Integer.MAX_VALUE + " bytes cannot be buffered; "
+                        + "use Integration.executeStreamingRequest to consume them incrementally.");
             }
 
-            IOUtils.copy(entity.getContent(), outputStream);
+            final byte[] bytes = BodyBuffers.readFully(entityInputStream, contentLength);
+            bodyLength = bytes.length;
 
-            final HeaderElement[] elements = entity.getContentType().getElements();
+            final HeaderElement[] elements = entity.getContentType() == null
+                    ? new HeaderElement[0]
+                    : entity.getContentType().getElements();
 
             if (elements.length != 1) {
-                return new BinaryBody(outputStream.toByteArray());
+                return BinaryBody.wrap(bytes);
             } else if (elements[0].getName().equalsIgnoreCase(MediaType.APPLICATION_JSON.getMediaTypeString())) {
                 final NameValuePair charsetParam = elements[0].getParameterByName("charset");
 
@@ -110,13 +127,7 @@ public class Response {
                     charset = Charset.defaultCharset();
                 }
 
-                final String jsonText = new String(outputStream.toByteArray(), charset);
-
-                if (jsonText.trim().length() > 0) {
-                    return new JSONBody((JSONAware)JSONValue.parse(jsonText), charset);
-                } else {
-                    return new NoBody();
-                }
+                return isBlank(bytes) ? new NoBody() : JSONBody.wrap(bytes, charset);
             } else if (elements[0].getName().equalsIgnoreCase(MediaType.TEXT_PLAIN.getMediaTypeString())) {
                 final NameValuePair charsetParam = elements[0].getParameterByName("charset");
 
@@ -127,9 +138,7 @@ public class Response {
                     charset = Charset.defaultCharset();
                 }
 
-                final String text = new String(outputStream.toByteArray(), charset);
-
-                return new TextBody(text, charset);
+                return TextBody.wrap(bytes, charset);
             } else if (elements[0].getName().equalsIgnoreCase(MediaType.APPLICATION_XML.getMediaTypeString())) {
                 final NameValuePair charsetParam = elements[0].getParameterByName("charset");
 
@@ -140,11 +149,9 @@ public class Response {
                     charset = Charset.defaultCharset();
                 }
 
-                final String text = new String(outputStream.toByteArray(), charset);
-
-                return new TextBody(text, charset);
+                return TextBody.wrap(bytes, charset);
             } else {
-                return new BinaryBody(outputStream.toByteArray());
+                return BinaryBody.wrap(bytes);
             }
         } catch (final IOException e) {
             return new NoBody();
@@ -159,6 +166,15 @@ public class Response {
         }
     }
 
+    private static boolean isBlank(final byte[] bytes) {
+        for (final byte b : bytes) {
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public int getStatusCode() {
         return this.statusCode;
     }
@@ -175,6 +191,24 @@ public class Response {
         return headerMap.get(header.toLowerCase()).getValue();
     }
 
+    public boolean hasHeader(final String header) {
+        return headerMap.containsKey(header.toLowerCase());
+    }
+
+    /**
+     * One header for each name, the last received when a header such as Set-Cookie is repeated.
+     */
+    public Collection<Header> getHeaders() {
+        return Collections.unmodifiableCollection(headerMap.values());
+    }
+
+    /**
+     * Every header in the order received, repeated ones included.
+     */
+    public List<Header> getAllHeaders() {
+        return Collections.unmodifiableList(Arrays.asList(allHeaders));
+    }
+
     public Long extractLocationHeaderId() {
         final String headerValue = getHeaderValue(ResponseHeader.LOCATION);
         if (StringUtils.isBlank(headerValue)) {
@@ -193,27 +227,35 @@ public class Response {
         return responseBody;
     }
 
+    public long getBodyLength() {
+        return bodyLength;
+    }
+
     public boolean hasBody() {
         return !(responseBody instanceof NoBody);
     }
     
     @Override
     public String toString() {
+        return toLogStatement(-1);
+    }
+
+    public String toLogStatement(final int maxBodyLength) {
         final StringBuilder builder = new StringBuilder(0xfff);
 
         builder.append("\nResponse\n");
         builder.append("********\n");
-        builder.append("Status: " + statusCode + " - " + statusPhrase + "\n");
-        builder.append("    (Request: " + request.getMethod() + " - " + request.getURI().toString() + ")\n\n");
+        builder.append("Status: ").append(statusCode).append(" - ").append(statusPhrase).append("\n");
+        builder.append("    (Request: ").append(request.getMethod()).append(" - ").append(request.getURI().toString()).append(")\n\n");
         builder.append("Headers:\n");
 
         for (final Entry<String, Header> entry : headerMap.entrySet()) {
-            builder.append("    " + entry.getKey() + " => " + entry.getValue().getValue() + "\n");
+            builder.append("    ").append(entry.getKey()).append(" => ").append(entry.getValue().getValue()).append("\n");
         }
 
         builder.append("\n");
         builder.append("Body:\n");
-        builder.append(responseBody.toString());
+        builder.append(responseBody.toPreviewString(maxBodyLength));
         builder.append("\n\n");
 
         return builder.toString();
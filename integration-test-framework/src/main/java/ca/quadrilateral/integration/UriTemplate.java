@@ -0,0 +1,128 @@
+package ca.quadrilateral.integration;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * URI with named placeholders, such as "http://localhost:8080/app/orders/{id}/items", parsed once and expanded by
+ * concatenation.  Substituted values are percent-encoded so they always form a single path segment or query value.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public final class UriTemplate {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final String template;
+    private final String[] literals;
+    private final String[] variableNames;
+    private final int literalLength;
+
+    private UriTemplate(final String template, final List<String> literals, final List<String> variableNames) {
+        this.template = template;
+        this.literals = literals.toArray(new String[0]);
+        this.variableNames = variableNames.toArray(new String[0]);
+
+        int length = 0;
+        for (final String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static UriTemplate compile(final String template) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> variableNames = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            final int open = template.indexOf('{', position);
+            if (open == -1) {
+                literals.add(template.substring(position));
+                break;
+            }
+            final int close = template.indexOf('}', open);
+            if (close == -1) {
+                throw new IllegalArgumentException("Unterminated variable in URI template '" + template + "'");
+            }
+            final String name = template.substring(open + 1, close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty variable name in URI template '" + template + "'");
+            }
+            literals.add(template.substring(position, open));
+            variableNames.add(name);
+            position = close + 1;
+        }
+
+        final UriTemplate uriTemplate = new UriTemplate(template, literals, variableNames);
+        final Object[] sampleValues = new Object[variableNames.size()];
+        Arrays.fill(sampleValues, "x");
+        uriTemplate.expand(sampleValues);
+        return uriTemplate;
+    }
+
+    public List<String> getVariableNames() {
+        return Collections.unmodifiableList(Arrays.asList(variableNames));
+    }
+
+    /**
+     * Expands the template with values given in the order their variables appear.
+     */
+    public URI expand(final Object... values) {
+        if (values.length != variableNames.length) {
+            throw new IllegalArgumentException(
+                    "URI template '" + template + "' has " + variableNames.length + " variables but " + values.length + " values were given");
+        }
+
+        final StringBuilder builder = new StringBuilder(literalLength + values.length * 16);
+        builder.append(literals[0]);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                throw new IllegalArgumentException("No value for variable '" + variableNames[i] + "' in URI template '" + template + "'");
+            }
+            appendEncoded(builder, values[i].toString());
+            builder.append(literals[i + 1]);
+        }
+        return URI.create(builder.toString());
+    }
+
+    public URI expand(final Map<String, ?> values) {
+        final Object[] orderedValues = new Object[variableNames.length];
+        for (int i = 0; i < variableNames.length; i++) {
+            orderedValues[i] = values.get(variableNames[i]);
+        }
+        return expand(orderedValues);
+    }
+
+    private static void appendEncoded(final StringBuilder builder, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                builder.append(c);
+            } else {
+                final byte[] bytes = (c < 0x80)
+                        ? new byte[] { (byte)c }
+                        : String.valueOf(Character.isHighSurrogate(c) && i + 1 < value.length()
+                                ? new char[] { c, value.charAt(++i) }
+                                : new char[] { c }).getBytes(StandardCharsets.UTF_8);
+                for (final byte b : bytes) {
+                    builder.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+                }
+            }
+        }
+    }
+
+    private static boolean isUnreserved(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
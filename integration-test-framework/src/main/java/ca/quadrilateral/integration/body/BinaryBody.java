@@ -1,5 +1,10 @@
 package ca.quadrilateral.integration.body;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import org.apache.commons.codec.binary.Hex;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
@@ -12,29 +17,62 @@ public class BinaryBody implements IBody {
     private final MediaType mediaType;
     
     public BinaryBody(final byte[] bytes) {
-        this.bytes = bytes.clone();
-        this.mediaType = null;
+        this(null, bytes.clone());
     }
     
     public BinaryBody(final byte[] bytes, final MediaType mediaType) {
-        this.bytes = bytes.clone();
+        this(mediaType, bytes.clone());
+    }
+
+    private BinaryBody(final MediaType mediaType, final byte[] bytes) {
+        this.bytes = bytes;
         this.mediaType = mediaType;
     }
+
+    /**
+     * Creates a body backed by the given array without copying it; the caller must not modify the array afterwards.
+     */
+    public static BinaryBody wrap(final byte[] bytes) {
+        return new BinaryBody(null, bytes);
+    }
+
+    public static BinaryBody wrap(final byte[] bytes, final MediaType mediaType) {
+        return new BinaryBody(mediaType, bytes);
+    }
     
     @Override
     public byte[] getBytes() {
         return bytes.clone();
     }   
 
+    @Override
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        outputStream.write(bytes);
+    }
+
     @Override
     public HttpEntity getHttpEntity() {
         if (mediaType == null) {
-            return new ByteArrayEntity(getBytes());
+            return new ByteArrayEntity(bytes);
         } else {
-            return new ByteArrayEntity(getBytes(), ContentType.create(mediaType.getMediaTypeString())); 
+            return new ByteArrayEntity(bytes, ContentType.create(mediaType.getMediaTypeString())); 
         }
     }
     
+    @Override
+    public String toPreviewString(final int maxLength) {
+        final int maxBytes = maxLength / 2;
+        if (maxLength < 0 || bytes.length <= maxBytes) {
+            return toString();
+        }
+        return PreviewWriter.truncated(new String(Hex.encodeHex(Arrays.copyOf(bytes, maxBytes))), bytes.length);
+    }
+
     @Override
     public String toString() {
         return new String(Hex.encodeHex(bytes));
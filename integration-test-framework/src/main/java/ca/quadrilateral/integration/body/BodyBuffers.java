@@ -0,0 +1,91 @@
+package ca.quadrilateral.integration.body;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of fixed size read buffers used when ingesting bodies, so reading a response does not allocate scratch space
+ * proportional to its size.
+ */
+public final class BodyBuffers {
+    public static final int CHUNK_SIZE = 0x10000;
+    private static final int MAX_POOLED_CHUNKS = 64;
+
+    private static final BlockingQueue<byte[]> pool = new ArrayBlockingQueue<>(MAX_POOLED_CHUNKS);
+
+    private BodyBuffers() {}
+
+    public static byte[] acquire() {
+        final byte[] chunk = pool.poll();
+        return chunk == null ? new byte[CHUNK_SIZE] : chunk;
+    }
+
+    public static void release(final byte[] chunk) {
+        if (chunk.length == CHUNK_SIZE) {
+            pool.offer(chunk);
+        }
+    }
+
+    /**
+     * Reads the whole stream into an array of exactly the body's size.  When the length is known the stream is read
+     * straight into the result; otherwise it is gathered in pooled chunks and copied into the result once.
+     */
+    public static byte[] readFully(final InputStream inputStream, final long contentLength) throws IOException {
+        if (contentLength >= 0) {
+            return readExactly(inputStream, (int)contentLength);
+        }
+
+        final List<byte[]> chunks = new ArrayList<>();
+        try {
+            long total = 0;
+            int lastChunkLength = CHUNK_SIZE;
+            while (lastChunkLength == CHUNK_SIZE) {
+                final byte[] chunk = acquire();
+                chunks.add(chunk);
+                lastChunkLength = fill(inputStream, chunk, 0, CHUNK_SIZE);
+                total += lastChunkLength;
+                if (total > Integer.MAX_VALUE) {
+                    throw new UnsupportedOperationException(
+                            "Responses of greater than " + Integer.MAX_VALUE + " bytes cannot be buffered; "
+                            + "use Integration.executeStreamingRequest to consume them incrementally.");
+                }
+            }
+
+            final byte[] result = new byte[(int)total];
+            int offset = 0;
+            for (final byte[] chunk : chunks) {
+                final int length = Math.min(CHUNK_SIZE, result.length - offset);
+                System.arraycopy(chunk, 0, result, offset, length);
+                offset += length;
+            }
+            return result;
+        } finally {
+            for (final byte[] chunk : chunks) {
+                release(chunk);
+            }
+        }
+    }
+
+    private static byte[] readExactly(final InputStream inputStream, final int length) throws IOException {
+        final byte[] result = new byte[length];
+        final int read = fill(inputStream, result, 0, length);
+        if (read < length) {
+            throw new EOFException("Body ended after " + read + " of " + length + " bytes");
+        }
+        return result;
+    }
+
+    private static int fill(final InputStream inputStream, final byte[] buffer, final int offset, final int length) throws IOException {
+        int total = 0;
+        int read;
+        while (total < length && (read = inputStream.read(buffer, offset + total, length - total)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+}
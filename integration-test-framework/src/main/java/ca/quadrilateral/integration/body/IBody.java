@@ -1,9 +1,48 @@
 package ca.quadrilateral.integration.body;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
 import org.apache.http.HttpEntity;
 
 public interface IBody {
+    /**
+     * Copy of the body content; callers that only read the content should prefer asByteBuffer or writeTo.
+     */
     byte[] getBytes();
 
     HttpEntity getHttpEntity();
+
+    /**
+     * Read-only view of the body content.  Implementations that hold their bytes return a view without copying them.
+     */
+    default ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(getBytes()).asReadOnlyBuffer();
+    }
+
+    default void writeTo(final OutputStream outputStream) throws IOException {
+        writeTo(Channels.newChannel(outputStream));
+    }
+
+    default void writeTo(final WritableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = asByteBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * The body as text, cut to maxLength characters and marked as in PreviewWriter.truncated when longer.  A negative
+     * maxLength previews the whole body.
+     */
+    default String toPreviewString(final int maxLength) {
+        final String text = toString();
+        if (maxLength < 0 || text.length() <= maxLength) {
+            return text;
+        }
+        return PreviewWriter.truncated(text.substring(0, maxLength), asByteBuffer().remaining());
+    }
 }
@@ -1,11 +1,16 @@
 package ca.quadrilateral.integration.body;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Map;
 
 import org.apache.http.HttpEntity;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONAware;
 import org.json.simple.JSONObject;
@@ -13,22 +18,83 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ca.quadrilateral.integration.MediaType;
+import ca.quadrilateral.integration.util.json.CompiledJsonPath;
 import ca.quadrilateral.integration.util.json.JSONPrettyPrintWriter;
 import ca.quadrilateral.integration.util.json.JSONWrapper;
+import ca.quadrilateral.integration.util.json.JsonPath;
+import ca.quadrilateral.integration.util.json.JsonPrettyPrinter;
+import ca.quadrilateral.integration.util.json.JsonPathSet;
+import ca.quadrilateral.integration.util.json.JsonTape;
 
 public class JSONBody implements IBody {
     private static final Logger logger = LoggerFactory.getLogger(JSONBody.class);
     
-    private final JSONWrapper json;
+    private volatile JSONWrapper json;
     private final Charset encoding;
+    private volatile byte[] encoded;
+    private volatile JsonTape tape;
     
     public JSONBody(final JSONAware json, final Charset encoding) {
         this.json = new JSONWrapper(json);
         this.encoding = encoding;
     }
 
+    private JSONBody(final byte[] encoded, final Charset encoding) {
+        this.encoded = encoded;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Creates a body over encoded JSON without parsing it.  A structural index is built the first time the content
+     * is read, and only the values that are read are decoded, so malformed content is reported on first access
+     * rather than here.
+     */
+    public static JSONBody wrap(final byte[] encoded, final Charset encoding) {
+        return new JSONBody(encoded, encoding);
+    }
+
+    /**
+     * Value at the path, for example "items[12].name", decoding only that value.  Missing members yield null.
+     */
+    public Object get(final String path) {
+        return get(JsonPath.compile(path));
+    }
+
+    public <T> T get(final String path, final Class<T> type) {
+        return type.cast(get(path));
+    }
+
+    public Object get(final CompiledJsonPath path) {
+        final JSONWrapper materialized = json;
+        if (materialized != null) {
+            return path.evaluate(materialized.getWrappedJson());
+        }
+
+        final JsonTape index = getTape();
+        final int entry = path.evaluate(index);
+        return entry == JsonTape.NOT_FOUND ? null : index.materialize(entry);
+    }
+
+    /**
+     * Values at each of the paths, keyed by path expression, found in a single pass over the encoded body.
+     */
+    public Map<String, Object> extract(final JsonPathSet paths) {
+        final JSONWrapper materialized = json;
+        if (materialized != null) {
+            return paths.evaluate(materialized.getWrappedJson());
+        }
+        return paths.evaluate(getEncoded(), encoding);
+    }
+
+    public Map<String, Object> extract(final String... paths) {
+        return extract(JsonPath.compileAll(paths));
+    }
+
+    /**
+     * Full json-simple view of the document, decoded on first use.
+     */
     public JSONArray getJSONArray() {
-        final JSONAware wrappedJson = json.getWrappedJson();
+        final JSONAware wrappedJson = getJson().getWrappedJson();
         
         if (JSONArray.class.isAssignableFrom(wrappedJson.getClass())) {
             return (JSONArray)wrappedJson;
@@ -37,8 +103,11 @@ public class JSONBody implements IBody {
         }
     }
     
+    /**
+     * Full json-simple view of the document, decoded on first use.
+     */
     public JSONObject getJSONObject() {
-        final JSONAware wrappedJson = json.getWrappedJson();
+        final JSONAware wrappedJson = getJson().getWrappedJson();
         
         if (JSONObject.class.isAssignableFrom(wrappedJson.getClass())) {
             return (JSONObject)wrappedJson;
@@ -47,27 +116,113 @@ public class JSONBody implements IBody {
         }
     }
     
+    /**
+     * The encoded form is produced once and reused, so changes made to the document after the body has been sent or
+     * its bytes requested are not reflected.
+     */
     @Override
     public byte[] getBytes() {
-        return json.toJSONString().getBytes(encoding);
+        return getEncoded().clone();
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(getEncoded()).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        outputStream.write(getEncoded());
     }
     
+    /**
+     * Entity carrying the compact encoded form; the encoding is produced once and shared by every entity returned.
+     */
     @Override
     public HttpEntity getHttpEntity() {
-        final StringEntity entity = new StringEntity(toString(), encoding);
-        entity.setContentType(MediaType.APPLICATION_JSON.getMediaTypeString());
-        return entity;
+        return new ByteArrayEntity(getEncoded(), ContentType.create(MediaType.APPLICATION_JSON.getMediaTypeString(), encoding));
+    }
+
+    private byte[] getEncoded() {
+        byte[] result = encoded;
+        if (result == null) {
+            result = json.toJSONString().getBytes(encoding);
+            encoded = result;
+        }
+        return result;
+    }
+
+    private JsonTape getTape() {
+        JsonTape result = tape;
+        if (result == null) {
+            result = JsonTape.index(getEncoded(), encoding);
+            tape = result;
+        }
+        return result;
+    }
+
+    private JSONWrapper getJson() {
+        JSONWrapper result = json;
+        if (result == null) {
+            final JsonTape index = getTape();
+            final Object document = index.materialize(index.root());
+            if (!(document instanceof JSONAware)) {
+                throw new RuntimeException("JSON does not represent an object or array");
+            }
+            result = new JSONWrapper((JSONAware)document);
+            json = result;
+            tape = null;
+        }
+        return result;
     }
     
+    /**
+     * Pretty prints straight from the encoded bytes when they are available, without going through the document.
+     */
+    public void writePrettyPrinted(final Writer writer) throws IOException {
+        final byte[] bytes = encoded;
+        if (bytes != null) {
+            writer.write(JsonPrettyPrinter.toPrettyString(bytes, encoding));
+        } else {
+            final JSONPrettyPrintWriter prettyPrintWriter = new JSONPrettyPrintWriter(writer);
+            getJson().writeJSONString(prettyPrintWriter);
+            prettyPrintWriter.flush();
+        }
+    }
+
+    @Override
+    public String toPreviewString(final int maxLength) {
+        if (maxLength < 0) {
+            return toString();
+        }
+
+        final byte[] bytes = encoded;
+        if (bytes != null) {
+            // Enough UTF-8 output for maxLength characters even if every one of them takes four bytes
+            final String preview = JsonPrettyPrinter.toPrettyString(bytes, encoding, (int)Math.min(maxLength * 4L + 4, Integer.MAX_VALUE));
+            return preview.length() <= maxLength ? preview : PreviewWriter.truncated(preview.substring(0, maxLength), bytes.length);
+        }
+
+        final PreviewWriter previewWriter = new PreviewWriter(maxLength);
+        try {
+            writePrettyPrinted(previewWriter);
+        } catch (final PreviewWriter.PreviewLimitReachedException e) {
+            // Expected once the preview is full; the rest of the document is never serialized
+        } catch (final IOException e) {
+            logger.warn("Error pretty printing JSON object preview", e);
+        }
+        return previewWriter.toString();
+    }
+
     @Override
     public String toString() {
         try {
             final StringWriter stringWriter = new StringWriter();
-            json.writeJSONString(new JSONPrettyPrintWriter(stringWriter));
+            writePrettyPrinted(stringWriter);
             return stringWriter.toString();
         } catch (final IOException e) {
             logger.warn("Error pretty printing JSON object, defaulting to non-pretty implementation", e);
-            return json.toJSONString();
+            return getJson().toJSONString();
         }
     }
 }
@@ -1,14 +1,38 @@
 package ca.quadrilateral.integration.body;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
 import org.apache.http.HttpEntity;
 
 public class NoBody implements IBody {
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
     public NoBody() {}
 
     @Override
     public byte[] getBytes() {
         throw new UnsupportedOperationException("This method is not applicable for this implementation");
     }
+
+    @Override
+    public ByteBuffer asByteBuffer() {
+        return EMPTY_BUFFER.duplicate();
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) {
+    }
+
+    @Override
+    public void writeTo(final WritableByteChannel channel) {
+    }
+
+    @Override
+    public String toPreviewString(final int maxLength) {
+        return "";
+    }
     
     @Override
     public HttpEntity getHttpEntity() {
@@ -0,0 +1,80 @@
+package ca.quadrilateral.integration.body;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer that keeps at most maxLength characters and aborts the producer once the limit is passed, so a preview of a
+ * large body costs no more than the preview itself.  Preview limits count characters of the preview throughout.
+ */
+public class PreviewWriter extends Writer {
+    private final StringBuilder builder;
+    private final int maxLength;
+    private boolean truncated = false;
+
+    PreviewWriter(final int maxLength) {
+        this.maxLength = maxLength;
+        this.builder = new StringBuilder(Math.min(maxLength, 0xfff));
+    }
+
+    /**
+     * The preview followed by the truncation marker, which gives the body's total size in bytes when it is known,
+     * that is when totalBytes is not negative.
+     */
+    public static String truncated(final String preview, final long totalBytes) {
+        if (totalBytes < 0) {
+            return preview + "... <truncated>";
+        }
+        return preview + "... <truncated, " + totalBytes + " bytes total>";
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        final int remaining = maxLength - builder.length();
+        if (len > remaining) {
+            builder.append(cbuf, off, remaining);
+            truncated = true;
+            throw new PreviewLimitReachedException();
+        }
+        builder.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        final int remaining = maxLength - builder.length();
+        if (len > remaining) {
+            builder.append(str, off, off + remaining);
+            truncated = true;
+            throw new PreviewLimitReachedException();
+        }
+        builder.append(str, off, off + len);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public String toString() {
+        return truncated ? truncated(builder.toString(), -1) : builder.toString();
+    }
+
+    static class PreviewLimitReachedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        PreviewLimitReachedException() {
+            super("Preview limit reached", null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -1,32 +1,72 @@
 package ca.quadrilateral.integration.body;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import org.apache.http.HttpEntity;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 
 public class TextBody implements IBody {
-    private final String text;
+    private volatile String text;
+    private volatile byte[] encoded;
     private final Charset encoding;
     
     public TextBody(final String text, final Charset encoding) {
         this.text = text;
         this.encoding = encoding;
     }
+
+    private TextBody(final byte[] encoded, final Charset encoding) {
+        this.encoded = encoded;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Creates a body backed by already encoded text without copying it; the text is only decoded if it is asked for.
+     */
+    public static TextBody wrap(final byte[] encoded, final Charset encoding) {
+        return new TextBody(encoded, encoding);
+    }
     
     @Override
     public byte[] getBytes() {
-        return text.getBytes(encoding);
+        return getEncoded().clone();
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(getEncoded()).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        outputStream.write(getEncoded());
     }
 
     @Override
     public HttpEntity getHttpEntity() {
-        return new StringEntity(text, encoding);
+        return new ByteArrayEntity(getEncoded(), ContentType.create("text/plain", encoding));
+    }
+
+    private byte[] getEncoded() {
+        byte[] result = encoded;
+        if (result == null) {
+            result = text.getBytes(encoding);
+            encoded = result;
+        }
+        return result;
     }
     
     @Override
     public String toString() {
-        return text;
+        String result = text;
+        if (result == null) {
+            result = new String(encoded, encoding);
+            text = result;
+        }
+        return result;
     }
 }
-
@@ -2,39 +2,86 @@ package ca.quadrilateral.integration.builder;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 
 public abstract class BaseTestDataSqlBuilder implements ITestDataSqlBuilder {
-    private static Set<ITestDataSqlBuilder> executedBuilders = new HashSet<>();
+    private static final Set<ITestDataSqlBuilder> executedBuilders = ConcurrentHashMap.newKeySet();
     private static final DateTimeFormatter sqlDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
     private static AtomicLong idGenerator = new AtomicLong(0);
 
     protected boolean finalized = false;
-    protected List<String> sqlStrings = new ArrayList<>();
+    private final LiteralSqlList literalSqlStrings = new LiteralSqlList();
+    protected List<String> sqlStrings = literalSqlStrings;
+    private final List<ITestDataSqlBuilder> dependencies = new ArrayList<>();
+    private boolean generated = false;
 
+    /**
+     * Forgets which builders buildSql and buildStatements have already inlined.  Integration.loadTestData keeps its
+     * own history, which clearTestDataHistory and clearDatabase clear along with this one.
+     */
     public static void clearBuilderHistory() {
         executedBuilders.clear();
     }
 
     protected void addSqlString(final String sqlString) {
-        this.sqlStrings.add(sqlString);
+        record(SqlStatement.of(sqlString));
     }
 
-    protected void addSqlString(final ITestDataSqlBuilder builder) {
-        if (!executedBuilders.contains(builder)) {
-            this.sqlStrings.add(builder.buildSql());
-            executedBuilders.add(builder);
+    /**
+     * Adds a statement whose '?' placeholders are bound to the parameter values, typed from their classes.  Use
+     * SqlParameter.nullOf for null values.
+     */
+    protected void addStatement(final String sql, final Object... parameterValues) {
+        record(SqlStatement.of(sql, parameterValues));
+    }
+
+    /**
+     * Keeps the statement with its parameters; sqlStrings renders its literal SQL only when it is read.
+     */
+    private void record(final SqlStatement statement) {
+        literalSqlStrings.addStatement(statement);
+    }
+
+    /**
+     * Declares a builder whose data must exist before this builder's statements run.
+     */
+    protected void addDependency(final ITestDataSqlBuilder builder) {
+        if (!dependencies.contains(builder)) {
+            dependencies.add(builder);
         }
     }
 
+    /**
+     * Inlines the builder's statements, with its dependencies, at this point among this builder's own statements,
+     * unless they have already been inlined elsewhere.  Whether they have is decided when the statements are built,
+     * by buildSql and buildStatements from the builders they have inlined so far, and by Integration.loadTestData from
+     * what it has loaded.  Use addDependency when only the order of loading matters.
+     */
+    protected void addSqlString(final ITestDataSqlBuilder builder) {
+        literalSqlStrings.addInlined(builder);
+    }
+
+    /**
+     * This builder's own statements as SQL text, without its dependencies, with parameters written in as literals.
+     * buildSql uses it, while buildStatements and Integration.loadTestData use buildOwnStatements, so a subclass that
+     * overrides this to change the SQL should override buildOwnStatements as well.
+     */
     protected String getSqlString() {
-        return StringUtils.join(sqlStrings, ";");
+        return sqlStrings
+                .stream()
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.joining(";"));
     }
 
     protected abstract void generateSqlStrings();
@@ -89,9 +136,198 @@ public abstract class BaseTestDataSqlBuilder implements ITestDataSqlBuilder {
         return stringToEscape.replace("'", "''");
     }
 
+    private synchronized void generateOnce() {
+        if (!generated) {
+            generateSqlStrings();
+            generated = true;
+        }
+    }
+
+    /**
+     * SQL of the dependencies not yet built, followed by this builder's own from getSqlString.
+     */
     @Override
     public final String buildSql() {
-        generateSqlStrings();
-        return getSqlString();
+        generateOnce();
+        final List<String> sqlParts = new ArrayList<>();
+        for (final ITestDataSqlBuilder dependency : claimUnbuiltDependencies()) {
+            sqlParts.add(dependency.buildSql());
+        }
+        sqlParts.add(getSqlString());
+        return sqlParts
+                .stream()
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.joining(";"));
+    }
+
+    /**
+     * Statements of the dependencies not yet built, followed by this builder's own.
+     */
+    @Override
+    public final List<SqlStatement> buildStatements() {
+        generateOnce();
+        final List<SqlStatement> allStatements = new ArrayList<>();
+        for (final ITestDataSqlBuilder dependency : claimUnbuiltDependencies()) {
+            allStatements.addAll(dependency.buildStatements());
+        }
+        allStatements.addAll(buildOwnStatements());
+        return allStatements;
+    }
+
+    private List<ITestDataSqlBuilder> claimUnbuiltDependencies() {
+        final List<ITestDataSqlBuilder> unbuilt = new ArrayList<>();
+        for (final ITestDataSqlBuilder dependency : dependencies) {
+            if (executedBuilders.add(dependency)) {
+                unbuilt.add(dependency);
+            }
+        }
+        return unbuilt;
+    }
+
+    @Override
+    public final List<ITestDataSqlBuilder> getDependencies() {
+        generateOnce();
+        return Collections.unmodifiableList(new ArrayList<>(dependencies));
+    }
+
+    /**
+     * The statements with their parameters.  Entries a subclass put into sqlStrings directly are plain statements,
+     * and if it replaced sqlStrings altogether, getSqlString is split into plain statements.
+     */
+    @Override
+    public List<SqlStatement> buildOwnStatements() {
+        return buildOwnStatements(null);
+    }
+
+    /**
+     * As buildOwnStatements, with the statements of the inlined builders inline accepts, without their dependencies.
+     * A null inline runs each inlined builder with its dependencies unless buildSql or buildStatements has already
+     * inlined it.
+     */
+    @Override
+    public final List<SqlStatement> buildOwnStatements(final Predicate<? super ITestDataSqlBuilder> inline) {
+        generateOnce();
+        if (sqlStrings != literalSqlStrings) {
+            return Arrays
+                    .stream(StringUtils.split(getSqlString(), ";"))
+                    .filter(StringUtils::isNotBlank)
+                    .map(SqlStatement::of)
+                    .collect(Collectors.toList());
+        }
+        return literalSqlStrings.toStatements(inline);
+    }
+
+    @Override
+    public final List<ITestDataSqlBuilder> getInlinedBuilders() {
+        generateOnce();
+        return literalSqlStrings.getInlinedBuilders();
+    }
+
+    /**
+     * Statements, inlined builders, or SQL strings added through the list itself, viewed as literal SQL strings.
+     * Statements are only rendered when read, so builders whose SQL text is never asked for do not pay for quoting
+     * and escaping.
+     */
+    private static final class LiteralSqlList extends AbstractList<String> {
+        private final List<Object> entries = new ArrayList<>();
+
+        void addStatement(final SqlStatement statement) {
+            entries.add(statement);
+        }
+
+        void addInlined(final ITestDataSqlBuilder builder) {
+            entries.add(new InlinedBuilder(builder));
+        }
+
+        List<ITestDataSqlBuilder> getInlinedBuilders() {
+            final List<ITestDataSqlBuilder> builders = new ArrayList<>();
+            for (final Object entry : entries) {
+                if (entry instanceof InlinedBuilder) {
+                    builders.add(((InlinedBuilder)entry).builder);
+                }
+            }
+            return builders;
+        }
+
+        List<SqlStatement> toStatements(final Predicate<? super ITestDataSqlBuilder> inline) {
+            final List<SqlStatement> result = new ArrayList<>(entries.size());
+            for (final Object entry : entries) {
+                if (entry instanceof SqlStatement) {
+                    result.add((SqlStatement)entry);
+                } else if (entry instanceof InlinedBuilder) {
+                    final ITestDataSqlBuilder builder = ((InlinedBuilder)entry).builder;
+                    if (inline == null) {
+                        result.addAll(((InlinedBuilder)entry).claim());
+                    } else if (inline.test(builder)) {
+                        result.addAll(builder.buildOwnStatements(inline));
+                    }
+                } else if (StringUtils.isNotBlank((String)entry)) {
+                    result.add(SqlStatement.of((String)entry));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String get(final int index) {
+            final Object entry = entries.get(index);
+            if (entry instanceof SqlStatement) {
+                return ((SqlStatement)entry).toLiteralSql();
+            }
+            if (entry instanceof InlinedBuilder) {
+                return ((InlinedBuilder)entry)
+                        .claim()
+                        .stream()
+                        .map(SqlStatement::toLiteralSql)
+                        .collect(Collectors.joining(";"));
+            }
+            return (String)entry;
+        }
+
+        @Override
+        public String set(final int index, final String sqlString) {
+            final String previous = get(index);
+            entries.set(index, sqlString);
+            return previous;
+        }
+
+        @Override
+        public void add(final int index, final String sqlString) {
+            entries.add(index, sqlString);
+            modCount++;
+        }
+
+        @Override
+        public String remove(final int index) {
+            final String previous = get(index);
+            entries.remove(index);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * A builder inlined by addSqlString.  Outside Integration.loadTestData, whether it runs here is decided the first
+     * time its statements are asked for, and kept, so buildSql and buildStatements agree.
+     */
+    private static final class InlinedBuilder {
+        private final ITestDataSqlBuilder builder;
+        private List<SqlStatement> statements = null;
+
+        InlinedBuilder(final ITestDataSqlBuilder builder) {
+            this.builder = builder;
+        }
+
+        synchronized List<SqlStatement> claim() {
+            if (statements == null) {
+                statements = executedBuilders.add(builder) ? builder.buildStatements() : Collections.emptyList();
+            }
+            return statements;
+        }
     }
 }
@@ -0,0 +1,153 @@
+package ca.quadrilateral.integration.builder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+/**
+ * Write-only, chunked request entity that encodes rows in the support server's binary bulk load format as they are
+ * pulled from the iterator, so rows are never all held in memory.  Values are typed as SqlParameter.of types them;
+ * nulls need no type.  The entity can be written once.
+ */
+public class BulkRowEntity extends AbstractHttpEntity {
+    public static final ContentType CONTENT_TYPE = ContentType.create("application/x-integration-rows");
+
+    private static final int MAGIC = 0x49545231;
+    private static final int BUFFER_SIZE = 0x10000;
+
+    private final List<String> columns;
+    private final Iterator<?> rows;
+    private boolean consumed = false;
+    private long rowCount = 0;
+
+    /**
+     * Rows may be Object arrays or Lists with one value per column.
+     */
+    public BulkRowEntity(final List<String> columns, final Iterator<?> rows) {
+        if (columns.isEmpty() || columns.size() > 0xFFFF) {
+            throw new IllegalArgumentException("Bulk loads need between 1 and 65535 columns");
+        }
+        this.columns = new ArrayList<>(columns);
+        this.rows = rows;
+        setContentType(CONTENT_TYPE.toString());
+        setChunked(true);
+    }
+
+    /**
+     * Number of rows written so far.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Bulk row entities can only be written");
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !consumed;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        if (consumed) {
+            throw new IllegalStateException("Bulk row entity has already been written");
+        }
+        consumed = true;
+
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        output.writeInt(MAGIC);
+        output.writeShort(columns.size());
+        for (final String column : columns) {
+            output.writeUTF(column);
+        }
+
+        while (rows.hasNext()) {
+            final Object row = rows.next();
+            final Object[] values = row instanceof List ? ((List<?>)row).toArray() : (Object[])row;
+            if (values.length != columns.size()) {
+                throw new IllegalArgumentException("Row " + (rowCount + 1) + " has " + values.length + " values for " + columns.size() + " columns");
+            }
+            output.writeByte(1);
+            for (final Object value : values) {
+                writeValue(output, value);
+            }
+            rowCount++;
+        }
+        output.writeByte(0);
+        output.flush();
+    }
+
+    private void writeValue(final DataOutputStream output, final Object value) throws IOException {
+        final SqlParameter parameter = value == null ? null : SqlParameter.of(value);
+        if (parameter == null || parameter.getValue() == null) {
+            output.writeByte(0);
+            return;
+        }
+
+        final Object typedValue = parameter.getValue();
+        switch (parameter.getType()) {
+            case STRING:
+                final byte[] bytes = ((String)typedValue).getBytes(StandardCharsets.UTF_8);
+                output.writeByte(1);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+                break;
+            case INTEGER:
+                output.writeByte(2);
+                output.writeInt((Integer)typedValue);
+                break;
+            case LONG:
+                output.writeByte(3);
+                output.writeLong((Long)typedValue);
+                break;
+            case DECIMAL:
+                output.writeByte(4);
+                output.writeUTF(((BigDecimal)typedValue).toString());
+                break;
+            case DOUBLE:
+                output.writeByte(5);
+                output.writeDouble((Double)typedValue);
+                break;
+            case BOOLEAN:
+                output.writeByte(6);
+                output.writeByte((Boolean)typedValue ? 1 : 0);
+                break;
+            case DATE:
+                output.writeByte(7);
+                output.writeLong(((LocalDate)typedValue).toEpochDay());
+                break;
+            case TIMESTAMP:
+                final LocalDateTime dateTime = (LocalDateTime)typedValue;
+                output.writeByte(8);
+                output.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+                output.writeInt(dateTime.getNano());
+                break;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package ca.quadrilateral.integration.builder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Builder dependency graph ordered into levels: every builder's dependencies are in earlier levels, so the builders
+ * within a level are independent of each other and may be loaded concurrently.
+ *
+ * Inlined builders are not planned on their own; each is loaded inside the first builder that inlines it, which takes
+ * on its dependencies, and a dependency on an inlined builder is a dependency on that builder.
+ *
+ * Levels follow each builder's depth in the whole dependency graph, including builders loaded or being loaded
+ * elsewhere, so concurrent plans that wait on each other's builders always wait on shallower ones and cannot
+ * deadlock.
+ */
+public final class FixturePlan {
+    private final List<List<ITestDataSqlBuilder>> levels;
+    private final int builderCount;
+    private final List<CompletableFuture<Void>> pendingLoads;
+    private final Map<ITestDataSqlBuilder, Set<ITestDataSqlBuilder>> inlinedBuilders;
+    private final Map<ITestDataSqlBuilder, List<ITestDataSqlBuilder>> prerequisites;
+
+    private FixturePlan(
+            final List<List<ITestDataSqlBuilder>> levels,
+            final int builderCount,
+            final List<CompletableFuture<Void>> pendingLoads,
+            final Map<ITestDataSqlBuilder, Set<ITestDataSqlBuilder>> inlinedBuilders,
+            final Map<ITestDataSqlBuilder, List<ITestDataSqlBuilder>> prerequisites) {
+
+        this.levels = levels;
+        this.builderCount = builderCount;
+        this.pendingLoads = pendingLoads;
+        this.inlinedBuilders = inlinedBuilders;
+        this.prerequisites = prerequisites;
+    }
+
+    /**
+     * Plans the builders and everything they depend on or inline.  A builder is claimed for this plan by putting an
+     * incomplete future for it into loads, which the caller completes once the builder is loaded, or completes
+     * exceptionally and removes if loading fails; the builders it inlines are claimed with the same future.  Builders
+     * already in loads are left out of the plan; those still loading elsewhere are returned by getPendingLoads.
+     * Builders whose load failed are claimed again.
+     *
+     * @throws IllegalStateException if the dependencies form a cycle
+     */
+    public static FixturePlan create(
+            final Collection<? extends ITestDataSqlBuilder> builders,
+            final ConcurrentMap<ITestDataSqlBuilder, CompletableFuture<Void>> loads) {
+
+        final Planner planner = new Planner(builders);
+
+        final List<List<ITestDataSqlBuilder>> levels = new ArrayList<>();
+        final List<CompletableFuture<Void>> pendingLoads = new ArrayList<>();
+        final Map<ITestDataSqlBuilder, Set<ITestDataSqlBuilder>> inlinedBuilders = new HashMap<>();
+        final Map<ITestDataSqlBuilder, List<ITestDataSqlBuilder>> prerequisites = new HashMap<>();
+        int builderCount = 0;
+        for (final List<ITestDataSqlBuilder> plannedLevel : planner.getLevels()) {
+            final List<ITestDataSqlBuilder> level = new ArrayList<>(plannedLevel.size());
+            for (final ITestDataSqlBuilder builder : plannedLevel) {
+                final CompletableFuture<Void> load = new CompletableFuture<>();
+                final CompletableFuture<Void> existingLoad = claim(loads, builder, load);
+                if (existingLoad != null) {
+                    if (!existingLoad.isDone()) {
+                        pendingLoads.add(existingLoad);
+                    }
+                    continue;
+                }
+
+                final Set<ITestDataSqlBuilder> inlined = new HashSet<>();
+                final List<ITestDataSqlBuilder> awaited = new ArrayList<>(planner.getDependencies(builder));
+                for (final ITestDataSqlBuilder member : planner.getInlinedBuilders(builder)) {
+                    final CompletableFuture<Void> existingMemberLoad = claim(loads, member, load);
+                    if (existingMemberLoad == null) {
+                        inlined.add(member);
+                    } else if (!existingMemberLoad.isDone()) {
+                        awaited.add(member);
+                    }
+                }
+
+                level.add(builder);
+                inlinedBuilders.put(builder, Collections.unmodifiableSet(inlined));
+                prerequisites.put(builder, Collections.unmodifiableList(awaited));
+                builderCount += 1 + inlined.size();
+            }
+            if (!level.isEmpty()) {
+                levels.add(Collections.unmodifiableList(level));
+            }
+        }
+        return new FixturePlan(
+                Collections.unmodifiableList(levels),
+                builderCount,
+                Collections.unmodifiableList(pendingLoads),
+                inlinedBuilders,
+                prerequisites);
+    }
+
+    private static CompletableFuture<Void> claim(
+            final ConcurrentMap<ITestDataSqlBuilder, CompletableFuture<Void>> loads,
+            final ITestDataSqlBuilder builder,
+            final CompletableFuture<Void> load) {
+
+        final CompletableFuture<Void> existingLoad = loads.putIfAbsent(builder, load);
+        if (existingLoad != null && existingLoad.isCompletedExceptionally() && loads.replace(builder, existingLoad, load)) {
+            return null;
+        }
+        return existingLoad;
+    }
+
+    public List<List<ITestDataSqlBuilder>> getLevels() {
+        return levels;
+    }
+
+    /**
+     * Number of builders claimed, including those inlined into planned builders.
+     */
+    public int getBuilderCount() {
+        return builderCount;
+    }
+
+    /**
+     * Loads of planned builders that another caller had claimed and not yet finished.
+     */
+    public List<CompletableFuture<Void>> getPendingLoads() {
+        return pendingLoads;
+    }
+
+    /**
+     * The builders this plan claimed for the planned builder to run inline, for its buildOwnStatements.
+     */
+    public Set<ITestDataSqlBuilder> getInlinedBuilders(final ITestDataSqlBuilder builder) {
+        return inlinedBuilders.getOrDefault(builder, Collections.emptySet());
+    }
+
+    /**
+     * Builders that must be loaded before the planned builder: its dependencies, and builders it inlines that
+     * another caller is loading.
+     */
+    public List<ITestDataSqlBuilder> getPrerequisites(final ITestDataSqlBuilder builder) {
+        return prerequisites.getOrDefault(builder, Collections.emptyList());
+    }
+
+    private static final class Planner {
+        private final Map<ITestDataSqlBuilder, ITestDataSqlBuilder> owners = new HashMap<>();
+        private final Map<ITestDataSqlBuilder, List<ITestDataSqlBuilder>> members = new HashMap<>();
+        private final Map<ITestDataSqlBuilder, Set<ITestDataSqlBuilder>> dependencies = new HashMap<>();
+        private final Map<ITestDataSqlBuilder, Integer> depths = new LinkedHashMap<>();
+        private final Set<ITestDataSqlBuilder> visiting = new HashSet<>();
+
+        Planner(final Collection<? extends ITestDataSqlBuilder> builders) {
+            final Set<ITestDataSqlBuilder> reachable = new LinkedHashSet<>();
+            final Set<ITestDataSqlBuilder> inlined = new HashSet<>();
+            final Deque<ITestDataSqlBuilder> pending = new ArrayDeque<>(builders);
+            while (!pending.isEmpty()) {
+                final ITestDataSqlBuilder builder = pending.removeFirst();
+                if (reachable.add(builder)) {
+                    pending.addAll(builder.getDependencies());
+                    pending.addAll(builder.getInlinedBuilders());
+                    inlined.addAll(builder.getInlinedBuilders());
+                }
+            }
+
+            for (final ITestDataSqlBuilder builder : reachable) {
+                if (!inlined.contains(builder)) {
+                    members.put(builder, new ArrayList<>());
+                    assignInlined(builder, builder);
+                }
+            }
+
+            for (final ITestDataSqlBuilder builder : builders) {
+                depthOf(nodeOf(builder));
+            }
+        }
+
+        private void assignInlined(final ITestDataSqlBuilder builder, final ITestDataSqlBuilder owner) {
+            for (final ITestDataSqlBuilder inlined : builder.getInlinedBuilders()) {
+                if (inlined != owner && owners.putIfAbsent(inlined, owner) == null) {
+                    members.get(owner).add(inlined);
+                    assignInlined(inlined, owner);
+                }
+            }
+        }
+
+        /**
+         * The planned builder that loads the builder, which is the builder itself unless another inlines it.
+         */
+        private ITestDataSqlBuilder nodeOf(final ITestDataSqlBuilder builder) {
+            return owners.getOrDefault(builder, builder);
+        }
+
+        List<ITestDataSqlBuilder> getInlinedBuilders(final ITestDataSqlBuilder node) {
+            return members.getOrDefault(node, Collections.emptyList());
+        }
+
+        Set<ITestDataSqlBuilder> getDependencies(final ITestDataSqlBuilder node) {
+            Set<ITestDataSqlBuilder> nodeDependencies = dependencies.get(node);
+            if (nodeDependencies == null) {
+                nodeDependencies = new LinkedHashSet<>();
+                final List<ITestDataSqlBuilder> loadedTogether = new ArrayList<>();
+                loadedTogether.add(node);
+                loadedTogether.addAll(getInlinedBuilders(node));
+                for (final ITestDataSqlBuilder builder : loadedTogether) {
+                    for (final ITestDataSqlBuilder dependency : builder.getDependencies()) {
+                        final ITestDataSqlBuilder dependencyNode = nodeOf(dependency);
+                        if (dependencyNode != node) {
+                            nodeDependencies.add(dependencyNode);
+                        }
+                    }
+                }
+                dependencies.put(node, nodeDependencies);
+            }
+            return nodeDependencies;
+        }
+
+        int depthOf(final ITestDataSqlBuilder node) {
+            final Integer known = depths.get(node);
+            if (known != null) {
+                return known;
+            }
+            if (!visiting.add(node)) {
+                throw new IllegalStateException("Test data builders have a dependency cycle through " + node);
+            }
+
+            int depth = 0;
+            for (final ITestDataSqlBuilder dependency : getDependencies(node)) {
+                depth = Math.max(depth, depthOf(dependency) + 1);
+            }
+
+            visiting.remove(node);
+            depths.put(node, depth);
+            return depth;
+        }
+
+        List<List<ITestDataSqlBuilder>> getLevels() {
+            final List<List<ITestDataSqlBuilder>> result = new ArrayList<>();
+            for (final Map.Entry<ITestDataSqlBuilder, Integer> entry : depths.entrySet()) {
+                final int depth = entry.getValue();
+                while (result.size() <= depth) {
+                    result.add(new ArrayList<>());
+                }
+                result.get(depth).add(entry.getKey());
+            }
+            return result;
+        }
+    }
+}
@@ -1,5 +1,56 @@
 package ca.quadrilateral.integration.builder;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
 public interface ITestDataSqlBuilder {
     String buildSql();
+
+    /**
+     * The builder's statements with their parameters kept separate from the SQL text.  Builders that only render
+     * literal SQL return each statement of buildSql without parameters.
+     */
+    default List<SqlStatement> buildStatements() {
+        return Arrays
+                .stream(StringUtils.split(buildSql(), ";"))
+                .filter(StringUtils::isNotBlank)
+                .map(SqlStatement::of)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builders whose data must be loaded before this one's.  Builders that declare none are loaded as a single unit
+     * through buildStatements.
+     */
+    default List<? extends ITestDataSqlBuilder> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * This builder's statements alone, for use once getDependencies have been loaded.
+     */
+    default List<SqlStatement> buildOwnStatements() {
+        return buildStatements();
+    }
+
+    /**
+     * Builders whose statements run in the middle of this one's, such as those given to
+     * BaseTestDataSqlBuilder.addSqlString(ITestDataSqlBuilder).  Integration.loadTestData loads them as part of this
+     * builder unless they have already been loaded.
+     */
+    default List<? extends ITestDataSqlBuilder> getInlinedBuilders() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * As buildOwnStatements, running the statements of only those inlined builders that inline accepts.
+     */
+    default List<SqlStatement> buildOwnStatements(final Predicate<? super ITestDataSqlBuilder> inline) {
+        return buildOwnStatements();
+    }
 }
@@ -0,0 +1,94 @@
+package ca.quadrilateral.integration.builder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.json.simple.JSONValue;
+
+public final class SqlParameter {
+    private final SqlParameterType type;
+    private final Object value;
+
+    private SqlParameter(final SqlParameterType type, final Object value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * Parameter typed from the class of the value.  Null values must be given a type through nullOf.
+     */
+    public static SqlParameter of(final Object value) {
+        if (value instanceof SqlParameter) {
+            return (SqlParameter)value;
+        } else if (value instanceof String) {
+            return new SqlParameter(SqlParameterType.STRING, value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return new SqlParameter(SqlParameterType.INTEGER, ((Number)value).intValue());
+        } else if (value instanceof Long) {
+            return new SqlParameter(SqlParameterType.LONG, value);
+        } else if (value instanceof BigDecimal) {
+            return new SqlParameter(SqlParameterType.DECIMAL, value);
+        } else if (value instanceof BigInteger) {
+            return new SqlParameter(SqlParameterType.DECIMAL, new BigDecimal((BigInteger)value));
+        } else if (value instanceof Double || value instanceof Float) {
+            return new SqlParameter(SqlParameterType.DOUBLE, ((Number)value).doubleValue());
+        } else if (value instanceof Boolean) {
+            return new SqlParameter(SqlParameterType.BOOLEAN, value);
+        } else if (value instanceof LocalDate) {
+            return new SqlParameter(SqlParameterType.DATE, value);
+        } else if (value instanceof LocalDateTime) {
+            return new SqlParameter(SqlParameterType.TIMESTAMP, value);
+        } else if (value == null) {
+            throw new IllegalArgumentException("Null parameters must be given a type, use SqlParameter.nullOf");
+        }
+        throw new IllegalArgumentException("Unsupported SQL parameter type " + value.getClass().getName());
+    }
+
+    public static SqlParameter nullOf(final SqlParameterType type) {
+        return new SqlParameter(type, null);
+    }
+
+    public SqlParameterType getType() {
+        return type;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Decimals, dates, timestamps and non-finite doubles travel as strings so nothing is lost; dates and timestamps
+     * use the ISO-8601 local forms.
+     */
+    void writeJSON(final StringBuilder builder) {
+        builder.append("{\"type\":\"").append(type.name()).append("\",\"value\":");
+        if (value == null) {
+            builder.append("null");
+        } else {
+            switch (type) {
+                case DOUBLE:
+                    if (Double.isFinite((Double)value)) {
+                        builder.append(value);
+                    } else {
+                        builder.append('"').append(value).append('"');
+                    }
+                    break;
+                case INTEGER:
+                case LONG:
+                case BOOLEAN:
+                    builder.append(value);
+                    break;
+                default:
+                    builder.append('"').append(JSONValue.escape(value.toString())).append('"');
+            }
+        }
+        builder.append('}');
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + value;
+    }
+}
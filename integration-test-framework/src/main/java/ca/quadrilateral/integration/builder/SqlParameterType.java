@@ -0,0 +1,15 @@
+package ca.quadrilateral.integration.builder;
+
+/**
+ * Parameter types understood by the integration support server.  Names are part of the wire format.
+ */
+public enum SqlParameterType {
+    STRING,
+    INTEGER,
+    LONG,
+    DECIMAL,
+    DOUBLE,
+    BOOLEAN,
+    DATE,
+    TIMESTAMP;
+}
@@ -0,0 +1,144 @@
+package ca.quadrilateral.integration.builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.simple.JSONValue;
+
+/**
+ * SQL text with '?' placeholders and the parameters bound to them.  The text of statements built from the same
+ * template is identical, so the support server prepares it once and reuses it for every row.
+ */
+public final class SqlStatement {
+    private static final DateTimeFormatter sqlDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final String sql;
+    private final List<SqlParameter> parameters;
+
+    private SqlStatement(final String sql, final List<SqlParameter> parameters) {
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Statement whose parameters are typed from the classes of the values; values may also be SqlParameter
+     * instances, which is how typed nulls are given.
+     */
+    public static SqlStatement of(final String sql, final Object... parameterValues) {
+        final List<SqlParameter> parameters = new ArrayList<>(parameterValues.length);
+        for (final Object value : parameterValues) {
+            parameters.add(SqlParameter.of(value));
+        }
+        return new SqlStatement(sql, Collections.unmodifiableList(parameters));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<SqlParameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * The statement with its parameters written in as SQL literals, for servers and logs that take plain SQL text.
+     */
+    public String toLiteralSql() {
+        if (parameters.isEmpty()) {
+            return sql;
+        }
+
+        final StringBuilder builder = new StringBuilder(sql.length() + parameters.size() * 16);
+        int parameterIndex = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                builder.append(c);
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                builder.append(c);
+            } else if (c == '?') {
+                if (parameterIndex == parameters.size()) {
+                    throw new IllegalStateException("More placeholders than parameters in SQL: " + sql);
+                }
+                appendLiteral(builder, parameters.get(parameterIndex++));
+            } else {
+                builder.append(c);
+            }
+        }
+        if (parameterIndex != parameters.size()) {
+            throw new IllegalStateException("More parameters than placeholders in SQL: " + sql);
+        }
+        return builder.toString();
+    }
+
+    private static void appendLiteral(final StringBuilder builder, final SqlParameter parameter) {
+        final Object value = parameter.getValue();
+        if (value == null) {
+            builder.append("null");
+            return;
+        }
+
+        switch (parameter.getType()) {
+            case STRING:
+            case DATE:
+                builder.append('\'').append(value.toString().replace("'", "''")).append('\'');
+                break;
+            case TIMESTAMP:
+                builder.append('\'').append(sqlDateTimeFormatter.format((LocalDateTime)value)).append('\'');
+                break;
+            case DECIMAL:
+                builder.append(((BigDecimal)value).toPlainString());
+                break;
+            default:
+                builder.append(value);
+        }
+    }
+
+    /**
+     * Writes the statements as the JSON array accepted by the support server's data endpoints.
+     */
+    public static String toJSON(final Collection<SqlStatement> statements) {
+        final StringBuilder builder = new StringBuilder(statements.size() * 128);
+        builder.append('[');
+        boolean first = true;
+        for (final SqlStatement statement : statements) {
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            statement.writeJSON(builder);
+        }
+        return builder.append(']').toString();
+    }
+
+    public static String toJSON(final SqlStatement... statements) {
+        return toJSON(Arrays.asList(statements));
+    }
+
+    private void writeJSON(final StringBuilder builder) {
+        builder.append("{\"sql\":\"").append(JSONValue.escape(sql)).append("\",\"parameters\":[");
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            parameters.get(i).writeJSON(builder);
+        }
+        builder.append("]}");
+    }
+
+    @Override
+    public String toString() {
+        return sql + (parameters.isEmpty() ? "" : " " + parameters);
+    }
+}
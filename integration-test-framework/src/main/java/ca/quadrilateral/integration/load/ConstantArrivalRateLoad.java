@@ -0,0 +1,335 @@
+package ca.quadrilateral.integration.load;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.quadrilateral.integration.Integration;
+import ca.quadrilateral.integration.Request;
+import ca.quadrilateral.integration.Response;
+
+/**
+ * Open-loop load generator issuing requests at a fixed arrival rate regardless of how quickly responses come back.
+ *
+ * Latency is measured from the time each request was scheduled to be sent rather than the time it actually was, so
+ * a stalled server shows up in the percentiles instead of silently lowering the request rate (coordinated omission).
+ */
+public class ConstantArrivalRateLoad {
+    private static final Logger logger = LoggerFactory.getLogger(ConstantArrivalRateLoad.class);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final double requestsPerSecond;
+    private final Duration warmupDuration;
+    private final Duration steadyStateDuration;
+    private final Duration reportInterval;
+    private final Duration drainTimeout;
+    private final Supplier<Request> requestSupplier;
+
+    private final Recorder warmupLatencyRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder steadyStateLatencyRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder steadyStateServiceTimeRecorder = new Recorder(SIGNIFICANT_DIGITS);
+
+    private final Histogram steadyStateLatency = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram steadyStateServiceTime = new Histogram(SIGNIFICANT_DIGITS);
+
+    private final AtomicBoolean hasRun = new AtomicBoolean(false);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong steadyStateIssued = new AtomicLong();
+    private final AtomicLong steadyStateCompleted = new AtomicLong();
+    private final AtomicLong steadyStateErrors = new AtomicLong();
+    private final AtomicLong steadyStateNonSuccess = new AtomicLong();
+    private final AtomicLong steadyStateTimedOut = new AtomicLong();
+    private final Set<PendingRequest> pendingRequests = ConcurrentHashMap.newKeySet();
+
+    private long lastReportNanos;
+
+    private ConstantArrivalRateLoad(final ConstantArrivalRateLoadBuilder builder) {
+        this.requestsPerSecond = builder.requestsPerSecond;
+        this.warmupDuration = builder.warmupDuration;
+        this.steadyStateDuration = builder.steadyStateDuration;
+        this.reportInterval = builder.reportInterval;
+        this.drainTimeout = builder.drainTimeout;
+        this.requestSupplier = builder.requestSupplier;
+    }
+
+    public LoadResult run(final Integration integration) throws InterruptedException {
+        if (!hasRun.compareAndSet(false, true)) {
+            throw new IllegalStateException("A ConstantArrivalRateLoad can only be run once; build a new one for each run");
+        }
+
+        final long periodNanos = (long)(1_000_000_000d / requestsPerSecond);
+        final long startNanos = System.nanoTime();
+        final long steadyStateStartNanos = startNanos + warmupDuration.toNanos();
+        final long endNanos = steadyStateStartNanos + steadyStateDuration.toNanos();
+
+        logger.info(String.format(
+                "Starting constant arrival rate load: %.1f req/s, warm-up %s, steady state %s",
+                requestsPerSecond, warmupDuration, steadyStateDuration));
+
+        lastReportNanos = startNanos;
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "constant-arrival-rate-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(
+                this::report,
+                reportInterval.toNanos(),
+                reportInterval.toNanos(),
+                TimeUnit.NANOSECONDS);
+
+        try {
+            long sequence = 0;
+            long intendedSendNanos = startNanos;
+            while (intendedSendNanos < endNanos) {
+                waitUntil(intendedSendNanos);
+                issue(integration, intendedSendNanos, intendedSendNanos >= steadyStateStartNanos);
+
+                sequence++;
+                intendedSendNanos = startNanos + sequence * periodNanos;
+            }
+
+            awaitInFlight();
+        } finally {
+            reporter.shutdownNow();
+            reporter.awaitTermination(reportInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        report();
+
+        final LoadResult result = new LoadResult(
+                requestsPerSecond,
+                steadyStateDuration,
+                steadyStateIssued.get(),
+                steadyStateCompleted.get(),
+                steadyStateErrors.get(),
+                steadyStateNonSuccess.get(),
+                steadyStateTimedOut.get(),
+                steadyStateLatency.copy(),
+                steadyStateServiceTime.copy());
+
+        logger.info("Constant arrival rate load complete: " + result);
+        return result;
+    }
+
+    private void issue(final Integration integration, final long intendedSendNanos, final boolean isSteadyState) {
+        final PendingRequest pending = new PendingRequest(intendedSendNanos, System.nanoTime(), isSteadyState);
+        pendingRequests.add(pending);
+        inFlight.incrementAndGet();
+        if (isSteadyState) {
+            steadyStateIssued.incrementAndGet();
+        }
+
+        final CompletableFuture<Response> future;
+        try {
+            future = integration.executeRequestAsync(requestSupplier.get());
+        } catch (final RuntimeException e) {
+            complete(pending, null, e);
+            return;
+        }
+
+        future.whenComplete((response, throwable) -> complete(pending, response, throwable));
+    }
+
+    private void complete(final PendingRequest pending, final Response response, final Throwable throwable) {
+        if (!pending.settle()) {
+            // Already counted as timed out
+            return;
+        }
+        pendingRequests.remove(pending);
+        record(pending, System.nanoTime());
+
+        if (pending.isSteadyState) {
+            if (throwable != null) {
+                steadyStateErrors.incrementAndGet();
+            } else {
+                steadyStateCompleted.incrementAndGet();
+                if (!response.isSuccess()) {
+                    steadyStateNonSuccess.incrementAndGet();
+                }
+            }
+        }
+        inFlight.decrementAndGet();
+    }
+
+    private void record(final PendingRequest pending, final long completionNanos) {
+        final long latencyMicros = TimeUnit.NANOSECONDS.toMicros(completionNanos - pending.intendedSendNanos);
+        if (pending.isSteadyState) {
+            steadyStateLatencyRecorder.recordValue(latencyMicros);
+            steadyStateServiceTimeRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(completionNanos - pending.actualSendNanos));
+        } else {
+            warmupLatencyRecorder.recordValue(latencyMicros);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        final long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Requests still outstanding are recorded as completing at the deadline rather than left out of the figures
+        int timedOut = 0;
+        for (final PendingRequest pending : pendingRequests) {
+            if (pending.settle()) {
+                pendingRequests.remove(pending);
+                record(pending, deadline);
+                if (pending.isSteadyState) {
+                    steadyStateTimedOut.incrementAndGet();
+                }
+                inFlight.decrementAndGet();
+                timedOut++;
+            }
+        }
+        if (timedOut > 0) {
+            logger.warn(timedOut + " requests were still in flight when the drain timeout of " + drainTimeout + " expired");
+        }
+    }
+
+    private static void waitUntil(final long targetNanos) {
+        long remaining;
+        while ((remaining = targetNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private synchronized void report() {
+        final long nowNanos = System.nanoTime();
+        final double intervalSeconds = (nowNanos - lastReportNanos) / 1_000_000_000d;
+        lastReportNanos = nowNanos;
+
+        final Histogram warmupInterval = warmupLatencyRecorder.getIntervalHistogram();
+        final Histogram steadyStateInterval = steadyStateLatencyRecorder.getIntervalHistogram();
+        steadyStateLatency.add(steadyStateInterval);
+        steadyStateServiceTime.add(steadyStateServiceTimeRecorder.getIntervalHistogram());
+
+        if (warmupInterval.getTotalCount() > 0) {
+            logInterval("WARM-UP", warmupInterval, intervalSeconds);
+        }
+        if (steadyStateInterval.getTotalCount() > 0) {
+            logInterval("STEADY", steadyStateInterval, intervalSeconds);
+        }
+    }
+
+    private void logInterval(final String phase, final Histogram interval, final double intervalSeconds) {
+        logger.info(String.format(
+                "[%s] %.1f req/s; in flight: %d; latency %s",
+                phase,
+                interval.getTotalCount() / intervalSeconds,
+                inFlight.get(),
+                formatPercentiles(interval)));
+    }
+
+    static String formatPercentiles(final Histogram histogram) {
+        return String.format(
+                "p50: %.3fms; p90: %.3fms; p99: %.3fms; p99.9: %.3fms; max: %.3fms",
+                histogram.getValueAtPercentile(50) / 1000d,
+                histogram.getValueAtPercentile(90) / 1000d,
+                histogram.getValueAtPercentile(99) / 1000d,
+                histogram.getValueAtPercentile(99.9) / 1000d,
+                histogram.getMaxValue() / 1000d);
+    }
+
+    private static final class PendingRequest {
+        private final long intendedSendNanos;
+        private final long actualSendNanos;
+        private final boolean isSteadyState;
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+
+        PendingRequest(final long intendedSendNanos, final long actualSendNanos, final boolean isSteadyState) {
+            this.intendedSendNanos = intendedSendNanos;
+            this.actualSendNanos = actualSendNanos;
+            this.isSteadyState = isSteadyState;
+        }
+
+        /**
+         * True for whichever of completion and the drain timeout reaches the request first.
+         */
+        boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+
+    public static class ConstantArrivalRateLoadBuilder {
+        private double requestsPerSecond;
+        private Duration warmupDuration = Duration.ZERO;
+        private Duration steadyStateDuration;
+        private Duration reportInterval = Duration.ofSeconds(5);
+        private Duration drainTimeout = Duration.ofSeconds(30);
+        private Supplier<Request> requestSupplier;
+
+        public static ConstantArrivalRateLoadBuilder getInstance() {
+            return new ConstantArrivalRateLoadBuilder();
+        }
+
+        private ConstantArrivalRateLoadBuilder() {}
+
+        public ConstantArrivalRateLoadBuilder setRequestsPerSecond(final double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+
+        public ConstantArrivalRateLoadBuilder setWarmupDuration(final Duration warmupDuration) {
+            this.warmupDuration = warmupDuration;
+            return this;
+        }
+
+        public ConstantArrivalRateLoadBuilder setSteadyStateDuration(final Duration steadyStateDuration) {
+            this.steadyStateDuration = steadyStateDuration;
+            return this;
+        }
+
+        public ConstantArrivalRateLoadBuilder setReportInterval(final Duration reportInterval) {
+            this.reportInterval = reportInterval;
+            return this;
+        }
+
+        public ConstantArrivalRateLoadBuilder setDrainTimeout(final Duration drainTimeout) {
+            this.drainTimeout = drainTimeout;
+            return this;
+        }
+
+        public ConstantArrivalRateLoadBuilder setRequest(final Request request) {
+            this.requestSupplier = () -> request;
+            return this;
+        }
+
+        public ConstantArrivalRateLoadBuilder setRequestSupplier(final Supplier<Request> requestSupplier) {
+            this.requestSupplier = requestSupplier;
+            return this;
+        }
+
+        public ConstantArrivalRateLoad build() {
+            if (requestsPerSecond <= 0) {
+                throw new IllegalArgumentException("A positive request rate must be specified");
+            }
+            if (steadyStateDuration == null || steadyStateDuration.isNegative() || steadyStateDuration.isZero()) {
+                throw new IllegalArgumentException("A positive steady state duration must be specified");
+            }
+            if (warmupDuration == null || warmupDuration.isNegative()) {
+                throw new IllegalArgumentException("Warm-up duration may not be negative");
+            }
+            if (reportInterval == null || reportInterval.isNegative() || reportInterval.isZero()) {
+                throw new IllegalArgumentException("A positive report interval must be specified");
+            }
+            if (requestSupplier == null) {
+                throw new IllegalArgumentException("A request or request supplier must be specified");
+            }
+            return new ConstantArrivalRateLoad(this);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ca.quadrilateral.integration.load;
+
+import java.time.Duration;
+
+import org.HdrHistogram.Histogram;
+
+public class LoadResult {
+    private final double targetRequestsPerSecond;
+    private final Duration steadyStateDuration;
+    private final long issuedCount;
+    private final long completedCount;
+    private final long errorCount;
+    private final long nonSuccessCount;
+    private final long timedOutCount;
+    private final Histogram latencyHistogram;
+    private final Histogram serviceTimeHistogram;
+
+    LoadResult(
+            final double targetRequestsPerSecond,
+            final Duration steadyStateDuration,
+            final long issuedCount,
+            final long completedCount,
+            final long errorCount,
+            final long nonSuccessCount,
+            final long timedOutCount,
+            final Histogram latencyHistogram,
+            final Histogram serviceTimeHistogram) {
+
+        this.targetRequestsPerSecond = targetRequestsPerSecond;
+        this.steadyStateDuration = steadyStateDuration;
+        this.issuedCount = issuedCount;
+        this.completedCount = completedCount;
+        this.errorCount = errorCount;
+        this.nonSuccessCount = nonSuccessCount;
+        this.timedOutCount = timedOutCount;
+        this.latencyHistogram = latencyHistogram;
+        this.serviceTimeHistogram = serviceTimeHistogram;
+    }
+
+    public double getTargetRequestsPerSecond() {
+        return targetRequestsPerSecond;
+    }
+
+    public double getAchievedRequestsPerSecond() {
+        return completedCount / (steadyStateDuration.toNanos() / 1_000_000_000d);
+    }
+
+    public long getIssuedCount() {
+        return issuedCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getNonSuccessCount() {
+        return nonSuccessCount;
+    }
+
+    /**
+     * Requests still outstanding when the drain timeout expired.  They are recorded in the histograms as completing
+     * at the timeout, so their latency is a lower bound.
+     */
+    public long getTimedOutCount() {
+        return timedOutCount;
+    }
+
+    /**
+     * Steady state latency in microseconds, measured from the intended send time of each request.
+     */
+    public Histogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Steady state latency in microseconds, measured from the moment each request was actually handed to the client.
+     * Comparing it with getLatencyHistogram() shows how much queueing the load generator itself absorbed.
+     */
+    public Histogram getServiceTimeHistogram() {
+        return serviceTimeHistogram;
+    }
+
+    public double getLatencyMillisAtPercentile(final double percentile) {
+        return latencyHistogram.getValueAtPercentile(percentile) / 1000d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "target: %.1f req/s; achieved: %.1f req/s; issued: %d; completed: %d; errors: %d; non-2xx: %d; timed out: %d; latency %s",
+                targetRequestsPerSecond,
+                getAchievedRequestsPerSecond(),
+                issuedCount,
+                completedCount,
+                errorCount,
+                nonSuccessCount,
+                timedOutCount,
+                ConstantArrivalRateLoad.formatPercentiles(latencyHistogram));
+    }
+}
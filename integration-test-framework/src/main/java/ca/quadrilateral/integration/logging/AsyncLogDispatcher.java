@@ -0,0 +1,96 @@
+package ca.quadrilateral.integration.logging;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single consumer thread draining a bounded ring of pending log tasks.  When the ring is full, producers wait for
+ * room rather than losing log statements, and once the dispatcher is closed tasks run on the producer's thread.
+ * Pending tasks are drained on close and, if the dispatcher is never closed, on JVM shutdown.
+ */
+public class AsyncLogDispatcher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLogDispatcher.class);
+
+    private static final long SHUTDOWN_DRAIN_MILLIS = 5_000;
+    private static final long OFFER_WAIT_MILLIS = 100;
+
+    private final BlockingQueue<Runnable> ringBuffer;
+    private final Thread consumerThread;
+    private final Thread shutdownHook;
+
+    private volatile boolean running = true;
+
+    public AsyncLogDispatcher(final int capacity) {
+        this.ringBuffer = new ArrayBlockingQueue<>(capacity);
+        this.consumerThread = new Thread(this::drain, "integration-log-dispatcher");
+        this.consumerThread.setDaemon(true);
+        this.consumerThread.start();
+        this.shutdownHook = new Thread(this::stop, "integration-log-dispatcher-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public void dispatch(final Runnable logTask) {
+        try {
+            while (running) {
+                if (ringBuffer.offer(logTask, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        run(logTask);
+    }
+
+    private void drain() {
+        while (running || !ringBuffer.isEmpty()) {
+            try {
+                final Runnable logTask = ringBuffer.poll(OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                if (logTask != null) {
+                    run(logTask);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void run(final Runnable logTask) {
+        try {
+            logTask.run();
+        } catch (final RuntimeException e) {
+            logger.warn("Error formatting log statement", e);
+        }
+    }
+
+    private void stop() {
+        running = false;
+        try {
+            consumerThread.join(SHUTDOWN_DRAIN_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Tasks queued while the consumer was exiting
+        Runnable logTask;
+        while ((logTask = ringBuffer.poll()) != null) {
+            run(logTask);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (final IllegalStateException e) {
+            // Already shutting down, the hook drains the ring
+            return;
+        }
+        stop();
+    }
+}
@@ -0,0 +1,54 @@
+package ca.quadrilateral.integration.logging;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.slf4j.Logger;
+
+import ca.quadrilateral.integration.HttpRequestLogStatementGenerator;
+import ca.quadrilateral.integration.IntegrationConfiguration;
+import ca.quadrilateral.integration.Response;
+
+public class RequestResponseLogger implements AutoCloseable {
+    private final Logger logger;
+    private final int maxBodyLength;
+    private final AsyncLogDispatcher dispatcher;
+    private final HttpRequestLogStatementGenerator requestLogStatementGenerator = new HttpRequestLogStatementGenerator();
+
+    public RequestResponseLogger(final Logger logger, final IntegrationConfiguration configuration) {
+        this.logger = logger;
+        this.maxBodyLength = configuration.logBodyPreviewLength;
+        this.dispatcher = configuration.asynchronousLogging
+                ? new AsyncLogDispatcher(configuration.logBufferSize)
+                : null;
+    }
+
+    public void logRequest(final HttpUriRequest request) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+
+        if (dispatcher == null) {
+            logger.info(requestLogStatementGenerator.toLogStatement(request, maxBodyLength));
+        } else {
+            dispatcher.dispatch(() -> logger.info(requestLogStatementGenerator.toLogStatement(request, maxBodyLength)));
+        }
+    }
+
+    public void logResponse(final Response response) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+
+        if (dispatcher == null) {
+            logger.info(response.toLogStatement(maxBodyLength));
+        } else {
+            dispatcher.dispatch(() -> logger.info(response.toLogStatement(maxBodyLength)));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ca.quadrilateral.integration.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+class EndpointMetrics {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String method;
+    private final String uriTemplate;
+    private final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder[] statusClassCounts = new LongAdder[6];
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    EndpointMetrics(final String method, final String uriTemplate) {
+        this.method = method;
+        this.uriTemplate = uriTemplate;
+        for (int i = 0; i < statusClassCounts.length; i++) {
+            statusClassCounts[i] = new LongAdder();
+        }
+    }
+
+    void record(final int statusCode, final long latencyMicros, final long bytesSent, final long bytesReceived) {
+        this.latencyMicros.recordValue(latencyMicros);
+
+        final int statusClass = statusCode / 100;
+        if (statusClass >= 1 && statusClass <= 5) {
+            statusClassCounts[statusClass].increment();
+        }
+
+        if (bytesSent > 0) {
+            this.bytesSent.add(bytesSent);
+        }
+        if (bytesReceived > 0) {
+            this.bytesReceived.add(bytesReceived);
+        }
+    }
+
+    void recordFailure(final long bytesSent) {
+        failureCount.increment();
+        if (bytesSent > 0) {
+            this.bytesSent.add(bytesSent);
+        }
+    }
+
+    EndpointStatistics snapshot() {
+        final long[] statusCounts = new long[statusClassCounts.length];
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = statusClassCounts[i].sum();
+        }
+
+        return new EndpointStatistics(
+                method,
+                uriTemplate,
+                latencyMicros.copy(),
+                statusCounts,
+                failureCount.sum(),
+                bytesSent.sum(),
+                bytesReceived.sum());
+    }
+}
@@ -0,0 +1,54 @@
+package ca.quadrilateral.integration.metrics;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class EndpointMetricsRecorder {
+    private final ConcurrentHashMap<String, EndpointMetrics> metricsByEndpoint = new ConcurrentHashMap<>();
+    private final UriTemplateNormalizer normalizer = new UriTemplateNormalizer();
+
+    public void record(
+            final String method,
+            final URI uri,
+            final int statusCode,
+            final long latencyNanos,
+            final long bytesSent,
+            final long bytesReceived) {
+
+        getEndpointMetrics(method, uri).record(statusCode, TimeUnit.NANOSECONDS.toMicros(latencyNanos), bytesSent, bytesReceived);
+    }
+
+    public void recordFailure(final String method, final URI uri, final long bytesSent) {
+        getEndpointMetrics(method, uri).recordFailure(bytesSent);
+    }
+
+    private EndpointMetrics getEndpointMetrics(final String method, final URI uri) {
+        final String uriTemplate = normalizer.normalize(uri);
+        final String key = method + " " + uriTemplate;
+
+        final EndpointMetrics metrics = metricsByEndpoint.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        return metricsByEndpoint.computeIfAbsent(key, k -> new EndpointMetrics(method, uriTemplate));
+    }
+
+    /**
+     * Point in time copy of the statistics of every endpoint recorded so far, keyed by "METHOD /uri/{id}/template".
+     */
+    public SortedMap<String, EndpointStatistics> getSnapshot() {
+        final SortedMap<String, EndpointStatistics> snapshot = new TreeMap<>();
+        for (final Map.Entry<String, EndpointMetrics> entry : metricsByEndpoint.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        metricsByEndpoint.clear();
+    }
+}
@@ -0,0 +1,115 @@
+package ca.quadrilateral.integration.metrics;
+
+import org.HdrHistogram.Histogram;
+
+public class EndpointStatistics {
+    private final String method;
+    private final String uriTemplate;
+    private final Histogram latencyMicros;
+    private final long[] statusClassCounts;
+    private final long failureCount;
+    private final long bytesSent;
+    private final long bytesReceived;
+
+    EndpointStatistics(
+            final String method,
+            final String uriTemplate,
+            final Histogram latencyMicros,
+            final long[] statusClassCounts,
+            final long failureCount,
+            final long bytesSent,
+            final long bytesReceived) {
+
+        this.method = method;
+        this.uriTemplate = uriTemplate;
+        this.latencyMicros = latencyMicros;
+        this.statusClassCounts = statusClassCounts;
+        this.failureCount = failureCount;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUriTemplate() {
+        return uriTemplate;
+    }
+
+    public long getCount() {
+        return latencyMicros.getTotalCount();
+    }
+
+    public double getP50Millis() {
+        return getLatencyMillisAtPercentile(50);
+    }
+
+    public double getP90Millis() {
+        return getLatencyMillisAtPercentile(90);
+    }
+
+    public double getP99Millis() {
+        return getLatencyMillisAtPercentile(99);
+    }
+
+    public double getP999Millis() {
+        return getLatencyMillisAtPercentile(99.9);
+    }
+
+    public double getMaxMillis() {
+        return latencyMicros.getMaxValue() / 1000d;
+    }
+
+    public double getLatencyMillisAtPercentile(final double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000d;
+    }
+
+    public Histogram getLatencyHistogram() {
+        return latencyMicros;
+    }
+
+    /**
+     * Number of responses in a status class, where statusClass is the leading digit of the status code (1 to 5).
+     */
+    public long getStatusClassCount(final int statusClass) {
+        if (statusClass < 1 || statusClass > 5) {
+            throw new IllegalArgumentException("Status class must be between 1 and 5");
+        }
+        return statusClassCounts[statusClass];
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s %s - count: %d; p50: %.3fms; p90: %.3fms; p99: %.3fms; p99.9: %.3fms; max: %.3fms; "
+                    + "2xx: %d; 3xx: %d; 4xx: %d; 5xx: %d; failures: %d; sent: %d B; received: %d B",
+                method,
+                uriTemplate,
+                getCount(),
+                getP50Millis(),
+                getP90Millis(),
+                getP99Millis(),
+                getP999Millis(),
+                getMaxMillis(),
+                statusClassCounts[2],
+                statusClassCounts[3],
+                statusClassCounts[4],
+                statusClassCounts[5],
+                failureCount,
+                bytesSent,
+                bytesReceived);
+    }
+}
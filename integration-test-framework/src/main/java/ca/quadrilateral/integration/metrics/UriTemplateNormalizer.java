@@ -0,0 +1,79 @@
+package ca.quadrilateral.integration.metrics;
+
+import java.net.URI;
+
+/**
+ * Collapses identifier path segments into placeholders so that, for example, /orders/42/items and /orders/43/items are
+ * both recorded as /orders/{id}/items.  Numeric segments become {id} and UUID segments become {uuid}; the query
+ * string is dropped.
+ */
+public class UriTemplateNormalizer {
+    public static final String NUMERIC_PLACEHOLDER = "{id}";
+    public static final String UUID_PLACEHOLDER = "{uuid}";
+
+    public String normalize(final URI uri) {
+        final String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return normalizePath(path);
+    }
+
+    public String normalizePath(final String path) {
+        final StringBuilder builder = new StringBuilder(path.length());
+
+        int segmentStart = 0;
+        while (segmentStart <= path.length()) {
+            int segmentEnd = path.indexOf('/', segmentStart);
+            if (segmentEnd == -1) {
+                segmentEnd = path.length();
+            }
+
+            if (isNumeric(path, segmentStart, segmentEnd)) {
+                builder.append(NUMERIC_PLACEHOLDER);
+            } else if (isUuid(path, segmentStart, segmentEnd)) {
+                builder.append(UUID_PLACEHOLDER);
+            } else {
+                builder.append(path, segmentStart, segmentEnd);
+            }
+
+            if (segmentEnd < path.length()) {
+                builder.append('/');
+            }
+            segmentStart = segmentEnd + 1;
+        }
+
+        return builder.toString();
+    }
+
+    private boolean isNumeric(final String path, final int start, final int end) {
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            final char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isUuid(final String path, final int start, final int end) {
+        if (end - start != 36) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            final int offset = i - start;
+            final char c = path.charAt(i);
+            if (offset == 8 || offset == 13 || offset == 18 || offset == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (Character.digit(c, 16) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
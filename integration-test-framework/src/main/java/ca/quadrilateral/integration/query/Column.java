@@ -0,0 +1,220 @@
+package ca.quadrilateral.integration.query;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * One result column held in a primitive array of its type, with nulls tracked in a bitmap.  Accessors for a type
+ * other than the column's throw IllegalStateException; the value of a null cell is zero, false or null.
+ */
+public final class Column {
+    private final String name;
+    private final ColumnType type;
+    private final BitSet nulls = new BitSet();
+    private int size = 0;
+
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+    private boolean[] booleans;
+    private Object[] objects;
+
+    Column(final String name, final ColumnType type) {
+        this.name = name;
+        this.type = type;
+        switch (type) {
+            case INT:
+                ints = new int[16];
+                break;
+            case LONG:
+            case TIMESTAMP:
+                longs = new long[16];
+                break;
+            case DOUBLE:
+                doubles = new double[16];
+                break;
+            case BOOLEAN:
+                booleans = new boolean[16];
+                break;
+            default:
+                objects = new Object[16];
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(final int row) {
+        checkRow(row);
+        return nulls.get(row);
+    }
+
+    public int getInt(final int row) {
+        checkRow(row);
+        checkType(ColumnType.INT);
+        return ints[row];
+    }
+
+    /**
+     * Value of an int, long or timestamp column; timestamps are epoch milliseconds.
+     */
+    public long getLong(final int row) {
+        checkRow(row);
+        if (type == ColumnType.INT) {
+            return ints[row];
+        }
+        if (type != ColumnType.LONG && type != ColumnType.TIMESTAMP) {
+            throw wrongType("long");
+        }
+        return longs[row];
+    }
+
+    public double getDouble(final int row) {
+        checkRow(row);
+        switch (type) {
+            case DOUBLE:
+                return doubles[row];
+            case INT:
+                return ints[row];
+            case LONG:
+                return longs[row];
+            case DECIMAL:
+                return objects[row] == null ? 0 : ((BigDecimal)objects[row]).doubleValue();
+            default:
+                throw wrongType("double");
+        }
+    }
+
+    public boolean getBoolean(final int row) {
+        checkRow(row);
+        checkType(ColumnType.BOOLEAN);
+        return booleans[row];
+    }
+
+    public String getString(final int row) {
+        checkRow(row);
+        checkType(ColumnType.STRING);
+        return (String)objects[row];
+    }
+
+    public BigDecimal getDecimal(final int row) {
+        checkRow(row);
+        checkType(ColumnType.DECIMAL);
+        return (BigDecimal)objects[row];
+    }
+
+    /**
+     * The value boxed as JSON results would hold it: Long for int, long and timestamp columns, Double, Boolean,
+     * String or BigDecimal; null for null cells.
+     */
+    public Object getValue(final int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        switch (type) {
+            case INT:
+            case LONG:
+            case TIMESTAMP:
+                return getLong(row);
+            case DOUBLE:
+                return doubles[row];
+            case BOOLEAN:
+                return booleans[row];
+            default:
+                return objects[row];
+        }
+    }
+
+    void ensureCapacity(final int capacity) {
+        switch (type) {
+            case INT:
+                if (capacity > ints.length) {
+                    ints = Arrays.copyOf(ints, grow(ints.length, capacity));
+                }
+                break;
+            case LONG:
+            case TIMESTAMP:
+                if (capacity > longs.length) {
+                    longs = Arrays.copyOf(longs, grow(longs.length, capacity));
+                }
+                break;
+            case DOUBLE:
+                if (capacity > doubles.length) {
+                    doubles = Arrays.copyOf(doubles, grow(doubles.length, capacity));
+                }
+                break;
+            case BOOLEAN:
+                if (capacity > booleans.length) {
+                    booleans = Arrays.copyOf(booleans, grow(booleans.length, capacity));
+                }
+                break;
+            default:
+                if (capacity > objects.length) {
+                    objects = Arrays.copyOf(objects, grow(objects.length, capacity));
+                }
+        }
+    }
+
+    private static int grow(final int length, final int capacity) {
+        return (int)Math.min(Integer.MAX_VALUE - 8, Math.max((long)length * 2, capacity));
+    }
+
+    void setNull(final int row) {
+        nulls.set(row);
+    }
+
+    void setInt(final int row, final int value) {
+        ints[row] = value;
+    }
+
+    void setLong(final int row, final long value) {
+        longs[row] = value;
+    }
+
+    void setDouble(final int row, final double value) {
+        doubles[row] = value;
+    }
+
+    void setBoolean(final int row, final boolean value) {
+        booleans[row] = value;
+    }
+
+    void setObject(final int row, final Object value) {
+        objects[row] = value;
+    }
+
+    void setSize(final int size) {
+        this.size = size;
+    }
+
+    private void checkRow(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of column " + name + " with " + size + " rows");
+        }
+    }
+
+    private void checkType(final ColumnType expected) {
+        if (type != expected) {
+            throw wrongType(expected.name().toLowerCase());
+        }
+    }
+
+    private IllegalStateException wrongType(final String requested) {
+        return new IllegalStateException("Column " + name + " is " + type + " and cannot be read as " + requested);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + type + " (" + size + " rows)";
+    }
+}
@@ -0,0 +1,30 @@
+package ca.quadrilateral.integration.query;
+
+/**
+ * Column types of the support server's columnar result format, with their wire codes.  Timestamps, dates and times
+ * are epoch milliseconds, as in JSON results.
+ */
+public enum ColumnType {
+    INT(1),
+    LONG(2),
+    DOUBLE(3),
+    BOOLEAN(4),
+    STRING(5),
+    DECIMAL(6),
+    TIMESTAMP(7);
+
+    private final int code;
+
+    private ColumnType(final int code) {
+        this.code = code;
+    }
+
+    static ColumnType forCode(final int code) {
+        for (final ColumnType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column type code " + code);
+    }
+}
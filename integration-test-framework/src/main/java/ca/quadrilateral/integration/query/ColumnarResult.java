@@ -0,0 +1,166 @@
+package ca.quadrilateral.integration.query;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONObject;
+
+/**
+ * Query result decoded from the support server's columnar format into one primitive-array-backed Column per result
+ * column.  Cells are not boxed unless read through getValue or getRow.
+ */
+public final class ColumnarResult {
+    public static final String MEDIA_TYPE = "application/x-integration-columns";
+
+    private static final int MAGIC = 0x49544331;
+
+    private final List<Column> columns;
+    private final Map<String, Column> columnsByName;
+    private final int rowCount;
+
+    private ColumnarResult(final List<Column> columns, final int rowCount) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.rowCount = rowCount;
+
+        final Map<String, Column> byName = new LinkedHashMap<>();
+        for (final Column column : columns) {
+            byName.putIfAbsent(column.getName(), column);
+        }
+        this.columnsByName = Collections.unmodifiableMap(byName);
+    }
+
+    public static ColumnarResult read(final InputStream body) throws IOException {
+        final ColumnarResult result = readIfColumnar(body);
+        if (result == null) {
+            throw new IOException("Response body is not in the columnar result format");
+        }
+        return result;
+    }
+
+    /**
+     * As read, returning null when the body does not start like the columnar format, such as an error response.
+     */
+    public static ColumnarResult readIfColumnar(final InputStream body) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(body, 0x10000));
+        final byte[] magic = new byte[4];
+        int magicLength = 0;
+        int read;
+        while (magicLength < magic.length && (read = input.read(magic, magicLength, magic.length - magicLength)) > 0) {
+            magicLength += read;
+        }
+        if (magicLength < magic.length || ByteBuffer.wrap(magic).getInt() != MAGIC) {
+            return null;
+        }
+
+        final int columnCount = input.readUnsignedShort();
+        final List<Column> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final String name = input.readUTF();
+            columns.add(new Column(name, ColumnType.forCode(input.readUnsignedByte())));
+        }
+
+        int rowCount = 0;
+        byte[] bitmap = new byte[0];
+        byte[] stringBuffer = new byte[256];
+        int blockRows;
+        while ((blockRows = input.readInt()) > 0) {
+            final int bitmapLength = (blockRows + 7) / 8;
+            if (bitmap.length < bitmapLength) {
+                bitmap = new byte[bitmapLength];
+            }
+
+            for (final Column column : columns) {
+                column.ensureCapacity(rowCount + blockRows);
+                input.readFully(bitmap, 0, bitmapLength);
+
+                for (int i = 0; i < blockRows; i++) {
+                    final int row = rowCount + i;
+                    final boolean isNull = (bitmap[i >> 3] & (1 << (i & 7))) != 0;
+                    if (isNull) {
+                        column.setNull(row);
+                    }
+                    switch (column.getType()) {
+                        case INT:
+                            column.setInt(row, input.readInt());
+                            break;
+                        case LONG:
+                        case TIMESTAMP:
+                            column.setLong(row, input.readLong());
+                            break;
+                        case DOUBLE:
+                            column.setDouble(row, input.readDouble());
+                            break;
+                        case BOOLEAN:
+                            column.setBoolean(row, input.readByte() != 0);
+                            break;
+                        case DECIMAL:
+                            if (!isNull) {
+                                column.setObject(row, new BigDecimal(input.readUTF()));
+                            }
+                            break;
+                        default:
+                            if (!isNull) {
+                                final int length = input.readInt();
+                                if (length > stringBuffer.length) {
+                                    stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+                                }
+                                input.readFully(stringBuffer, 0, length);
+                                column.setObject(row, new String(stringBuffer, 0, length, StandardCharsets.UTF_8));
+                            }
+                    }
+                }
+            }
+            rowCount += blockRows;
+        }
+
+        for (final Column column : columns) {
+            column.setSize(rowCount);
+        }
+        return new ColumnarResult(columns, rowCount);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public Column getColumn(final int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the result has no such column
+     */
+    public Column getColumn(final String name) {
+        final Column column = columnsByName.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Result has no column named " + name + "; columns are " + columnsByName.keySet());
+        }
+        return column;
+    }
+
+    /**
+     * The row boxed into the same form as a row of a JSON result.
+     */
+    @SuppressWarnings("unchecked")
+    public JSONObject getRow(final int row) {
+        final JSONObject rowObject = new JSONObject();
+        for (final Column column : columns) {
+            rowObject.put(column.getName(), column.getValue(row));
+        }
+        return rowObject;
+    }
+}
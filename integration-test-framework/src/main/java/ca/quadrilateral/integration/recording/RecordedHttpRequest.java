@@ -0,0 +1,19 @@
+package ca.quadrilateral.integration.recording;
+
+import java.net.URI;
+
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+
+class RecordedHttpRequest extends HttpEntityEnclosingRequestBase {
+    private final String method;
+
+    RecordedHttpRequest(final String method, final URI uri) {
+        this.method = method;
+        setURI(uri);
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+}
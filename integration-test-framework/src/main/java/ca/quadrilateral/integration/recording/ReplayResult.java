@@ -0,0 +1,36 @@
+package ca.quadrilateral.integration.recording;
+
+import java.time.Duration;
+
+public class ReplayResult {
+    private final long issuedCount;
+    private final long failedCount;
+    private final Duration elapsed;
+
+    ReplayResult(final long issuedCount, final long failedCount, final Duration elapsed) {
+        this.issuedCount = issuedCount;
+        this.failedCount = failedCount;
+        this.elapsed = elapsed;
+    }
+
+    public long getIssuedCount() {
+        return issuedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getRequestsPerSecond() {
+        return issuedCount / (elapsed.toNanos() / 1_000_000_000d);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("issued: %d; failed: %d; elapsed: %s; %.1f req/s", issuedCount, failedCount, elapsed, getRequestsPerSecond());
+    }
+}
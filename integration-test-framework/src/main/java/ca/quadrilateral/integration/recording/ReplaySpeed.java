@@ -0,0 +1,40 @@
+package ca.quadrilateral.integration.recording;
+
+public final class ReplaySpeed {
+    private static final ReplaySpeed ORIGINAL = new ReplaySpeed(1d);
+    private static final ReplaySpeed MAX = new ReplaySpeed(Double.POSITIVE_INFINITY);
+
+    private final double multiplier;
+
+    private ReplaySpeed(final double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public static ReplaySpeed original() {
+        return ORIGINAL;
+    }
+
+    public static ReplaySpeed max() {
+        return MAX;
+    }
+
+    public static ReplaySpeed multiplier(final double multiplier) {
+        if (multiplier <= 0 || Double.isNaN(multiplier)) {
+            throw new IllegalArgumentException("Replay speed multiplier must be positive");
+        }
+        return new ReplaySpeed(multiplier);
+    }
+
+    public boolean isMax() {
+        return Double.isInfinite(multiplier);
+    }
+
+    long scale(final long recordedOffsetNanos) {
+        return isMax() ? 0 : (long)(recordedOffsetNanos / multiplier);
+    }
+
+    @Override
+    public String toString() {
+        return isMax() ? "max" : multiplier + "x";
+    }
+}
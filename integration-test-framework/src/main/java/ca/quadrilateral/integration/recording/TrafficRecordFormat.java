@@ -0,0 +1,35 @@
+package ca.quadrilateral.integration.recording;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Layout of a traffic recording.  All values are big-endian.
+ *
+ * <pre>
+ * file    := MAGIC:int VERSION:short record*
+ * record  := length:int type:byte sendOffsetNanos:long method:bytes uri:bytes headers body [response]
+ * response:= status:int durationNanos:long headers body
+ * headers := count:int (name:bytes value:bytes)*
+ * body    := length:int (-1 when absent) content:byte[length]
+ * bytes   := length:int content:byte[length] (UTF-8)
+ * </pre>
+ *
+ * The length prefix covers everything after itself, so a reader can skip or window records without decoding them.
+ */
+final class TrafficRecordFormat {
+    static final int MAGIC = 0x49545246;
+    static final short VERSION = 1;
+
+    static final byte REQUEST_ONLY = 1;
+    static final byte REQUEST_AND_RESPONSE = 2;
+
+    static final int NO_BODY = -1;
+
+    // Hop-by-hop and framing headers are regenerated by the client on replay
+    static final Set<String> SKIPPED_HEADERS = new HashSet<>(Arrays.asList(
+            "content-length", "transfer-encoding", "host", "connection"));
+
+    private TrafficRecordFormat() {}
+}
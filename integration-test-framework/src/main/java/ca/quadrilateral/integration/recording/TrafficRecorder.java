@@ -0,0 +1,187 @@
+package ca.quadrilateral.integration.recording;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.quadrilateral.integration.Response;
+import ca.quadrilateral.integration.streaming.StreamedBody;
+
+/**
+ * Appends executed requests, and optionally their responses, to a binary traffic recording that TrafficReplayer can
+ * re-issue.  See TrafficRecordFormat for the layout.
+ */
+public class TrafficRecorder implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TrafficRecorder.class);
+
+    private final DataOutputStream outputStream;
+    private final boolean includeResponses;
+    private final long startNanos;
+    private final RecordBuffer recordBuffer = new RecordBuffer();
+
+    private boolean closed = false;
+
+    public TrafficRecorder(final Path file, final boolean includeResponses) throws IOException {
+        final OutputStream fileStream = Files.newOutputStream(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+
+        this.outputStream = new DataOutputStream(new BufferedOutputStream(fileStream, 0x10000));
+        this.includeResponses = includeResponses;
+        this.startNanos = System.nanoTime();
+
+        outputStream.writeInt(TrafficRecordFormat.MAGIC);
+        outputStream.writeShort(TrafficRecordFormat.VERSION);
+    }
+
+    public boolean isIncludingResponses() {
+        return includeResponses;
+    }
+
+    /**
+     * Records a request that was sent at sendNanos (a System.nanoTime() value).  The response may be null when the
+     * request failed or responses are not being recorded.
+     */
+    public synchronized void record(final HttpUriRequest request, final long sendNanos, final Response response) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            recordBuffer.reset();
+            final DataOutputStream record = recordBuffer.dataOutput;
+
+            final boolean writeResponse = includeResponses && response != null;
+            record.writeByte(writeResponse ? TrafficRecordFormat.REQUEST_AND_RESPONSE : TrafficRecordFormat.REQUEST_ONLY);
+            record.writeLong(Math.max(0, sendNanos - startNanos));
+            writeString(record, request.getMethod());
+            writeString(record, request.getURI().toString());
+            writeHeaders(record, request.getAllHeaders());
+            writeBody(record, getRequestBody(request));
+
+            if (writeResponse) {
+                record.writeInt(response.getStatusCode());
+                record.writeLong(System.nanoTime() - sendNanos);
+                writeHeaders(record, response.getAllHeaders().toArray(new Header[0]));
+                writeResponseBody(record, response);
+            }
+
+            record.flush();
+            outputStream.writeInt(recordBuffer.size());
+            recordBuffer.writeTo(outputStream);
+        } catch (final IOException e) {
+            logger.error("Error writing traffic record, recording stopped", e);
+            closeQuietly();
+        }
+    }
+
+    private static byte[] getRequestBody(final HttpUriRequest request) throws IOException {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return null;
+        }
+
+        final HttpEntity entity = ((HttpEntityEnclosingRequest)request).getEntity();
+        if (entity == null) {
+            return null;
+        }
+        if (!entity.isRepeatable()) {
+            logger.warn("Request entity for " + request.getMethod() + " " + request.getURI() + " is not repeatable and was not recorded");
+            return null;
+        }
+        return EntityUtils.toByteArray(entity);
+    }
+
+    private static void writeResponseBody(final DataOutputStream record, final Response response) throws IOException {
+        if (!response.hasBody() || response.getBody() instanceof StreamedBody) {
+            record.writeInt(TrafficRecordFormat.NO_BODY);
+        } else {
+            final ByteBuffer body = response.getBody().asByteBuffer();
+            record.writeInt(body.remaining());
+            response.getBody().writeTo(record);
+        }
+    }
+
+    private static void writeHeaders(final DataOutputStream record, final Header[] headers) throws IOException {
+        int count = 0;
+        for (final Header header : headers) {
+            if (!isSkipped(header.getName())) {
+                count++;
+            }
+        }
+
+        record.writeInt(count);
+        for (final Header header : headers) {
+            if (!isSkipped(header.getName())) {
+                writeString(record, header.getName());
+                writeString(record, header.getValue());
+            }
+        }
+    }
+
+    private static boolean isSkipped(final String headerName) {
+        return TrafficRecordFormat.SKIPPED_HEADERS.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+
+    private static void writeString(final DataOutputStream record, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        record.writeInt(bytes.length);
+        record.write(bytes);
+    }
+
+    private static void writeBody(final DataOutputStream record, final byte[] body) throws IOException {
+        if (body == null) {
+            record.writeInt(TrafficRecordFormat.NO_BODY);
+        } else {
+            record.writeInt(body.length);
+            record.write(body);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            outputStream.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (final IOException e) {
+            logger.warn("Error closing traffic recording", e);
+        }
+    }
+
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        private final DataOutputStream dataOutput = new DataOutputStream(this);
+
+        RecordBuffer() {
+            super(0x1000);
+        }
+
+        @Override
+        public synchronized void writeTo(final OutputStream out) throws IOException {
+            out.write(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ca.quadrilateral.integration.recording;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.quadrilateral.integration.Integration;
+import ca.quadrilateral.integration.RequestExecutors;
+
+/**
+ * Re-issues a traffic recording produced by TrafficRecorder.  The file is memory-mapped and decoded record by record,
+ * and each request is submitted to an executor at its recorded offset scaled by the replay speed.
+ */
+public class TrafficReplayer {
+    private static final Logger logger = LoggerFactory.getLogger(TrafficReplayer.class);
+
+    // Records are decoded from windows of at most this many bytes so recordings larger than 2GB can be mapped
+    private static final long MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+
+    private final Path file;
+
+    public TrafficReplayer(final Path file) {
+        this.file = file;
+    }
+
+    public ReplayResult replay(final Integration integration, final ReplaySpeed speed) throws IOException, InterruptedException {
+        final ExecutorService executor = RequestExecutors.newDefaultExecutor();
+        try {
+            return replay(integration, speed, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public ReplayResult replay(final Integration integration, final ReplaySpeed speed, final ExecutorService executor) throws IOException, InterruptedException {
+        logger.info("Replaying traffic from " + file + " at " + speed + " speed");
+
+        final AtomicLong failedCount = new AtomicLong();
+        final Phaser inFlight = new Phaser(1);
+        long issuedCount = 0;
+
+        final long startNanos = System.nanoTime();
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            long windowStart = 0;
+            MappedByteBuffer window = map(channel, windowStart, fileSize);
+
+            readFileHeader(window);
+
+            while (windowStart + window.position() < fileSize) {
+                if (window.remaining() < Integer.BYTES || window.remaining() < Integer.BYTES + window.getInt(window.position())) {
+                    windowStart += window.position();
+                    window = map(channel, windowStart, fileSize);
+                }
+
+                final int recordLength = window.getInt();
+                final int recordEnd = window.position() + recordLength;
+                final RecordedHttpRequest request = readRequest(window, speed, startNanos);
+                window.position(recordEnd);
+
+                inFlight.register();
+                issuedCount++;
+                executor.execute(() -> {
+                    try {
+                        integration.executeRequest(request);
+                    } catch (final RuntimeException e) {
+                        failedCount.incrementAndGet();
+                        logger.warn("Replayed request " + request.getMethod() + " " + request.getURI() + " failed", e);
+                    } finally {
+                        inFlight.arriveAndDeregister();
+                    }
+                });
+            }
+        }
+
+        inFlight.arriveAndAwaitAdvance();
+
+        final ReplayResult result = new ReplayResult(issuedCount, failedCount.get(), Duration.ofNanos(System.nanoTime() - startNanos));
+        logger.info("Replay of " + file + " complete: " + result);
+        return result;
+    }
+
+    private static MappedByteBuffer map(final FileChannel channel, final long position, final long fileSize) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_WINDOW_SIZE, fileSize - position));
+    }
+
+    private void readFileHeader(final ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < Integer.BYTES + Short.BYTES || buffer.getInt() != TrafficRecordFormat.MAGIC) {
+            throw new IOException(file + " is not a traffic recording");
+        }
+
+        final short version = buffer.getShort();
+        if (version != TrafficRecordFormat.VERSION) {
+            throw new IOException("Unsupported traffic recording version " + version + " in " + file);
+        }
+    }
+
+    private RecordedHttpRequest readRequest(final ByteBuffer buffer, final ReplaySpeed speed, final long startNanos) {
+        buffer.get();
+        final long sendOffsetNanos = buffer.getLong();
+        final String method = readString(buffer);
+        final URI uri = URI.create(readString(buffer));
+
+        final RecordedHttpRequest request = new RecordedHttpRequest(method, uri);
+
+        final int headerCount = buffer.getInt();
+        for (int i = 0; i < headerCount; i++) {
+            request.addHeader(readString(buffer), readString(buffer));
+        }
+
+        final int bodyLength = buffer.getInt();
+        if (bodyLength != TrafficRecordFormat.NO_BODY) {
+            final byte[] body = new byte[bodyLength];
+            buffer.get(body);
+            request.setEntity(new ByteArrayEntity(body));
+        }
+
+        waitUntil(startNanos + speed.scale(sendOffsetNanos));
+        return request;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void waitUntil(final long targetNanos) {
+        long remaining;
+        while ((remaining = targetNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
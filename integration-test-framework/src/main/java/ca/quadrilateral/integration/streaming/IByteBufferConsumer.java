@@ -0,0 +1,14 @@
+package ca.quadrilateral.integration.streaming;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface IByteBufferConsumer<T> {
+    /**
+     * Receives the next chunk of the response body.  The buffer is reused for the following chunk, so its contents
+     * must be consumed or copied before this method returns.
+     */
+    void onData(ByteBuffer chunk) throws IOException;
+
+    T onComplete() throws IOException;
+}
@@ -0,0 +1,13 @@
+package ca.quadrilateral.integration.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@FunctionalInterface
+public interface IInputStreamConsumer<T> {
+    /**
+     * Reads as much of the response body as required.  The stream is read straight from the connection and is closed
+     * by the caller once this method returns; anything left unread is discarded.
+     */
+    T consume(InputStream body) throws IOException;
+}
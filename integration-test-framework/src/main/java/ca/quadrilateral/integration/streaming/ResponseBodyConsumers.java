@@ -0,0 +1,109 @@
+package ca.quadrilateral.integration.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Hex;
+
+import ca.quadrilateral.integration.body.BodyBuffers;
+import ca.quadrilateral.integration.util.json.JsonPathSet;
+
+public final class ResponseBodyConsumers {
+    private ResponseBodyConsumers() {}
+
+    public static IInputStreamConsumer<Void> discard() {
+        return body -> {
+            final byte[] buffer = BodyBuffers.acquire();
+            try {
+                while (body.read(buffer) != -1) {
+                    // Draining only
+                }
+            } finally {
+                BodyBuffers.release(buffer);
+            }
+            return null;
+        };
+    }
+
+    public static IByteBufferConsumer<Long> countBytes() {
+        return new IByteBufferConsumer<Long>() {
+            private long count = 0;
+
+            @Override
+            public void onData(final ByteBuffer chunk) {
+                count += chunk.remaining();
+            }
+
+            @Override
+            public Long onComplete() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Hex encoded digest of the response body, for example digest("SHA-256").
+     */
+    public static IByteBufferConsumer<String> digest(final String algorithm) {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unsupported digest algorithm " + algorithm, e);
+        }
+
+        return new IByteBufferConsumer<String>() {
+            @Override
+            public void onData(final ByteBuffer chunk) {
+                messageDigest.update(chunk);
+            }
+
+            @Override
+            public String onComplete() {
+                return new String(Hex.encodeHex(messageDigest.digest()));
+            }
+        };
+    }
+
+    /**
+     * Values at each of the paths in a UTF-8 JSON body, read in a single pass that stops once the last path is found.
+     */
+    public static IInputStreamConsumer<Map<String, Object>> jsonPaths(final JsonPathSet paths) {
+        return body -> paths.evaluate(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Adapts a ByteBuffer consumer to an input stream consumer, feeding it from a single pooled heap buffer.
+     */
+    public static <T> IInputStreamConsumer<T> fromByteBufferConsumer(final IByteBufferConsumer<T> consumer) {
+        return body -> {
+            final byte[] chunk = BodyBuffers.acquire();
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+
+                int read;
+                while ((read = readChunk(body, chunk)) > 0) {
+                    buffer.clear().limit(read);
+                    consumer.onData(buffer);
+                }
+            } finally {
+                BodyBuffers.release(chunk);
+            }
+            return consumer.onComplete();
+        };
+    }
+
+    private static int readChunk(final InputStream body, final byte[] chunk) throws IOException {
+        int total = 0;
+        int read;
+        while (total < chunk.length && (read = body.read(chunk, total, chunk.length - total)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+}
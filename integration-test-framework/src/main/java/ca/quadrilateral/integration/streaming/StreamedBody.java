@@ -0,0 +1,32 @@
+package ca.quadrilateral.integration.streaming;
+
+import org.apache.http.HttpEntity;
+
+import ca.quadrilateral.integration.body.IBody;
+
+public class StreamedBody implements IBody {
+    private final long length;
+
+    public StreamedBody(final long length) {
+        this.length = length;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public byte[] getBytes() {
+        throw new UnsupportedOperationException("The body was consumed by a streaming consumer and was not retained");
+    }
+
+    @Override
+    public HttpEntity getHttpEntity() {
+        throw new UnsupportedOperationException("The body was consumed by a streaming consumer and was not retained");
+    }
+
+    @Override
+    public String toString() {
+        return "<STREAMED, " + length + " BYTES>";
+    }
+}
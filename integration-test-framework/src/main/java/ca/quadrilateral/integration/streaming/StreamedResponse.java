@@ -0,0 +1,22 @@
+package ca.quadrilateral.integration.streaming;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import ca.quadrilateral.integration.Response;
+
+public class StreamedResponse<T> extends Response {
+    private final T result;
+
+    public StreamedResponse(final HttpUriRequest request, final HttpResponse httpResponse, final StreamedBody body, final T result) {
+        super(request, httpResponse, body, body.getLength());
+        this.result = result;
+    }
+
+    /**
+     * Value returned by the streaming consumer, or null when the response had no body.
+     */
+    public T getResult() {
+        return result;
+    }
+}
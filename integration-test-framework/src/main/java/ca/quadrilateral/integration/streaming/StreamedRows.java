@@ -0,0 +1,81 @@
+package ca.quadrilateral.integration.streaming;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.json.simple.JSONObject;
+
+import ca.quadrilateral.integration.util.json.JsonArrayReader;
+
+/**
+ * Query result rows decoded one at a time as they are read from the response, holding the connection until every
+ * row has been read or the rows are closed.  Always close, or use try-with-resources, when iteration may stop early.
+ */
+public final class StreamedRows implements Iterator<JSONObject>, Closeable {
+    private final JsonArrayReader rows;
+    private final Closeable onClose;
+    private boolean closed = false;
+
+    public StreamedRows(final JsonArrayReader rows, final Closeable onClose) {
+        this.rows = rows;
+        this.onClose = onClose;
+    }
+
+    /**
+     * The rows as a sequential stream, which closes these rows when it is closed.
+     */
+    public Stream<JSONObject> stream() {
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (rows.hasNext()) {
+                return true;
+            }
+        } catch (final IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public JSONObject next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return (JSONObject)rows.next();
+        } catch (final IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                onClose.close();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
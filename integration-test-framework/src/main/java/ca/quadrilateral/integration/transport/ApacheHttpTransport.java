@@ -0,0 +1,219 @@
+package ca.quadrilateral.integration.transport;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.quadrilateral.integration.ConnectionPoolStatistics;
+import ca.quadrilateral.integration.IntegrationConfiguration;
+
+/**
+ * HTTP/1.1 transport backed by Apache HttpClient, using a pooled blocking client and a lazily started NIO client for
+ * asynchronous requests.
+ */
+public class ApacheHttpTransport implements IHttpTransport {
+    private static final Logger logger = LoggerFactory.getLogger(ApacheHttpTransport.class);
+
+    private final IntegrationConfiguration configuration;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ScheduledExecutorService idleConnectionEvictor;
+    private volatile CloseableHttpAsyncClient asyncHttpClient;
+
+    public ApacheHttpTransport(final IntegrationConfiguration configuration) {
+        this.configuration = configuration;
+        this.connectionManager = buildConnectionManager(configuration);
+        this.httpClient = HttpClients
+                .custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(buildKeepAliveStrategy(configuration))
+                .setDefaultRequestConfig(buildRequestConfig(configuration))
+                .build();
+
+        this.idleConnectionEvictor = configuration.isIdleEvictionEnabled()
+                ? startIdleConnectionEvictor(connectionManager, configuration)
+                : null;
+    }
+
+    @Override
+    public <T> T execute(final HttpUriRequest request, final ResponseHandler<? extends T> responseHandler) throws IOException {
+        return httpClient.execute(request, responseHandler);
+    }
+
+    @Override
+    public CloseableHttpResponse executeStreaming(final HttpUriRequest request) throws IOException {
+        return httpClient.execute(request);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(final HttpUriRequest request) {
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        getAsyncHttpClient().execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse httpResponse) {
+                future.complete(httpResponse);
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        return future;
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        return toConnectionPoolStatistics(connectionManager.getTotalStats());
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics(final String host, final int port) {
+        return toConnectionPoolStatistics(connectionManager.getStats(new HttpRoute(new HttpHost(host, port, "http"))));
+    }
+
+    @Override
+    public void close() {
+        if (idleConnectionEvictor != null) {
+            idleConnectionEvictor.shutdownNow();
+        }
+
+        try {
+            httpClient.close();
+        } catch (final IOException e) {
+            logger.error("Error closing HTTP client", e);
+        }
+
+        synchronized (this) {
+            if (asyncHttpClient != null) {
+                try {
+                    asyncHttpClient.close();
+                } catch (final IOException e) {
+                    logger.error("Error closing asynchronous HTTP client", e);
+                }
+                asyncHttpClient = null;
+            }
+        }
+    }
+
+    private CloseableHttpAsyncClient getAsyncHttpClient() {
+        CloseableHttpAsyncClient client = asyncHttpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = asyncHttpClient;
+                if (client == null) {
+                    client = buildAsyncHttpClient(configuration);
+                    client.start();
+                    asyncHttpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private static ConnectionPoolStatistics toConnectionPoolStatistics(final PoolStats poolStats) {
+        return new ConnectionPoolStatistics(poolStats.getLeased(), poolStats.getPending(), poolStats.getAvailable(), poolStats.getMax());
+    }
+
+    private static PoolingHttpClientConnectionManager buildConnectionManager(final IntegrationConfiguration configuration) {
+        final PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(configuration.connectionTimeToLiveMillis, TimeUnit.MILLISECONDS);
+
+        connectionManager.setMaxTotal(configuration.maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(configuration.maxConnectionsPerRoute);
+        connectionManager.setDefaultSocketConfig(
+                SocketConfig
+                    .custom()
+                    .setSoTimeout((int)configuration.socketTimeoutMillis)
+                    .setTcpNoDelay(configuration.tcpNoDelay)
+                    .setSoKeepAlive(true)
+                    .build());
+
+        return connectionManager;
+    }
+
+    private static RequestConfig buildRequestConfig(final IntegrationConfiguration configuration) {
+        return RequestConfig
+                .custom()
+                .setConnectTimeout((int)configuration.connectTimeoutMillis)
+                .setSocketTimeout((int)configuration.socketTimeoutMillis)
+                .setConnectionRequestTimeout((int)configuration.connectionRequestTimeoutMillis)
+                .build();
+    }
+
+    private static ConnectionKeepAliveStrategy buildKeepAliveStrategy(final IntegrationConfiguration configuration) {
+        return (httpResponse, context) -> {
+            final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(httpResponse, context);
+            return serverKeepAlive > 0 ? serverKeepAlive : configuration.keepAliveMillis;
+        };
+    }
+
+    private static ScheduledExecutorService startIdleConnectionEvictor(
+            final PoolingHttpClientConnectionManager connectionManager,
+            final IntegrationConfiguration configuration) {
+
+        final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "integration-idle-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            if (configuration.idleConnectionTimeoutMillis > 0) {
+                connectionManager.closeIdleConnections(configuration.idleConnectionTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }, configuration.idleEvictionIntervalMillis, configuration.idleEvictionIntervalMillis, TimeUnit.MILLISECONDS);
+
+        return evictor;
+    }
+
+    private static CloseableHttpAsyncClient buildAsyncHttpClient(final IntegrationConfiguration configuration) {
+        return HttpAsyncClients
+                .custom()
+                .setMaxConnTotal(configuration.maxConnectionsTotal)
+                .setMaxConnPerRoute(configuration.maxConnectionsPerRoute)
+                .setKeepAliveStrategy(buildKeepAliveStrategy(configuration))
+                .setDefaultRequestConfig(buildRequestConfig(configuration))
+                .setDefaultIOReactorConfig(
+                        IOReactorConfig
+                            .custom()
+                            .setIoThreadCount(configuration.asyncIoThreadCount)
+                            .setConnectTimeout((int)configuration.connectTimeoutMillis)
+                            .setSoTimeout((int)configuration.socketTimeoutMillis)
+                            .setTcpNoDelay(configuration.tcpNoDelay)
+                            .setSoKeepAlive(true)
+                            .build())
+                .build();
+    }
+}
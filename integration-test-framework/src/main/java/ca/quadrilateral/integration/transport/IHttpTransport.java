@@ -0,0 +1,46 @@
+package ca.quadrilateral.integration.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import ca.quadrilateral.integration.ConnectionPoolStatistics;
+
+/**
+ * Transport used by Integration to put requests on the wire.  Requests and responses are exchanged as Apache
+ * HttpComponents objects regardless of the underlying client, so Response construction is identical for every
+ * implementation.
+ */
+public interface IHttpTransport extends Closeable {
+    /**
+     * Executes the request and hands the response to the handler.  The response, and any connection backing it, is
+     * released once the handler returns.
+     */
+    <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler) throws IOException;
+
+    /**
+     * Executes the request and returns as soon as the response head has arrived.  The entity content is read
+     * straight from the connection, and the caller must close the response to release it.
+     */
+    CloseableHttpResponse executeStreaming(HttpUriRequest request) throws IOException;
+
+    /**
+     * Executes the request without blocking the caller.  The returned response has a fully buffered entity.
+     */
+    CompletableFuture<HttpResponse> executeAsync(HttpUriRequest request);
+
+    /**
+     * ConnectionPoolStatistics.UNAVAILABLE if the client does not expose its connection pool.
+     */
+    ConnectionPoolStatistics getConnectionPoolStatistics();
+
+    ConnectionPoolStatistics getConnectionPoolStatistics(String host, int port);
+
+    @Override
+    void close();
+}
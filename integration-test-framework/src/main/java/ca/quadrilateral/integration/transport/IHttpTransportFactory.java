@@ -0,0 +1,7 @@
+package ca.quadrilateral.integration.transport;
+
+import ca.quadrilateral.integration.IntegrationConfiguration;
+
+public interface IHttpTransportFactory {
+    IHttpTransport create(IntegrationConfiguration configuration);
+}
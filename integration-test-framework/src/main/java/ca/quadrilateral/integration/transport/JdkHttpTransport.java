@@ -0,0 +1,367 @@
+package ca.quadrilateral.integration.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.RedirectException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.util.EntityUtils;
+
+import ca.quadrilateral.integration.ConnectionPoolStatistics;
+import ca.quadrilateral.integration.IntegrationConfiguration;
+import ca.quadrilateral.integration.RequestExecutors;
+
+/**
+ * Transport backed by the JDK java.net.http client.  With HTTP/2 selected (the default), requests to a service are
+ * multiplexed as streams over a single connection: https endpoints negotiate h2 through ALPN and plain http endpoints
+ * are upgraded to h2c on the first request.  Servers that do not support HTTP/2 are spoken to over HTTP/1.1.
+ *
+ * Redirects are followed as ApacheHttpTransport follows them rather than as the JDK client would: 301, 302 and 307
+ * only for GET and HEAD, and 303 for any method as a GET, so both transports return the same responses.  The JDK
+ * client keeps its connections to itself, so there are no pool statistics to report.
+ */
+public class JdkHttpTransport implements IHttpTransport {
+    private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+    private static final int MAX_REDIRECTS = 50;
+
+    // Headers the JDK client manages itself and refuses to accept from callers
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "content-length", "expect", "host", "upgrade"));
+
+    private final IntegrationConfiguration configuration;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public JdkHttpTransport(final IntegrationConfiguration configuration) {
+        this(configuration, Version.HTTP_2);
+    }
+
+    public JdkHttpTransport(final IntegrationConfiguration configuration, final Version version) {
+        this.configuration = configuration;
+        this.executor = RequestExecutors.newDefaultExecutor();
+        this.httpClient = HttpClient
+                .newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofMillis(configuration.connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public <T> T execute(final HttpUriRequest request, final ResponseHandler<? extends T> responseHandler) throws IOException {
+        final java.net.http.HttpResponse<byte[]> jdkResponse;
+        try {
+            jdkResponse = send(toJdkRequest(request), BodyHandlers.ofByteArray());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while executing " + request.getMethod() + " " + request.getURI());
+        }
+        return responseHandler.handleResponse(toHttpResponse(jdkResponse));
+    }
+
+    @Override
+    public CloseableHttpResponse executeStreaming(final HttpUriRequest request) throws IOException {
+        final java.net.http.HttpResponse<InputStream> jdkResponse;
+        try {
+            jdkResponse = send(toJdkRequest(request), BodyHandlers.ofInputStream());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while executing " + request.getMethod() + " " + request.getURI());
+        }
+
+        final StreamingHttpResponse httpResponse = new StreamingHttpResponse(toStatusLine(jdkResponse), jdkResponse.body());
+        copyHeaders(jdkResponse, httpResponse);
+
+        final InputStreamEntity entity = new InputStreamEntity(jdkResponse.body(), getContentLength(httpResponse));
+        entity.setContentType(httpResponse.getFirstHeader("Content-Type"));
+        entity.setContentEncoding(httpResponse.getFirstHeader("Content-Encoding"));
+        httpResponse.setEntity(entity);
+
+        return httpResponse;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(final HttpUriRequest request) {
+        final HttpRequest jdkRequest;
+        try {
+            jdkRequest = toJdkRequest(request);
+        } catch (final IOException | RuntimeException e) {
+            final CompletableFuture<HttpResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+
+        return sendAsync(jdkRequest, BodyHandlers.ofByteArray(), 0).thenApply(this::toHttpResponse);
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        return ConnectionPoolStatistics.UNAVAILABLE;
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics(final String host, final int port) {
+        return ConnectionPoolStatistics.UNAVAILABLE;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> java.net.http.HttpResponse<T> send(final HttpRequest request, final BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+        HttpRequest nextRequest = request;
+        for (int redirects = 0; ; redirects++) {
+            final java.net.http.HttpResponse<T> jdkResponse = httpClient.send(nextRequest, bodyHandler);
+            nextRequest = toRedirectRequest(nextRequest, jdkResponse);
+            if (nextRequest == null) {
+                return jdkResponse;
+            }
+            discardBody(jdkResponse);
+            if (redirects == MAX_REDIRECTS) {
+                throw tooManyRedirects();
+            }
+        }
+    }
+
+    private <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsync(
+            final HttpRequest request,
+            final BodyHandler<T> bodyHandler,
+            final int redirects) {
+
+        return httpClient
+                .sendAsync(request, bodyHandler)
+                .thenCompose(jdkResponse -> {
+                    final HttpRequest redirectRequest = toRedirectRequest(request, jdkResponse);
+                    if (redirectRequest == null) {
+                        return CompletableFuture.completedFuture(jdkResponse);
+                    }
+                    discardBody(jdkResponse);
+                    if (redirects == MAX_REDIRECTS) {
+                        final CompletableFuture<java.net.http.HttpResponse<T>> failed = new CompletableFuture<>();
+                        failed.completeExceptionally(tooManyRedirects());
+                        return failed;
+                    }
+                    return sendAsync(redirectRequest, bodyHandler, redirects + 1);
+                });
+    }
+
+    /**
+     * The request DefaultRedirectStrategy would follow the response with, or null if it would return the response.
+     */
+    private HttpRequest toRedirectRequest(final HttpRequest request, final java.net.http.HttpResponse<?> jdkResponse) {
+        final Optional<String> location = jdkResponse.headers().firstValue("Location");
+        if (!location.isPresent()) {
+            return null;
+        }
+
+        final boolean isHead = request.method().equalsIgnoreCase("HEAD");
+        final boolean isGetOrHead = isHead || request.method().equalsIgnoreCase("GET");
+        switch (jdkResponse.statusCode()) {
+            case 301:
+            case 302:
+            case 307:
+                if (!isGetOrHead) {
+                    return null;
+                }
+                break;
+            case 303:
+                break;
+            default:
+                return null;
+        }
+
+        final HttpRequest.Builder builder = HttpRequest
+                .newBuilder(request.uri().resolve(location.get()))
+                .timeout(Duration.ofMillis(configuration.socketTimeoutMillis))
+                .method(isHead ? "HEAD" : "GET", BodyPublishers.noBody());
+        request.headers().map().forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+        return builder.build();
+    }
+
+    private static void discardBody(final java.net.http.HttpResponse<?> jdkResponse) {
+        if (jdkResponse.body() instanceof Closeable) {
+            try {
+                ((Closeable)jdkResponse.body()).close();
+            } catch (final IOException e) {
+                // Nothing more will be read from it
+            }
+        }
+    }
+
+    private static ClientProtocolException tooManyRedirects() {
+        return new ClientProtocolException(new RedirectException("Maximum redirects (" + MAX_REDIRECTS + ") exceeded"));
+    }
+
+    private HttpRequest toJdkRequest(final HttpUriRequest request) throws IOException {
+        final HttpRequest.Builder builder = HttpRequest
+                .newBuilder(request.getURI())
+                .timeout(Duration.ofMillis(configuration.socketTimeoutMillis));
+
+        boolean hasContentType = false;
+        for (final Header header : request.getAllHeaders()) {
+            final String name = header.getName().toLowerCase(Locale.ROOT);
+            if (!RESTRICTED_HEADERS.contains(name)) {
+                builder.header(header.getName(), header.getValue());
+                hasContentType |= name.equals("content-type");
+            }
+        }
+
+        final HttpEntity entity = request instanceof HttpEntityEnclosingRequest
+                ? ((HttpEntityEnclosingRequest)request).getEntity()
+                : null;
+
+        if (entity == null) {
+            return builder.method(request.getMethod(), BodyPublishers.noBody()).build();
+        }
+
+        if (!hasContentType && entity.getContentType() != null) {
+            builder.header(entity.getContentType().getName(), entity.getContentType().getValue());
+        }
+        if (entity.getContentEncoding() != null) {
+            builder.header(entity.getContentEncoding().getName(), entity.getContentEncoding().getValue());
+        }
+
+        return builder.method(request.getMethod(), toBodyPublisher(entity)).build();
+    }
+
+    private BodyPublisher toBodyPublisher(final HttpEntity entity) throws IOException {
+        if (entity.isRepeatable() && entity.getContentLength() >= 0 && entity.getContentLength() <= Integer.MAX_VALUE) {
+            return BodyPublishers.ofByteArray(EntityUtils.toByteArray(entity));
+        }
+
+        final BodyPublisher streamPublisher = BodyPublishers.ofInputStream(() -> openEntityStream(entity));
+        return entity.getContentLength() >= 0
+                ? BodyPublishers.fromPublisher(streamPublisher, entity.getContentLength())
+                : streamPublisher;
+    }
+
+    private InputStream openEntityStream(final HttpEntity entity) {
+        try {
+            return entity.getContent();
+        } catch (final UnsupportedOperationException e) {
+            return pipeEntity(entity);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Entities that can only write themselves out are pumped through a pipe on the transport's executor
+    private InputStream pipeEntity(final HttpEntity entity) {
+        try {
+            final PipedInputStream inputStream = new PipedInputStream(0x10000);
+            final PipedOutputStream outputStream = new PipedOutputStream(inputStream);
+
+            executor.execute(() -> {
+                try (final PipedOutputStream out = outputStream) {
+                    entity.writeTo(out);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            return inputStream;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpResponse toHttpResponse(final java.net.http.HttpResponse<byte[]> jdkResponse) {
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(toStatusLine(jdkResponse));
+        copyHeaders(jdkResponse, httpResponse);
+
+        final byte[] body = jdkResponse.body();
+        final Header contentType = httpResponse.getFirstHeader("Content-Type");
+        if ((body != null && body.length > 0) || contentType != null) {
+            final ByteArrayEntity entity = new ByteArrayEntity(body == null ? new byte[0] : body);
+            entity.setContentType(contentType);
+            entity.setContentEncoding(httpResponse.getFirstHeader("Content-Encoding"));
+            httpResponse.setEntity(entity);
+        }
+
+        return httpResponse;
+    }
+
+    private static StatusLine toStatusLine(final java.net.http.HttpResponse<?> jdkResponse) {
+        final int statusCode = jdkResponse.statusCode();
+        return new BasicStatusLine(
+                jdkResponse.version() == Version.HTTP_2 ? HTTP_2 : HttpVersion.HTTP_1_1,
+                statusCode,
+                EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, Locale.ENGLISH));
+    }
+
+    private static void copyHeaders(final java.net.http.HttpResponse<?> jdkResponse, final HttpResponse httpResponse) {
+        for (final Map.Entry<String, List<String>> header : jdkResponse.headers().map().entrySet()) {
+            if (header.getKey().startsWith(":")) {
+                continue;
+            }
+            for (final String value : header.getValue()) {
+                httpResponse.addHeader(header.getKey(), value);
+            }
+        }
+    }
+
+    private static long getContentLength(final HttpResponse httpResponse) {
+        final Header contentLength = httpResponse.getFirstHeader("Content-Length");
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.getValue().trim());
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static class StreamingHttpResponse extends BasicHttpResponse implements CloseableHttpResponse {
+        private final InputStream body;
+
+        StreamingHttpResponse(final StatusLine statusLine, final InputStream body) {
+            super(statusLine);
+            this.body = body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+}
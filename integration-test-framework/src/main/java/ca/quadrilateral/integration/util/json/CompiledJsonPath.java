@@ -0,0 +1,141 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Pre-parsed path such as "items[12].name", created through JsonPath.compile.  Immutable and safe to share between
+ * threads; evaluation only follows references and allocates nothing.
+ */
+public final class CompiledJsonPath {
+    static final int NO_INDEX = -1;
+
+    private final String expression;
+    private final String[] names;
+    private final byte[][] encodedNames;
+    private final int[] indexes;
+
+    CompiledJsonPath(final String expression, final List<String> names, final List<Integer> indexes) {
+        this.expression = expression;
+        this.names = names.toArray(new String[0]);
+        this.encodedNames = new byte[this.names.length][];
+        this.indexes = new int[indexes.size()];
+        for (int i = 0; i < this.names.length; i++) {
+            this.encodedNames[i] = this.names[i] == null ? null : this.names[i].getBytes(StandardCharsets.UTF_8);
+            this.indexes[i] = indexes.get(i);
+        }
+    }
+
+    public int getLength() {
+        return names.length;
+    }
+
+    /**
+     * Member name of the step, or null if the step is an array index.
+     */
+    public String getName(final int step) {
+        return names[step];
+    }
+
+    /**
+     * Array index of the step, or -1 if the step is a member name.
+     */
+    public int getIndex(final int step) {
+        return indexes[step];
+    }
+
+    public List<String> getElements() {
+        final List<String> elements = new ArrayList<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            elements.add(names[i] != null ? names[i] : "[" + indexes[i] + "]");
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Value at this path within a json-simple document, or null if a member or element along the way is missing.
+     */
+    public Object evaluate(final Object document) {
+        return evaluate(document, false);
+    }
+
+    /**
+     * As evaluate(Object), except that an array index beyond the end of its array throws IndexOutOfBoundsException,
+     * as JsonPath.get always has.
+     */
+    Object evaluateWithinBounds(final Object document) {
+        return evaluate(document, true);
+    }
+
+    private Object evaluate(final Object document, final boolean indexesWithinBounds) {
+        Object current = document;
+        for (int i = 0; i < names.length && current != null; i++) {
+            if (names[i] == null) {
+                if (!(current instanceof JSONArray)) {
+                    throw notAnArray();
+                }
+                final JSONArray array = (JSONArray)current;
+                current = indexes[i] < array.size() || indexesWithinBounds ? array.get(indexes[i]) : null;
+            } else {
+                if (!(current instanceof JSONObject)) {
+                    throw notAnObject();
+                }
+                current = ((JSONObject)current).get(names[i]);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Tape entry at this path, or JsonTape.NOT_FOUND if a member or element along the way is missing or null, as
+     * evaluate(Object) yields null for both.
+     */
+    public int evaluate(final JsonTape tape) {
+        int entry = tape.root();
+        for (int i = 0; i < names.length && entry != JsonTape.NOT_FOUND; i++) {
+            if (tape.isNull(entry)) {
+                return JsonTape.NOT_FOUND;
+            }
+            if (names[i] == null) {
+                if (!tape.isArray(entry)) {
+                    throw notAnArray();
+                }
+                entry = tape.getElement(entry, indexes[i]);
+            } else {
+                if (!tape.isObject(entry)) {
+                    throw notAnObject();
+                }
+                entry = tape.getField(entry, names[i], encodedNames[i]);
+            }
+        }
+        return entry;
+    }
+
+    static RuntimeException notAnArray() {
+        return new RuntimeException("Path was an array index but element was not an array");
+    }
+
+    static RuntimeException notAnObject() {
+        return new RuntimeException("Path was an object property but element was not an object");
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof CompiledJsonPath && expression.equals(((CompiledJsonPath)other).expression);
+    }
+
+    @Override
+    public int hashCode() {
+        return expression.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -4,128 +4,192 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 
-import org.apache.commons.lang3.StringUtils;
-
+/**
+ * Indents compact JSON text as it is written through.  Each call is formatted into an internal buffer and handed to
+ * the wrapped writer in one write, with string content copied in runs rather than character by character.
+ *
+ * Not thread-safe; use one instance per document.
+ */
 public class JSONPrettyPrintWriter extends Writer {
-    private static final int INDENT_SPACES = 4;
-    
+    static final int INDENT_SPACES = 4;
+    private static final int INDENT_TABLE_LEVELS = 64;
+    private static final char[] NEWLINE_AND_INDENT = newlineAndIndentTable();
+    private static final int BUFFER_SIZE = 0x2000;
+
     private final Writer wrappedWriter;
-    
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferLength = 0;
+    private char[] stringChunk = new char[64];
+
     private int indentationLevel = 0;
     private boolean isInString = false;
-    private Character previousChar = null;
-    private boolean hasWrittenFirstChar = false;
-    
-    private char[] newlineAndIndent = new char[] { '[', '{' };
-    private char[] newline = new char[] { ',' };
-    private char[] deindent = new char[] { ']', '}' };
-    
+    private boolean isEscaped = false;
+
     public JSONPrettyPrintWriter(final Writer wrappedWriter) {
         this.wrappedWriter = wrappedWriter;
-    }   
-    
+    }
+
     public static void main(String[] args) throws Exception {
         final StringWriter stringWriter = new StringWriter();
-        
+
         final JSONPrettyPrintWriter writer = new JSONPrettyPrintWriter(stringWriter);
-        
-//        final String jsonText = "{\"id\": \"0001\",\"type\": \"donut\",\"name\": \"Cake\",\"ppu\": 0.55,\"batters\":{\"batter\":[{ \"id\": \"1001\", \"type\": \"Regular\" },{ \"id\": \"1002\", \"type\": \"Chocolate\" },{ \"id\": \"1003\", \"type\": \"Blueberry\" },   { \"id\": \"1004\", \"type\": \"Devil's Food\" }]},\"topping\":[{ \"id\": \"5001\", \"type\": \"None\" },{ \"id\": \"5002\", \"type\": \"Glazed\" },{ \"id\": \"5005\", \"type\": \"Sugar\" },{ \"id\": \"5007\", \"type\": \"Powdered Sugar\" },{ \"id\": \"5006\", \"type\": \"Chocolate \\\"with\\\" Sprinkles\" },{ \"id\": \"5003\", \"type\": \"Chocolate\" },{ \"id\": \"5004\", \"type\": \"Maple\" }]}";
-//        final String jsonText = "[\"Item 1\", \"Item 2\", \"Item 3\"]";
-        //final String jsonText = "[]";
-        final String jsonText = "[\"Item 1\", \"Item {[2]}\", \"Item 3\"]";
-        
+
+        final String jsonText = "[\"Item 1\", \"Item {[2]}\", \"Item \\\\\", \"Item 3\"]";
+
         writer.write(jsonText);
-        
+
         System.out.println(stringWriter.toString());
         writer.close();
-        
+
     }
-    
-    
+
+    static char[] newlineAndIndentTable() {
+        final char[] table = new char[1 + INDENT_TABLE_LEVELS * INDENT_SPACES];
+        table[0] = '\n';
+        for (int i = 1; i < table.length; i++) {
+            table[i] = ' ';
+        }
+        return table;
+    }
+
     @Override
-    public synchronized void write(char[] cbuf, int off, int len) throws IOException {
-        
-        for(int i = off; i < off + len; i++) {
-            final char currentChar = cbuf[i];
-            
-            
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
             if (isInString) {
-                if (currentChar == '"' && previousChar.charValue() != '\\') {
-                    isInString = false;
-                }
-                wrappedWriter.write(currentChar);
-            } else {
-                if (currentChar == '"') {
+                i = copyStringRun(cbuf, i, end);
+                continue;
+            }
+
+            final char currentChar = cbuf[i++];
+            switch (currentChar) {
+                case '"':
                     isInString = true;
-                    wrappedWriter.write(currentChar);
-                } else if (currentChar == ' ' || currentChar == '\t') {
-                    continue;
-                } else if (isCharNewlineAndIndent(currentChar) && !hasWrittenFirstChar) {
+                    bufferChar(currentChar);
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    break;
+                case '[':
+                case '{':
                     indentationLevel++;
-                    wrappedWriter.write(currentChar);
-                    wrappedWriter.write('\n');
-                    wrappedWriter.write(StringUtils.repeat(' ', indentationLevel * INDENT_SPACES));
-                    hasWrittenFirstChar = true;
-                } else if (isCharNewlineAndIndent(currentChar) && hasWrittenFirstChar) {
-                    indentationLevel++;       
-                    wrappedWriter.write(currentChar);
-                    wrappedWriter.write('\n');
-                    wrappedWriter.write(StringUtils.repeat(' ', indentationLevel * INDENT_SPACES));
-                } else if (isCharNewline(currentChar)) {
-                    wrappedWriter.write(currentChar);
-                    wrappedWriter.write('\n');
-                    wrappedWriter.write(StringUtils.repeat(' ', indentationLevel * INDENT_SPACES));
-                } else if (isCharDeindent(currentChar)) {
+                    bufferChar(currentChar);
+                    appendNewlineAndIndent();
+                    break;
+                case ',':
+                    bufferChar(currentChar);
+                    appendNewlineAndIndent();
+                    break;
+                case ']':
+                case '}':
                     indentationLevel--;
-                    wrappedWriter.write('\n');
-                    wrappedWriter.write(StringUtils.repeat(' ', indentationLevel * INDENT_SPACES));
-                    wrappedWriter.write(currentChar);
-                } else if (currentChar == ':') {
-                    wrappedWriter.write(currentChar);
-                    wrappedWriter.write(' ');
-                } else {
-                    wrappedWriter.write(currentChar);
-                }
+                    appendNewlineAndIndent();
+                    bufferChar(currentChar);
+                    break;
+                case ':':
+                    bufferChar(currentChar);
+                    bufferChar(' ');
+                    break;
+                default:
+                    bufferChar(currentChar);
             }
-            
-            previousChar = currentChar;
+        }
+        flushBuffer();
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        if (len > stringChunk.length && stringChunk.length < BUFFER_SIZE) {
+            stringChunk = new char[Math.min(len, BUFFER_SIZE)];
+        }
+
+        int position = off;
+        final int end = off + len;
+        while (position < end) {
+            final int count = Math.min(stringChunk.length, end - position);
+            str.getChars(position, position + count, stringChunk, 0);
+            write(stringChunk, 0, count);
+            position += count;
         }
     }
-    
-    private boolean isCharNewlineAndIndent(final char character) {
-        for (final char c : newlineAndIndent) {
-            if (character == c) {
-                return true;
+
+    @Override
+    public void write(final int c) throws IOException {
+        stringChunk[0] = (char)c;
+        write(stringChunk, 0, 1);
+    }
+
+    /**
+     * Copies string content up to and including the closing quote, or to the end of the input.
+     */
+    private int copyStringRun(final char[] cbuf, final int start, final int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            final char currentChar = cbuf[i];
+            if (isEscaped) {
+                isEscaped = false;
+            } else if (currentChar == '\\') {
+                isEscaped = true;
+            } else if (currentChar == '"') {
+                isInString = false;
+                i++;
+                break;
             }
+            i++;
         }
-        return false;
+        bufferChars(cbuf, start, i - start);
+        return i;
     }
-    
-    private boolean isCharDeindent(final char character) {
-        for (final char c : deindent) {
-            if (character == c) {
-                return true;
-            }   
+
+    private void appendNewlineAndIndent() throws IOException {
+        int remaining = 1 + Math.max(indentationLevel, 0) * INDENT_SPACES;
+        bufferChars(NEWLINE_AND_INDENT, 0, Math.min(remaining, NEWLINE_AND_INDENT.length));
+        remaining -= NEWLINE_AND_INDENT.length;
+        while (remaining > 0) {
+            final int count = Math.min(remaining, NEWLINE_AND_INDENT.length - 1);
+            bufferChars(NEWLINE_AND_INDENT, 1, count);
+            remaining -= count;
         }
-        return false;
     }
-    
-    private boolean isCharNewline(final char character) {
-        for (final char c : newline) {
-            if (character == c) {
-                return true;
-            }   
+
+    private void bufferChar(final char c) throws IOException {
+        if (bufferLength == buffer.length) {
+            flushBuffer();
+        }
+        buffer[bufferLength++] = c;
+    }
+
+    private void bufferChars(final char[] chars, final int off, final int len) throws IOException {
+        if (len > buffer.length - bufferLength) {
+            flushBuffer();
+            if (len > buffer.length) {
+                wrappedWriter.write(chars, off, len);
+                return;
+            }
+        }
+        System.arraycopy(chars, off, buffer, bufferLength, len);
+        bufferLength += len;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (bufferLength > 0) {
+            wrappedWriter.write(buffer, 0, bufferLength);
+            bufferLength = 0;
         }
-        return false;        
     }
 
     @Override
     public void flush() throws IOException {
+        flushBuffer();
         wrappedWriter.flush();
     }
 
     @Override
     public void close() throws IOException {
+        flushBuffer();
         wrappedWriter.close();
     }
 
@@ -0,0 +1,50 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the elements of a top-level UTF-8 JSON array one at a time from a stream, so arrays of any length are
+ * consumed in memory bounded by the largest element.  Elements are decoded into the types JSONValue.parse produces.
+ *
+ * Not thread-safe.
+ */
+public final class JsonArrayReader {
+    private final JsonStreamReader reader;
+    private boolean started = false;
+    private boolean finished = false;
+
+    public JsonArrayReader(final InputStream json) {
+        this.reader = new JsonStreamReader(json);
+    }
+
+    public boolean hasNext() throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (!started) {
+            if (reader.peek() != '[') {
+                throw new IllegalStateException("Expected a JSON array");
+            }
+            reader.consume();
+            started = true;
+        }
+
+        final int next = reader.peek();
+        if (next == ']') {
+            reader.consume();
+            finished = true;
+            return false;
+        } else if (next == -1) {
+            throw new IllegalStateException("Unexpected end of JSON array");
+        }
+        return true;
+    }
+
+    /**
+     * The next element; hasNext must have returned true.
+     */
+    public Object next() throws IOException {
+        return reader.readValue();
+    }
+}
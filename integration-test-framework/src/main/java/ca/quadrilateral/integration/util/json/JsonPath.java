@@ -3,86 +3,114 @@ package ca.quadrilateral.integration.util.json;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 
 
 public class JsonPath {
+    private static final int MAX_CACHED_PATHS = 1024;
+    private static final Map<String, CompiledJsonPath> compiledPaths = new ConcurrentHashMap<>();
+
     private final JSONWrapper wrapper;
     
-    private Pattern arrayIndexPattern = Pattern.compile("\\[([0-9])\\]");
-    
     public JsonPath(final String json) {
         this.wrapper = new JSONWrapper(json);
     }
+
+    /**
+     * Parses a path such as "items[12].name" or "[0].id".  Compiled paths are cached, so repeatedly compiling the
+     * same expression is a map lookup; once the cache is full further expressions are compiled without being cached.
+     */
+    public static CompiledJsonPath compile(final String path) {
+        final CompiledJsonPath cached = compiledPaths.get(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        final CompiledJsonPath compiled = parse(path);
+        if (compiledPaths.size() < MAX_CACHED_PATHS) {
+            compiledPaths.putIfAbsent(path, compiled);
+        }
+        return compiled;
+    }
     
-    public <T> T get(final String path, final Class<?> type) {
-        final List<String> pathElements = getPathElements(path);
-        
-        Object result = wrapper.getWrappedJson();
-        for (final String pathElement : pathElements) {
-            result = getItem(result, pathElement);
+    /**
+     * Compiles the paths into a set evaluated together in a single pass over a document.
+     */
+    public static JsonPathSet compileAll(final Collection<String> paths) {
+        final List<CompiledJsonPath> compiled = new ArrayList<>(paths.size());
+        for (final String path : paths) {
+            compiled.add(compile(path));
         }
-        
-        return (T)result;
+        return new JsonPathSet(compiled);
+    }
+
+    public static JsonPathSet compileAll(final String... paths) {
+        return compileAll(Arrays.asList(paths));
+    }
+    
+    /**
+     * Value at the path, or null if a member along the way is missing.  An array index beyond the end of its array
+     * throws IndexOutOfBoundsException.
+     */
+    public <T> T get(final String path, final Class<?> type) {
+        return (T)compile(path).evaluateWithinBounds(wrapper.getWrappedJson());
     }
     
     public Object getItem(final Object jsonObject, final String path) {
-        final Matcher matcher = arrayIndexPattern.matcher(path);
-        
-        if (matcher.matches()) {
-            if (JSONArray.class.isAssignableFrom(jsonObject.getClass())) {
-                int arrayIndex = Integer.parseInt(matcher.group(1));
-                return ((JSONArray)jsonObject).get(arrayIndex);
-            } else {
-                throw new RuntimeException("Path was an array index but element was not an array");
-            }   
-        } else {
-            if (JSONObject.class.isAssignableFrom(jsonObject.getClass())) {
-                return ((JSONObject)jsonObject).get(path);
-            } else {
-                throw new RuntimeException("Path was an object property but element was not an object");
-            }
-        }
+        return compile(path).evaluateWithinBounds(jsonObject);
     }
     
     public List<String> getPathElements(final String path) {
-        final List<String> pathElements = new ArrayList<>();
-        
-        String currentElement = "";
-        for (int i = 0; i < path.length(); i++) {
-            final char currentCharacter = path.charAt(i);
-            
+        return splitPath(path);
+    }
+
+    public static List<String> splitPath(final String path) {
+        return compile(path).getElements();
+    }
+
+    private static CompiledJsonPath parse(final String path) {
+        final List<String> names = new ArrayList<>();
+        final List<Integer> indexes = new ArrayList<>();
+
+        int position = 0;
+        while (position < path.length()) {
+            final char currentCharacter = path.charAt(position);
+
             if (currentCharacter == '.') {
-                if (StringUtils.isNotBlank(currentElement)) {
-                    pathElements.add(currentElement);
-                    currentElement = "";
-                }
+                position++;
             } else if (currentCharacter == '[') {
-                if (StringUtils.isNotBlank(currentElement)) {
-                    pathElements.add(currentElement);
-                    currentElement = "";
+                final int close = path.indexOf(']', position);
+                if (close == -1) {
+                    throw new IllegalArgumentException("Unterminated array index in JSON path '" + path + "'");
+                }
+                final String index = path.substring(position + 1, close).trim();
+                if (index.isEmpty() || !StringUtils.isNumeric(index)) {
+                    throw new IllegalArgumentException("Invalid array index '" + index + "' in JSON path '" + path + "'");
                 }
-                currentElement += currentCharacter;
-            } else if (currentCharacter == ']') {
-                currentElement += currentCharacter;
-                pathElements.add(currentElement);
-                currentElement = "";
+                names.add(null);
+                indexes.add(Integer.valueOf(index));
+                position = close + 1;
             } else {
-                currentElement += currentCharacter;
+                int end = position;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                final String name = path.substring(position, end);
+                if (StringUtils.isNotBlank(name)) {
+                    names.add(name);
+                    indexes.add(CompiledJsonPath.NO_INDEX);
+                }
+                position = end;
             }
         }
-        
-        if (StringUtils.isNotBlank(currentElement)) {
-            pathElements.add(currentElement);
-        }
-        
-        return pathElements;
+
+        return new CompiledJsonPath(path, names, indexes);
     }
     
     public static void main(String[] args) throws Exception {
@@ -0,0 +1,266 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * A group of paths evaluated together in one forward pass over encoded JSON.  The paths are merged into a trie, so
+ * each member or element is visited at most once however many paths pass through it; subtrees no path selects are
+ * skipped without being decoded, and reading stops as soon as every path has been resolved.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public final class JsonPathSet {
+    private final List<CompiledJsonPath> paths;
+    private final Node root = new Node();
+
+    JsonPathSet(final Collection<CompiledJsonPath> paths) {
+        this.paths = Collections.unmodifiableList(new ArrayList<>(paths));
+        for (final CompiledJsonPath path : this.paths) {
+            Node node = root;
+            for (int i = 0; i < path.getLength(); i++) {
+                node = node.getOrAddChild(path.getName(i), path.getIndex(i));
+            }
+            node.selectedBy.add(path);
+        }
+        root.freeze();
+    }
+
+    public List<CompiledJsonPath> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Values keyed by path expression, in the order the paths were given.  Paths that select nothing map to null.
+     */
+    public Map<String, Object> evaluate(final byte[] json, final Charset charset) {
+        final byte[] utf8 = JsonTape.isUtf8Compatible(charset)
+                ? json
+                : new String(json, charset).getBytes(StandardCharsets.UTF_8);
+        try {
+            return evaluate(new JsonStreamReader(utf8));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * As evaluate(byte[], Charset), reading the stream only as far as the last selected value.
+     */
+    public Map<String, Object> evaluate(final InputStream json, final Charset charset) throws IOException {
+        if (!JsonTape.isUtf8Compatible(charset)) {
+            return evaluate(IOUtils.toByteArray(json), charset);
+        }
+        return evaluate(new JsonStreamReader(json));
+    }
+
+    public Map<String, Object> evaluate(final Object document) {
+        final Map<String, Object> results = newResults();
+        for (final CompiledJsonPath path : paths) {
+            results.put(path.toString(), path.evaluate(document));
+        }
+        return results;
+    }
+
+    private Map<String, Object> evaluate(final JsonStreamReader reader) throws IOException {
+        final Map<String, Object> results = newResults();
+        if (root.pathCount > 0) {
+            new Evaluation(reader, results).visit(root);
+        }
+        return results;
+    }
+
+    private Map<String, Object> newResults() {
+        final Map<String, Object> results = new LinkedHashMap<>();
+        for (final CompiledJsonPath path : paths) {
+            results.put(path.toString(), null);
+        }
+        return results;
+    }
+
+    private final class Evaluation {
+        private final JsonStreamReader reader;
+        private final Map<String, Object> results;
+        private int unresolved;
+
+        Evaluation(final JsonStreamReader reader, final Map<String, Object> results) {
+            this.reader = reader;
+            this.results = results;
+            this.unresolved = root.pathCount;
+        }
+
+        /**
+         * Reads the next value on behalf of the node, resolving every path beneath it.  Once no paths remain
+         * unresolved it returns immediately, leaving the rest of the input unread.
+         */
+        void visit(final Node node) throws IOException {
+            if (!node.selectedBy.isEmpty()) {
+                final Object value = reader.readValue();
+                for (final CompiledJsonPath path : node.selectedBy) {
+                    results.put(path.toString(), value);
+                }
+                resolveDescendants(node, value);
+                unresolved -= node.pathCount;
+                return;
+            }
+
+            int resolvedByChildren = 0;
+            final int type = reader.peek();
+            if (type != 'n') {
+                checkType(node, type == '{', type == '[');
+            }
+            if (type == '{' && node.nameChildren.length > 0) {
+                reader.consume();
+                while (reader.peek() != '}') {
+                    reader.readStringBytes();
+                    final Node child = node.getNameChild(reader);
+                    if (child == null) {
+                        reader.skipValue();
+                    } else {
+                        visit(child);
+                        resolvedByChildren += child.pathCount;
+                        if (unresolved <= 0) {
+                            return;
+                        }
+                    }
+                }
+                reader.consume();
+            } else if (type == '[' && node.indexChildren.length > 0) {
+                reader.consume();
+                int index = 0;
+                while (reader.peek() != ']') {
+                    final Node child = node.getIndexChild(index++);
+                    if (child == null) {
+                        reader.skipValue();
+                    } else {
+                        visit(child);
+                        resolvedByChildren += child.pathCount;
+                        if (unresolved <= 0) {
+                            return;
+                        }
+                    }
+                }
+                reader.consume();
+            } else {
+                reader.skipValue();
+            }
+
+            // Paths beneath members or elements that were not present resolve to null
+            unresolved -= node.pathCount - resolvedByChildren;
+        }
+
+        private void resolveDescendants(final Node node, final Object value) {
+            if (value != null) {
+                checkType(node, value instanceof JSONObject, value instanceof JSONArray);
+            }
+            for (final Node child : node.nameChildren) {
+                final Object childValue = value instanceof JSONObject ? ((JSONObject)value).get(child.name) : null;
+                resolve(child, childValue);
+            }
+            for (final Node child : node.indexChildren) {
+                final Object childValue = value instanceof JSONArray && child.index < ((JSONArray)value).size()
+                        ? ((JSONArray)value).get(child.index)
+                        : null;
+                resolve(child, childValue);
+            }
+        }
+
+        /**
+         * Fails as CompiledJsonPath.evaluate does when a path steps into a value that is not an object or array.
+         */
+        private void checkType(final Node node, final boolean isObject, final boolean isArray) {
+            if (node.nameChildren.length > 0 && !isObject) {
+                throw CompiledJsonPath.notAnObject();
+            }
+            if (node.indexChildren.length > 0 && !isArray) {
+                throw CompiledJsonPath.notAnArray();
+            }
+        }
+
+        private void resolve(final Node node, final Object value) {
+            for (final CompiledJsonPath path : node.selectedBy) {
+                results.put(path.toString(), value);
+            }
+            resolveDescendants(node, value);
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final String name;
+        private final byte[] encodedName;
+        private final int index;
+        private final List<CompiledJsonPath> selectedBy = new ArrayList<>(1);
+        private List<Node> children = new ArrayList<>();
+        private Node[] nameChildren = NO_CHILDREN;
+        private Node[] indexChildren = NO_CHILDREN;
+        private int pathCount;
+
+        Node() {
+            this(null, CompiledJsonPath.NO_INDEX);
+        }
+
+        Node(final String name, final int index) {
+            this.name = name;
+            this.encodedName = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+            this.index = index;
+        }
+
+        Node getOrAddChild(final String childName, final int childIndex) {
+            for (final Node child : children) {
+                if (childName == null ? child.name == null && child.index == childIndex : childName.equals(child.name)) {
+                    return child;
+                }
+            }
+            final Node child = new Node(childName, childIndex);
+            children.add(child);
+            return child;
+        }
+
+        Node getNameChild(final JsonStreamReader reader) {
+            for (final Node child : nameChildren) {
+                if (reader.scratchEquals(child.encodedName)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        Node getIndexChild(final int childIndex) {
+            for (final Node child : indexChildren) {
+                if (child.index == childIndex) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        int freeze() {
+            final List<Node> names = new ArrayList<>();
+            final List<Node> indexes = new ArrayList<>();
+            pathCount = selectedBy.size();
+            for (final Node child : children) {
+                pathCount += child.freeze();
+                (child.name != null ? names : indexes).add(child);
+            }
+            nameChildren = names.toArray(NO_CHILDREN);
+            indexChildren = indexes.toArray(NO_CHILDREN);
+            children = null;
+            return pathCount;
+        }
+    }
+}
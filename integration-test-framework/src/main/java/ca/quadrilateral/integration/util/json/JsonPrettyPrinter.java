@@ -0,0 +1,183 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Indents encoded JSON directly from its bytes, producing the same layout as JSONPrettyPrintWriter without decoding
+ * the text or building a document.  Structural bytes are ASCII in UTF-8, so string content is copied through in
+ * runs untouched.
+ */
+public final class JsonPrettyPrinter {
+    private static final int INDENT_TABLE_LEVELS = 64;
+    private static final byte[] NEWLINE_AND_INDENT = newlineAndIndentTable();
+    private static final int STREAM_BUFFER_SIZE = 0x2000;
+
+    private final byte[] json;
+    private final int end;
+    private final OutputStream outputStream;
+    private final int maxLength;
+
+    private byte[] buffer;
+    private int bufferLength = 0;
+    private int indentationLevel = 0;
+
+    private JsonPrettyPrinter(final byte[] json, final int offset, final int length, final OutputStream outputStream, final int maxLength) {
+        this.json = json;
+        this.end = offset + length;
+        this.outputStream = outputStream;
+        this.maxLength = maxLength;
+        this.buffer = new byte[outputStream != null ? STREAM_BUFFER_SIZE : (int)Math.min(Math.max(length * 2L, 16), maxLength)];
+    }
+
+    /**
+     * Writes the indented form of UTF-8 encoded JSON to the stream.
+     */
+    public static void prettyPrint(final byte[] json, final int offset, final int length, final OutputStream outputStream) throws IOException {
+        final JsonPrettyPrinter printer = new JsonPrettyPrinter(json, offset, length, outputStream, Integer.MAX_VALUE);
+        printer.print(offset);
+        printer.flushBuffer();
+    }
+
+    public static String toPrettyString(final byte[] json, final Charset charset) {
+        return toPrettyString(json, charset, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Indented form of the encoded JSON, stopping once roughly maxBytes of UTF-8 output have been produced; the
+     * result may end part way through a character when it is cut short.
+     */
+    public static String toPrettyString(final byte[] json, final Charset charset, final int maxBytes) {
+        final byte[] utf8 = JsonTape.isUtf8Compatible(charset)
+                ? json
+                : new String(json, charset).getBytes(StandardCharsets.UTF_8);
+
+        final JsonPrettyPrinter printer = new JsonPrettyPrinter(utf8, 0, utf8.length, null, maxBytes);
+        try {
+            printer.print(0);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(printer.buffer, 0, Math.min(printer.bufferLength, maxBytes), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] newlineAndIndentTable() {
+        final byte[] table = new byte[1 + INDENT_TABLE_LEVELS * JSONPrettyPrintWriter.INDENT_SPACES];
+        Arrays.fill(table, (byte)' ');
+        table[0] = '\n';
+        return table;
+    }
+
+    private void print(final int offset) throws IOException {
+        int i = offset;
+        while (i < end && bufferLength < maxLength) {
+            final byte b = json[i++];
+            switch (b) {
+                case '"':
+                    i = copyString(i - 1);
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    break;
+                case '[':
+                case '{':
+                    indentationLevel++;
+                    append(b);
+                    appendNewlineAndIndent();
+                    break;
+                case ',':
+                    append(b);
+                    appendNewlineAndIndent();
+                    break;
+                case ']':
+                case '}':
+                    indentationLevel--;
+                    appendNewlineAndIndent();
+                    append(b);
+                    break;
+                case ':':
+                    append(b);
+                    append((byte)' ');
+                    break;
+                default:
+                    append(b);
+            }
+        }
+    }
+
+    /**
+     * Copies the string starting at the opening quote through its closing quote, returning the offset after it.
+     */
+    private int copyString(final int start) throws IOException {
+        int i = start + 1;
+        while (i < end) {
+            final byte b = json[i];
+            if (b == '\\') {
+                i += 2;
+            } else if (b == '"') {
+                i++;
+                break;
+            } else {
+                i++;
+            }
+        }
+        i = Math.min(i, end);
+        append(json, start, i - start);
+        return i;
+    }
+
+    private void appendNewlineAndIndent() throws IOException {
+        int remaining = 1 + Math.max(indentationLevel, 0) * JSONPrettyPrintWriter.INDENT_SPACES;
+        append(NEWLINE_AND_INDENT, 0, Math.min(remaining, NEWLINE_AND_INDENT.length));
+        remaining -= NEWLINE_AND_INDENT.length;
+        while (remaining > 0) {
+            final int count = Math.min(remaining, NEWLINE_AND_INDENT.length - 1);
+            append(NEWLINE_AND_INDENT, 1, count);
+            remaining -= count;
+        }
+    }
+
+    private void append(final byte b) throws IOException {
+        if (bufferLength == buffer.length) {
+            makeRoom(1);
+        }
+        buffer[bufferLength++] = b;
+    }
+
+    private void append(final byte[] bytes, final int off, final int len) throws IOException {
+        if (len > buffer.length - bufferLength) {
+            if (outputStream != null) {
+                flushBuffer();
+                if (len > buffer.length) {
+                    outputStream.write(bytes, off, len);
+                    return;
+                }
+            } else {
+                makeRoom(len);
+            }
+        }
+        System.arraycopy(bytes, off, buffer, bufferLength, len);
+        bufferLength += len;
+    }
+
+    private void makeRoom(final int len) throws IOException {
+        if (outputStream != null) {
+            flushBuffer();
+        } else {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, bufferLength + len));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (outputStream != null && bufferLength > 0) {
+            outputStream.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Forward-only reader over UTF-8 JSON, either an in-memory array or a stream read through a fixed buffer.  Values
+ * that are not wanted are skipped by tracking only string and nesting state, without decoding them.
+ */
+final class JsonStreamReader {
+    private static final int STREAM_BUFFER_SIZE = 0x2000;
+
+    private final InputStream inputStream;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    private byte[] scratch = new byte[64];
+    private int scratchLength;
+    private int pendingHighSurrogate = -1;
+
+    JsonStreamReader(final byte[] bytes) {
+        this.inputStream = null;
+        this.buffer = bytes;
+        this.position = 0;
+        this.limit = bytes.length;
+    }
+
+    JsonStreamReader(final InputStream inputStream) {
+        this.inputStream = inputStream;
+        this.buffer = new byte[STREAM_BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * Next significant byte without consuming it; commas and colons are treated as whitespace.  Returns -1 at the
+     * end of the input.
+     */
+    int peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            final byte b = buffer[position];
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == ',' || b == ':') {
+                position++;
+            } else {
+                return b;
+            }
+        }
+    }
+
+    void consume() {
+        position++;
+    }
+
+    private byte next() throws IOException {
+        if (position == limit && !fill()) {
+            throw invalid("Unexpected end of JSON");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        if (inputStream == null) {
+            return false;
+        }
+        final int read = inputStream.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Reads a string's unescaped UTF-8 bytes into the scratch buffer; the opening quote must be next.
+     */
+    void readStringBytes() throws IOException {
+        expect('"');
+        scratchLength = 0;
+        while (true) {
+            final byte b = next();
+            if (b == '"') {
+                return;
+            } else if (b != '\\') {
+                appendScratch(b);
+            } else {
+                final byte escaped = next();
+                switch (escaped) {
+                    case 'b':
+                        appendScratch((byte)'\b');
+                        break;
+                    case 'f':
+                        appendScratch((byte)'\f');
+                        break;
+                    case 'n':
+                        appendScratch((byte)'\n');
+                        break;
+                    case 'r':
+                        appendScratch((byte)'\r');
+                        break;
+                    case 't':
+                        appendScratch((byte)'\t');
+                        break;
+                    case 'u':
+                        appendCodeUnit(readHex());
+                        break;
+                    default:
+                        appendScratch(escaped);
+                }
+            }
+        }
+    }
+
+    boolean scratchEquals(final byte[] value) {
+        if (value.length != scratchLength) {
+            return false;
+        }
+        for (int i = 0; i < scratchLength; i++) {
+            if (scratch[i] != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String readString() throws IOException {
+        readStringBytes();
+        return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next value into the json-simple types JSONValue.parse produces.
+     */
+    Object readValue() throws IOException {
+        final int b = peek();
+        switch (b) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                readLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("null");
+                return null;
+            case -1:
+                throw invalid("Unexpected end of JSON");
+            default:
+                return readNumber();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject readObject() throws IOException {
+        consume();
+        final JSONObject object = new JSONObject();
+        while (peek() != '}') {
+            final String key = readString();
+            object.put(key, readValue());
+        }
+        consume();
+        return object;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONArray readArray() throws IOException {
+        consume();
+        final JSONArray array = new JSONArray();
+        while (peek() != ']') {
+            array.add(readValue());
+        }
+        consume();
+        return array;
+    }
+
+    /**
+     * Skips the next value, including any nested content, without decoding it.
+     */
+    void skipValue() throws IOException {
+        final int first = peek();
+        if (first == -1) {
+            throw invalid("Unexpected end of JSON");
+        }
+        if (first != '{' && first != '[' && first != '"') {
+            while (position < limit || fill()) {
+                final byte b = buffer[position];
+                if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    return;
+                }
+                position++;
+            }
+            return;
+        }
+
+        int depth = 0;
+        boolean inString = false;
+        do {
+            if (position == limit && !fill()) {
+                throw invalid("Unexpected end of JSON");
+            }
+            final byte b = buffer[position++];
+            if (inString) {
+                if (b == '\\') {
+                    next();
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            }
+        } while (depth > 0 || inString);
+    }
+
+    private Object readNumber() throws IOException {
+        scratchLength = 0;
+        boolean isDecimal = false;
+        while (position < limit || fill()) {
+            final byte b = buffer[position];
+            if (!JsonTape.isNumberByte(b)) {
+                break;
+            }
+            if (b == '.' || b == 'e' || b == 'E') {
+                isDecimal = true;
+            }
+            appendScratch(b);
+            position++;
+        }
+        if (scratchLength == 0) {
+            throw invalid("Unexpected character '" + (char)buffer[position] + "'");
+        }
+
+        final String text = new String(scratch, 0, scratchLength, StandardCharsets.US_ASCII);
+        if (isDecimal) {
+            return Double.valueOf(text);
+        }
+        return Long.valueOf(text);
+    }
+
+    private void readLiteral(final String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i)) {
+                throw invalid("Invalid literal");
+            }
+        }
+    }
+
+    private void expect(final char expected) throws IOException {
+        if (peek() != expected) {
+            throw invalid("Expected '" + expected + "'");
+        }
+        consume();
+    }
+
+    private int readHex() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 4) | Character.digit(next(), 16);
+        }
+        return value;
+    }
+
+    private void appendCodeUnit(final int codeUnit) {
+        if (Character.isHighSurrogate((char)codeUnit)) {
+            pendingHighSurrogate = codeUnit;
+            return;
+        }
+
+        int codePoint = codeUnit;
+        if (pendingHighSurrogate != -1 && Character.isLowSurrogate((char)codeUnit)) {
+            codePoint = Character.toCodePoint((char)pendingHighSurrogate, (char)codeUnit);
+        }
+        pendingHighSurrogate = -1;
+
+        if (codePoint < 0x80) {
+            appendScratch((byte)codePoint);
+        } else if (codePoint < 0x800) {
+            appendScratch((byte)(0xC0 | (codePoint >> 6)));
+            appendScratch((byte)(0x80 | (codePoint & 0x3F)));
+        } else if (codePoint < 0x10000) {
+            appendScratch((byte)(0xE0 | (codePoint >> 12)));
+            appendScratch((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+            appendScratch((byte)(0x80 | (codePoint & 0x3F)));
+        } else {
+            appendScratch((byte)(0xF0 | (codePoint >> 18)));
+            appendScratch((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+            appendScratch((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+            appendScratch((byte)(0x80 | (codePoint & 0x3F)));
+        }
+    }
+
+    private void appendScratch(final byte b) {
+        if (scratchLength == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratchLength * 2);
+        }
+        scratch[scratchLength++] = b;
+    }
+
+    private IllegalStateException invalid(final String message) {
+        return new IllegalStateException(message + " in JSON");
+    }
+}
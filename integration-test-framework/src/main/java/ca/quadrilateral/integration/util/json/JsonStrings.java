@@ -0,0 +1,63 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+final class JsonStrings {
+    private JsonStrings() {}
+
+    /**
+     * Decodes the UTF-8 string content starting at the given offset, just past the opening quote, up to the closing
+     * quote.
+     */
+    static String unescape(final byte[] bytes, final int start) {
+        final StringBuilder builder = new StringBuilder();
+        final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        int position = start;
+        while (bytes[position] != '"') {
+            final byte b = bytes[position];
+            if (b != '\\') {
+                pending.write(b);
+                position++;
+                continue;
+            }
+
+            flush(pending, builder);
+            final byte escaped = bytes[position + 1];
+            switch (escaped) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    builder.append((char)Integer.parseInt(new String(bytes, position + 2, 4, StandardCharsets.US_ASCII), 16));
+                    position += 4;
+                    break;
+                default:
+                    builder.append((char)escaped);
+            }
+            position += 2;
+        }
+        flush(pending, builder);
+        return builder.toString();
+    }
+
+    private static void flush(final ByteArrayOutputStream pending, final StringBuilder builder) {
+        if (pending.size() > 0) {
+            builder.append(new String(pending.toByteArray(), StandardCharsets.UTF_8));
+            pending.reset();
+        }
+    }
+}
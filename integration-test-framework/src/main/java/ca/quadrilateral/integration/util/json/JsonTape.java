@@ -0,0 +1,477 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Structural index over raw JSON bytes.  Each value is one entry on the tape holding its type and byte offset;
+ * containers additionally point at the entry following their last child so whole subtrees can be skipped without
+ * reading them.  Object members are laid out as alternating key and value entries.  Values are only decoded when
+ * they are materialized, and materialize produces the same json-simple types JSONValue.parse would.
+ *
+ * Instances are immutable once built and may be shared between threads.
+ */
+public final class JsonTape {
+    public static final int NOT_FOUND = -1;
+
+    private static final int TYPE_SHIFT = 56;
+    private static final long ESCAPED_FLAG = 1L << 48;
+    private static final long PAYLOAD_MASK = (1L << 48) - 1;
+
+    private static final byte OBJECT = '{';
+    private static final byte ARRAY = '[';
+    private static final byte STRING = '"';
+    private static final byte NUMBER = '0';
+    private static final byte TRUE = 't';
+    private static final byte FALSE = 'f';
+    private static final byte NULL = 'n';
+
+    private static final int INDEXED_ARRAY_THRESHOLD = 16;
+
+    private final byte[] bytes;
+    private final long[] tape;
+    private final int length;
+    private final Map<Integer, int[]> arrayElementIndexes = new ConcurrentHashMap<>();
+
+    private JsonTape(final byte[] bytes, final long[] tape, final int length) {
+        this.bytes = bytes;
+        this.tape = tape;
+        this.length = length;
+    }
+
+    /**
+     * Indexes the encoded document.  Content in charsets other than UTF-8 and US-ASCII is transcoded to UTF-8 first.
+     */
+    public static JsonTape index(final byte[] encoded, final Charset charset) {
+        final byte[] utf8 = isUtf8Compatible(charset)
+                ? encoded
+                : new String(encoded, charset).getBytes(StandardCharsets.UTF_8);
+        return new Indexer(utf8).index();
+    }
+
+    static boolean isUtf8Compatible(final Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    public int root() {
+        return 0;
+    }
+
+    public boolean isNull(final int entry) {
+        return type(entry) == NULL;
+    }
+
+    public boolean isObject(final int entry) {
+        return type(entry) == OBJECT;
+    }
+
+    public boolean isArray(final int entry) {
+        return type(entry) == ARRAY;
+    }
+
+    /**
+     * Entry following the given value, skipping its children if it is a container.
+     */
+    public int next(final int entry) {
+        final byte type = type(entry);
+        return type == OBJECT || type == ARRAY ? (int)(tape[entry] & PAYLOAD_MASK) : entry + 1;
+    }
+
+    public int getSize(final int container) {
+        final int end = next(container);
+        int count = 0;
+        for (int child = container + 1; child < end; child = next(child)) {
+            count++;
+        }
+        return isObject(container) ? count / 2 : count;
+    }
+
+    /**
+     * Value entry of the named member, or NOT_FOUND if the entry is not an object or has no such member.
+     */
+    public int getField(final int object, final String name) {
+        return getField(object, name, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * As getField(int, String), with the name's UTF-8 encoding supplied by the caller.
+     */
+    public int getField(final int object, final String name, final byte[] nameBytes) {
+        if (!isObject(object)) {
+            return NOT_FOUND;
+        }
+
+        final int end = next(object);
+        for (int key = object + 1; key < end; key = next(key + 1)) {
+            if (keyEquals(key, name, nameBytes)) {
+                return key + 1;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Entry of the array element at the index, or NOT_FOUND if the entry is not an array or the index is out of range.
+     */
+    public int getElement(final int array, final int index) {
+        if (!isArray(array) || index < 0) {
+            return NOT_FOUND;
+        }
+
+        if (index >= INDEXED_ARRAY_THRESHOLD) {
+            final int[] elements = arrayElementIndexes.computeIfAbsent(array, this::indexElements);
+            return index < elements.length ? elements[index] : NOT_FOUND;
+        }
+
+        final int end = next(array);
+        int element = array + 1;
+        for (int i = 0; i < index && element < end; i++) {
+            element = next(element);
+        }
+        return element < end ? element : NOT_FOUND;
+    }
+
+    private int[] indexElements(final int array) {
+        final int end = next(array);
+        int[] elements = new int[INDEXED_ARRAY_THRESHOLD * 2];
+        int count = 0;
+        for (int element = array + 1; element < end; element = next(element)) {
+            if (count == elements.length) {
+                elements = Arrays.copyOf(elements, count * 2);
+            }
+            elements[count++] = element;
+        }
+        return Arrays.copyOf(elements, count);
+    }
+
+    /**
+     * Decodes the value and, for containers, everything beneath it into JSONObject, JSONArray, String, Long, Double,
+     * Boolean or null.
+     */
+    public Object materialize(final int entry) {
+        switch (type(entry)) {
+            case OBJECT:
+                return materializeObject(entry);
+            case ARRAY:
+                return materializeArray(entry);
+            case STRING:
+                return decodeString(entry);
+            case NUMBER:
+                return decodeNumber(entry);
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject materializeObject(final int entry) {
+        final JSONObject object = new JSONObject();
+        final int end = next(entry);
+        for (int key = entry + 1; key < end; key = next(key + 1)) {
+            object.put(decodeString(key), materialize(key + 1));
+        }
+        return object;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONArray materializeArray(final int entry) {
+        final JSONArray array = new JSONArray();
+        final int end = next(entry);
+        for (int element = entry + 1; element < end; element = next(element)) {
+            array.add(materialize(element));
+        }
+        return array;
+    }
+
+    public int getEntryCount() {
+        return length;
+    }
+
+    private byte type(final int entry) {
+        if (entry < 0 || entry >= length) {
+            throw new IndexOutOfBoundsException("No tape entry " + entry);
+        }
+        return (byte)(tape[entry] >>> TYPE_SHIFT);
+    }
+
+    private int offset(final int entry) {
+        return (int)(tape[entry] & PAYLOAD_MASK);
+    }
+
+    private boolean keyEquals(final int key, final String name, final byte[] nameBytes) {
+        if ((tape[key] & ESCAPED_FLAG) != 0) {
+            return decodeString(key).equals(name);
+        }
+
+        final int start = offset(key) + 1;
+        if (start + nameBytes.length >= bytes.length || bytes[start + nameBytes.length] != '"') {
+            return false;
+        }
+        for (int i = 0; i < nameBytes.length; i++) {
+            if (bytes[start + i] != nameBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decodeString(final int entry) {
+        final int start = offset(entry) + 1;
+        int end = start;
+        if ((tape[entry] & ESCAPED_FLAG) == 0) {
+            while (bytes[end] != '"') {
+                end++;
+            }
+            return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+        return JsonStrings.unescape(bytes, start);
+    }
+
+    private Object decodeNumber(final int entry) {
+        final int start = offset(entry);
+        int end = start;
+        boolean isDecimal = false;
+        while (end < bytes.length && isNumberByte(bytes[end])) {
+            if (bytes[end] == '.' || bytes[end] == 'e' || bytes[end] == 'E') {
+                isDecimal = true;
+            }
+            end++;
+        }
+
+        final String text = new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+        if (isDecimal) {
+            return Double.valueOf(text);
+        }
+        if (end - start < 19) {
+            return parseSmallLong(start, end);
+        }
+        return Long.valueOf(text);
+    }
+
+    private Long parseSmallLong(final int start, final int end) {
+        final boolean negative = bytes[start] == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    static boolean isNumberByte(final byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+
+    /**
+     * Single pass over the bytes that records entries and checks the structure: which token may come next is
+     * tracked in expected, so misplaced separators, keys without values and trailing data are rejected.
+     */
+    private static final class Indexer {
+        private static final int EXPECT_VALUE = 0;
+        private static final int EXPECT_VALUE_OR_CLOSE = 1;
+        private static final int EXPECT_KEY = 2;
+        private static final int EXPECT_KEY_OR_CLOSE = 3;
+        private static final int EXPECT_COLON = 4;
+        private static final int EXPECT_COMMA_OR_CLOSE = 5;
+        private static final int EXPECT_END = 6;
+
+        private final byte[] bytes;
+        private long[] tape;
+        private int length = 0;
+        private int[] openContainers = new int[32];
+        private int depth = 0;
+        private int expected = EXPECT_VALUE;
+
+        Indexer(final byte[] bytes) {
+            this.bytes = bytes;
+            this.tape = new long[Math.max(16, bytes.length / 16)];
+        }
+
+        JsonTape index() {
+            int position = 0;
+            while (position < bytes.length) {
+                final byte b = bytes[position];
+                switch (b) {
+                    case ' ':
+                    case '\t':
+                    case '\r':
+                    case '\n':
+                        position++;
+                        break;
+                    case ',':
+                        if (expected != EXPECT_COMMA_OR_CLOSE) {
+                            throw unexpected(b, position);
+                        }
+                        expected = isInObject() ? EXPECT_KEY : EXPECT_VALUE;
+                        position++;
+                        break;
+                    case ':':
+                        if (expected != EXPECT_COLON) {
+                            throw unexpected(b, position);
+                        }
+                        expected = EXPECT_VALUE;
+                        position++;
+                        break;
+                    case '{':
+                    case '[':
+                        beforeValue(b, position);
+                        openContainer(b, position);
+                        expected = b == '{' ? EXPECT_KEY_OR_CLOSE : EXPECT_VALUE_OR_CLOSE;
+                        position++;
+                        break;
+                    case '}':
+                    case ']':
+                        if (expected != EXPECT_COMMA_OR_CLOSE
+                                && expected != (b == '}' ? EXPECT_KEY_OR_CLOSE : EXPECT_VALUE_OR_CLOSE)) {
+                            throw unexpected(b, position);
+                        }
+                        closeContainer(b, position);
+                        afterValue();
+                        position++;
+                        break;
+                    case '"':
+                        if (expected == EXPECT_KEY || expected == EXPECT_KEY_OR_CLOSE) {
+                            position = indexString(position);
+                            expected = EXPECT_COLON;
+                        } else {
+                            beforeValue(b, position);
+                            position = indexString(position);
+                            afterValue();
+                        }
+                        break;
+                    case 't':
+                        beforeValue(b, position);
+                        position = indexLiteral(TRUE, "true", position);
+                        afterValue();
+                        break;
+                    case 'f':
+                        beforeValue(b, position);
+                        position = indexLiteral(FALSE, "false", position);
+                        afterValue();
+                        break;
+                    case 'n':
+                        beforeValue(b, position);
+                        position = indexLiteral(NULL, "null", position);
+                        afterValue();
+                        break;
+                    default:
+                        if (b == '-' || (b >= '0' && b <= '9')) {
+                            beforeValue(b, position);
+                            emit(NUMBER, position);
+                            while (position < bytes.length && isNumberByte(bytes[position])) {
+                                position++;
+                            }
+                            afterValue();
+                        } else {
+                            throw invalid("Unexpected character '" + (char)b + "'", position);
+                        }
+                }
+            }
+
+            if (depth != 0) {
+                throw invalid("Unterminated container", bytes.length);
+            }
+            if (length == 0) {
+                throw invalid("No JSON value", 0);
+            }
+            if (expected != EXPECT_END) {
+                throw invalid("Unexpected end", bytes.length);
+            }
+            return new JsonTape(bytes, tape, length);
+        }
+
+        private void beforeValue(final byte b, final int position) {
+            if (expected != EXPECT_VALUE && expected != EXPECT_VALUE_OR_CLOSE) {
+                throw expected == EXPECT_END
+                        ? invalid("Unexpected data after JSON value", position)
+                        : unexpected(b, position);
+            }
+        }
+
+        private void afterValue() {
+            expected = depth == 0 ? EXPECT_END : EXPECT_COMMA_OR_CLOSE;
+        }
+
+        private boolean isInObject() {
+            return (byte)(tape[openContainers[depth - 1]] >>> TYPE_SHIFT) == OBJECT;
+        }
+
+        private void openContainer(final byte type, final int position) {
+            if (depth == openContainers.length) {
+                openContainers = Arrays.copyOf(openContainers, depth * 2);
+            }
+            openContainers[depth++] = length;
+            emit(type, position);
+        }
+
+        private void closeContainer(final byte closer, final int position) {
+            if (depth == 0) {
+                throw invalid("Unbalanced '" + (char)closer + "'", position);
+            }
+            final int open = openContainers[--depth];
+            final byte openType = (byte)(tape[open] >>> TYPE_SHIFT);
+            if ((openType == OBJECT) != (closer == '}')) {
+                throw invalid("Mismatched '" + (char)closer + "'", position);
+            }
+            tape[open] = ((long)openType << TYPE_SHIFT) | length;
+        }
+
+        private int indexString(final int start) {
+            boolean escaped = false;
+            int position = start + 1;
+            while (position < bytes.length) {
+                final byte b = bytes[position];
+                if (b == '\\') {
+                    escaped = true;
+                    position += 2;
+                } else if (b == '"') {
+                    emit(STRING, start);
+                    if (escaped) {
+                        tape[length - 1] |= ESCAPED_FLAG;
+                    }
+                    return position + 1;
+                } else {
+                    position++;
+                }
+            }
+            throw invalid("Unterminated string", start);
+        }
+
+        private int indexLiteral(final byte type, final String literal, final int position) {
+            if (position + literal.length() > bytes.length) {
+                throw invalid("Invalid literal", position);
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (bytes[position + i] != literal.charAt(i)) {
+                    throw invalid("Invalid literal", position);
+                }
+            }
+            emit(type, position);
+            return position + literal.length();
+        }
+
+        private void emit(final byte type, final int position) {
+            if (length == tape.length) {
+                tape = Arrays.copyOf(tape, length * 2);
+            }
+            tape[length++] = ((long)type << TYPE_SHIFT) | position;
+        }
+
+        private IllegalStateException unexpected(final byte b, final int position) {
+            return invalid("Unexpected '" + (char)b + "'", position);
+        }
+
+        private IllegalStateException invalid(final String message, final int position) {
+            return new IllegalStateException(message + " in JSON at offset " + position);
+        }
+    }
+}
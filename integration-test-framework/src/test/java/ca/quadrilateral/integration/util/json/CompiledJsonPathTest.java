@@ -0,0 +1,70 @@
+package ca.quadrilateral.integration.util.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+
+import org.json.simple.JSONValue;
+import org.junit.Test;
+
+public class CompiledJsonPathTest {
+    private static final String[] DOCUMENTS = {
+        "[[null],1,2.5,null]",
+        "{\"a\":null,\"b\":{\"c\":[1,{\"d\":\"x\"}]},\"e\":[]}",
+        "{\"a\":{\"b\":null},\"c\":[null,[true,false]]}",
+        "null",
+        "[]"
+    };
+
+    private static final String[] PATHS = {
+        "[0]", "[0][0]", "[0][0].k", "[3].k4", "[3][0]", "[9]", "[9].k",
+        "a", "a.b", "a.b.c", "a[0]", "b.c[1].d", "b.c[5].d", "b.c[0].d", "c[0].k", "c[1][1]", "e[0]", "e[0].k"
+    };
+
+    @Test
+    public void tapeEvaluationMatchesDocumentEvaluation() {
+        for (final String document : DOCUMENTS) {
+            for (final String path : PATHS) {
+                final CompiledJsonPath compiledPath = JsonPath.compile(path);
+                final String expected = describe(() -> compiledPath.evaluate(JSONValue.parse(document)));
+                final String actual = describe(() -> {
+                    final JsonTape tape = JsonTape.index(document.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+                    final int entry = compiledPath.evaluate(tape);
+                    return entry == JsonTape.NOT_FOUND ? null : tape.materialize(entry);
+                });
+                assertEquals(path + " in " + document, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void nullAlongThePathIsNotFound() {
+        final JsonTape tape = JsonTape.index("[[null],1,2.5,null]".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        assertEquals(JsonTape.NOT_FOUND, JsonPath.compile("[3].k4").evaluate(tape));
+        assertEquals(JsonTape.NOT_FOUND, JsonPath.compile("[0][0][1]").evaluate(tape));
+    }
+
+    @Test
+    public void typeMismatchAlongThePathFails() {
+        final JsonTape tape = JsonTape.index("[[null],1,2.5,null]".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        try {
+            JsonPath.compile("[1].k").evaluate(tape);
+            fail("Expected a member of a number to fail");
+        } catch (final RuntimeException e) {
+            assertEquals("Path was an object property but element was not an object", e.getMessage());
+        }
+    }
+
+    private static String describe(final Evaluation evaluation) {
+        try {
+            return "value " + evaluation.evaluate();
+        } catch (final RuntimeException e) {
+            return "error " + e.getMessage();
+        }
+    }
+
+    private interface Evaluation {
+        Object evaluate();
+    }
+}
@@ -0,0 +1,109 @@
+package ca.quadrilateral.integration.util.json;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.json.simple.JSONAware;
+import org.json.simple.JSONValue;
+
+/**
+ * Times pretty printing a large response body, from its bytes to a String, the ways the framework has done it:
+ * parsing it with json-simple and writing the document through JSONPrettyPrintWriter, decoding it and passing the text
+ * through JSONPrettyPrintWriter, and printing from the encoded bytes with JsonPrettyPrinter.  Takes the path of a JSON
+ * file, or generates a body of about the given number of megabytes, 32 by default.
+ *
+ * Run it from the test classpath, e.g.
+ * java -cp target/test-classes:target/classes:... ca.quadrilateral.integration.util.json.JsonPrettyPrinterBenchmark
+ */
+public class JsonPrettyPrinterBenchmark {
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 10;
+
+    public static void main(final String[] args) throws Exception {
+        final byte[] encoded;
+        if (args.length > 0 && Files.isRegularFile(Paths.get(args[0]))) {
+            encoded = Files.readAllBytes(Paths.get(args[0]));
+        } else {
+            encoded = generateBody(args.length > 0 ? Integer.parseInt(args[0]) : 32);
+        }
+        final String fromText = printText(encoded);
+        final String fromBytes = JsonPrettyPrinter.toPrettyString(encoded, StandardCharsets.UTF_8);
+        if (!fromBytes.equals(fromText)) {
+            throw new IllegalStateException("Printing from bytes does not match JSONPrettyPrintWriter");
+        }
+        System.out.printf("body: %d bytes, printed: %d chars%n", encoded.length, fromBytes.length());
+
+        long documentNanos = 0;
+        long textNanos = 0;
+        long bytesNanos = 0;
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            final boolean measured = run >= WARMUP_RUNS;
+
+            long start = System.nanoTime();
+            printDocument(encoded);
+            if (measured) {
+                documentNanos += System.nanoTime() - start;
+            }
+
+            start = System.nanoTime();
+            printText(encoded);
+            if (measured) {
+                textNanos += System.nanoTime() - start;
+            }
+
+            start = System.nanoTime();
+            JsonPrettyPrinter.toPrettyString(encoded, StandardCharsets.UTF_8);
+            if (measured) {
+                bytesNanos += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf(
+                "mean of %d runs - parse + writer: %dms; decode + writer: %dms; bytes: %dms%n",
+                MEASURED_RUNS,
+                documentNanos / MEASURED_RUNS / 1_000_000,
+                textNanos / MEASURED_RUNS / 1_000_000,
+                bytesNanos / MEASURED_RUNS / 1_000_000);
+    }
+
+    private static String printDocument(final byte[] encoded) throws Exception {
+        final JSONWrapper document = new JSONWrapper((JSONAware)JSONValue.parse(new String(encoded, StandardCharsets.UTF_8)));
+        final StringWriter stringWriter = new StringWriter();
+        document.writeJSONString(new JSONPrettyPrintWriter(stringWriter));
+        return stringWriter.toString();
+    }
+
+    private static String printText(final byte[] encoded) throws Exception {
+        final StringWriter stringWriter = new StringWriter();
+        new JSONPrettyPrintWriter(stringWriter).write(new String(encoded, StandardCharsets.UTF_8));
+        return stringWriter.toString();
+    }
+
+    /**
+     * An array of records shaped like a typical REST listing, with nested objects, arrays, escapes and non-ASCII text.
+     */
+    private static byte[] generateBody(final int megabytes) {
+        final long targetLength = megabytes * 1024L * 1024L;
+        final StringBuilder body = new StringBuilder((int)Math.min(targetLength + 1024, Integer.MAX_VALUE - 8));
+        body.append('[');
+        for (int i = 0; body.length() < targetLength; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"id\":").append(i)
+                    .append(",\"name\":\"Item ").append(i).append(" {\\\"quoted\\\"} [brackets]\"")
+                    .append(",\"price\":").append(i % 1000).append('.').append(i % 100)
+                    .append(",\"active\":").append(i % 3 == 0)
+                    .append(",\"owner\":null")
+                    .append(",\"description\":\"Café crème, naïve \\\\ path\\/segment\"")
+                    .append(",\"tags\":[\"a\",\"b\",\"c\"]")
+                    .append(",\"address\":{\"street\":\"").append(i).append(" Main St\",\"city\":\"Montréal\",")
+                    .append("\"location\":{\"lat\":45.5,\"lon\":-73.56}}")
+                    .append(",\"history\":[{\"at\":\"2020-01-01T00:00:00Z\",\"event\":\"created\"},{}]}");
+        }
+        body.append(']');
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
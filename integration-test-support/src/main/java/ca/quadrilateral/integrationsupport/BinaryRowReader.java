@@ -0,0 +1,106 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The compact row format written by the framework's BulkRowEntity and by BinaryRowWriter, big-endian throughout:
+ *
+ * <pre>
+ * "ITR1"  short columnCount  columnCount x UTF column name
+ * rows:   byte 1, then per column a type tag and value; byte 0 ends the body
+ * tags:   0 null, 1 string (int length + UTF-8), 2 int, 3 long, 4 decimal (UTF), 5 double, 6 boolean (byte),
+ *         7 date (long epoch day), 8 timestamp (long epoch second + int nanos, local time as UTC),
+ *         9 bytes (int length + bytes), 10 time (long nano of day)
+ * </pre>
+ */
+class BinaryRowReader implements BulkRowReader {
+    static final String MEDIA_TYPE = "application/x-integration-rows";
+
+    private static final int MAGIC = 0x49545231;
+
+    private final DataInputStream input;
+    private List<String> columns = null;
+    private byte[] stringBuffer = new byte[256];
+
+    BinaryRowReader(final DataInputStream input) {
+        this.input = input;
+    }
+
+    @Override
+    public List<String> getColumns() throws IOException {
+        if (columns == null) {
+            if (input.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Body is not in the binary row format");
+            }
+            final int columnCount = input.readUnsignedShort();
+            final List<String> names = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                names.add(input.readUTF());
+            }
+            columns = Collections.unmodifiableList(names);
+        }
+        return columns;
+    }
+
+    @Override
+    public boolean readRow(final Object[] values) throws IOException {
+        getColumns();
+        if (input.readByte() == 0) {
+            return false;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readValue();
+        }
+        return true;
+    }
+
+    private Object readValue() throws IOException {
+        final int tag = input.readByte();
+        switch (tag) {
+            case 0:
+                return null;
+            case 1:
+                final int length = input.readInt();
+                if (length > stringBuffer.length) {
+                    stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+                }
+                input.readFully(stringBuffer, 0, length);
+                return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+            case 2:
+                return input.readInt();
+            case 3:
+                return input.readLong();
+            case 4:
+                return new BigDecimal(input.readUTF());
+            case 5:
+                return input.readDouble();
+            case 6:
+                return input.readByte() != 0;
+            case 7:
+                return Date.valueOf(LocalDate.ofEpochDay(input.readLong()));
+            case 8:
+                final long epochSecond = input.readLong();
+                return Timestamp.valueOf(LocalDateTime.ofEpochSecond(epochSecond, input.readInt(), ZoneOffset.UTC));
+            case 9:
+                final byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                return bytes;
+            case 10:
+                return LocalTime.ofNanoOfDay(input.readLong());
+            default:
+                throw new IllegalArgumentException("Unknown value tag " + tag + " in binary row body");
+        }
+    }
+}
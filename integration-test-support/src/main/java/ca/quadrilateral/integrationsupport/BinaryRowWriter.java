@@ -0,0 +1,195 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes a result set in the row format BinaryRowReader reads, so the rows can be loaded back with BulkLoader.  The
+ * value tag of each column is chosen once from its SQL type.
+ */
+class BinaryRowWriter {
+    private static final int MAGIC = 0x49545231;
+    private static final int MAX_COLUMNS = 0xFFFF;
+
+    private final ResultSet resultSet;
+    private final String[] columnNames;
+    private final int[] tags;
+
+    BinaryRowWriter(final ResultSet resultSet) throws SQLException {
+        this.resultSet = resultSet;
+
+        final ResultSetMetaData metadata = resultSet.getMetaData();
+        final int columnCount = metadata.getColumnCount();
+        if (columnCount > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Result has " + columnCount + " columns, more than the binary row format holds");
+        }
+        this.columnNames = new String[columnCount];
+        this.tags = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnNames[i] = metadata.getColumnName(i + 1);
+            tags[i] = tag(metadata.getColumnType(i + 1));
+        }
+    }
+
+    private static int tag(final int columnType) {
+        switch (columnType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return 2;
+            case Types.BIGINT:
+                return 3;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return 4;
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                return 5;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return 6;
+            case Types.DATE:
+                return 7;
+            case Types.TIMESTAMP:
+                return 8;
+            case Types.TIME:
+                return 10;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return 9;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Returns the number of rows written.
+     */
+    long write(final DataOutputStream output) throws IOException, SQLException {
+        output.writeInt(MAGIC);
+        output.writeShort(columnNames.length);
+        for (final String columnName : columnNames) {
+            output.writeUTF(columnName);
+        }
+
+        long rowCount = 0;
+        while (resultSet.next()) {
+            output.writeByte(1);
+            for (int i = 0; i < tags.length; i++) {
+                writeValue(output, i + 1, tags[i]);
+            }
+            rowCount++;
+        }
+        output.writeByte(0);
+        return rowCount;
+    }
+
+    private void writeValue(final DataOutputStream output, final int column, final int tag) throws IOException, SQLException {
+        switch (tag) {
+            case 2:
+                final int intValue = resultSet.getInt(column);
+                if (!writeNull(output)) {
+                    output.writeByte(tag);
+                    output.writeInt(intValue);
+                }
+                break;
+            case 3:
+                final long longValue = resultSet.getLong(column);
+                if (!writeNull(output)) {
+                    output.writeByte(tag);
+                    output.writeLong(longValue);
+                }
+                break;
+            case 4:
+                final BigDecimal decimalValue = resultSet.getBigDecimal(column);
+                if (decimalValue == null) {
+                    output.writeByte(0);
+                } else {
+                    output.writeByte(tag);
+                    output.writeUTF(decimalValue.toString());
+                }
+                break;
+            case 5:
+                final double doubleValue = resultSet.getDouble(column);
+                if (!writeNull(output)) {
+                    output.writeByte(tag);
+                    output.writeDouble(doubleValue);
+                }
+                break;
+            case 6:
+                final boolean booleanValue = resultSet.getBoolean(column);
+                if (!writeNull(output)) {
+                    output.writeByte(tag);
+                    output.writeByte(booleanValue ? 1 : 0);
+                }
+                break;
+            case 7:
+                final Date dateValue = resultSet.getDate(column);
+                if (dateValue == null) {
+                    output.writeByte(0);
+                } else {
+                    output.writeByte(tag);
+                    output.writeLong(dateValue.toLocalDate().toEpochDay());
+                }
+                break;
+            case 8:
+                final Timestamp timestampValue = resultSet.getTimestamp(column);
+                if (timestampValue == null) {
+                    output.writeByte(0);
+                } else {
+                    final LocalDateTime localDateTime = timestampValue.toLocalDateTime();
+                    output.writeByte(tag);
+                    output.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC));
+                    output.writeInt(localDateTime.getNano());
+                }
+                break;
+            case 9:
+                writeBytes(output, resultSet.getBytes(column), tag);
+                break;
+            case 10:
+                final LocalTime timeValue = resultSet.getObject(column, LocalTime.class);
+                if (timeValue == null) {
+                    output.writeByte(0);
+                } else {
+                    output.writeByte(tag);
+                    output.writeLong(timeValue.toNanoOfDay());
+                }
+                break;
+            default:
+                final String stringValue = resultSet.getString(column);
+                writeBytes(output, stringValue == null ? null : stringValue.getBytes(StandardCharsets.UTF_8), tag);
+        }
+    }
+
+    private boolean writeNull(final DataOutputStream output) throws IOException, SQLException {
+        if (resultSet.wasNull()) {
+            output.writeByte(0);
+            return true;
+        }
+        return false;
+    }
+
+    private void writeBytes(final DataOutputStream output, final byte[] bytes, final int tag) throws IOException {
+        if (bytes == null) {
+            output.writeByte(0);
+        } else {
+            output.writeByte(tag);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Inserts rows into one table as they are read, executing a JDBC batch every batchSize rows.  Column types are read
+ * from the table once so that text values from CSV and JSON are converted before binding.  Text for a column of a
+ * type not converted here, such as uuid, json or an enum, is bound with setObject so the driver and database convert
+ * it; only character columns are bound with setString.
+ */
+class BulkLoader {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+    private final Connection connection;
+    private final int batchSize;
+
+    BulkLoader(final Connection connection, final int batchSize) {
+        this.connection = connection;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    static String validateIdentifier(final String identifier) {
+        if (identifier == null || !IDENTIFIER.matcher(identifier).matches()) {
+            throw new IllegalArgumentException("'" + identifier + "' is not a valid table or column name");
+        }
+        return identifier;
+    }
+
+    /**
+     * Returns the number of rows inserted.
+     */
+    long load(final String table, final BulkRowReader rowReader) throws IOException, SQLException {
+        validateIdentifier(table);
+        final List<String> columns = rowReader.getColumns();
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("Bulk load into " + table + " names no columns");
+        }
+        columns.forEach(BulkLoader::validateIdentifier);
+
+        final String columnList = StringUtils.join(columns, ",");
+        final int[] columnTypes = new int[columns.size()];
+        final boolean[] characterColumns = new boolean[columns.size()];
+        readColumnTypes(table, columnList, columnTypes, characterColumns);
+        final String insertSql = "INSERT INTO " + table + " (" + columnList + ") VALUES ("
+                + StringUtils.repeat("?", ",", columns.size()) + ")";
+
+        long rowCount = 0;
+        try (final PreparedStatement statement = connection.prepareStatement(insertSql)) {
+            final Object[] values = new Object[columns.size()];
+            int pendingCount = 0;
+            while (rowReader.readRow(values)) {
+                for (int i = 0; i < values.length; i++) {
+                    bind(statement, i + 1, columnTypes[i], characterColumns[i], values[i]);
+                }
+                statement.addBatch();
+                rowCount++;
+                if (++pendingCount == batchSize) {
+                    statement.executeBatch();
+                    pendingCount = 0;
+                }
+            }
+            if (pendingCount > 0) {
+                statement.executeBatch();
+            }
+        }
+        return rowCount;
+    }
+
+    private void readColumnTypes(
+            final String table,
+            final String columnList,
+            final int[] columnTypes,
+            final boolean[] characterColumns) throws SQLException {
+
+        try (
+                final Statement statement = connection.createStatement();
+                final ResultSet resultSet = statement.executeQuery("SELECT " + columnList + " FROM " + table + " WHERE 1 = 0")
+                ) {
+
+            final ResultSetMetaData metadata = resultSet.getMetaData();
+            for (int i = 0; i < columnTypes.length; i++) {
+                columnTypes[i] = metadata.getColumnType(i + 1);
+                characterColumns[i] = isCharacterType(columnTypes[i], metadata.getColumnTypeName(i + 1));
+            }
+        }
+    }
+
+    /**
+     * Drivers report some types that do not take plain strings, such as PostgreSQL enums, as VARCHAR, so the type
+     * name must be a character one as well.
+     */
+    private static boolean isCharacterType(final int columnType, final String typeName) {
+        switch (columnType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                final String name = StringUtils.lowerCase(typeName);
+                return name == null
+                        || name.contains("char")
+                        || name.contains("text")
+                        || name.contains("clob")
+                        || name.contains("string");
+            default:
+                return false;
+        }
+    }
+
+    private void bind(
+            final PreparedStatement statement,
+            final int index,
+            final int columnType,
+            final boolean characterColumn,
+            final Object value) throws SQLException {
+
+        if (value == null) {
+            statement.setNull(index, columnType);
+        } else if (value instanceof String) {
+            bindText(statement, index, columnType, characterColumn, (String)value);
+        } else {
+            statement.setObject(index, value, columnType);
+        }
+    }
+
+    private void bindText(
+            final PreparedStatement statement,
+            final int index,
+            final int columnType,
+            final boolean characterColumn,
+            final String text) throws SQLException {
+
+        switch (columnType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                statement.setLong(index, Long.parseLong(text.trim()));
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                statement.setBigDecimal(index, new BigDecimal(text.trim()));
+                break;
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                statement.setDouble(index, Double.parseDouble(text.trim()));
+                break;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                statement.setBoolean(index, "true".equalsIgnoreCase(text.trim()) || "1".equals(text.trim()));
+                break;
+            case Types.DATE:
+                statement.setDate(index, Date.valueOf(LocalDate.parse(text.trim())));
+                break;
+            case Types.TIME:
+                statement.setObject(index, LocalTime.parse(text.trim()), Types.TIME);
+                break;
+            case Types.TIMESTAMP:
+                statement.setTimestamp(index, parseTimestamp(text.trim()));
+                break;
+            case Types.OTHER:
+            case Types.JAVA_OBJECT:
+            case Types.DISTINCT:
+                statement.setObject(index, text, Types.OTHER);
+                break;
+            default:
+                if (characterColumn) {
+                    statement.setString(index, text);
+                } else if (isCharacterType(columnType, null)) {
+                    // A character type under another name, such as an enum, left for the database to convert
+                    statement.setObject(index, text, Types.OTHER);
+                } else {
+                    statement.setObject(index, text, columnType);
+                }
+        }
+    }
+
+    private Timestamp parseTimestamp(final String text) {
+        if (text.indexOf('T') != -1) {
+            return Timestamp.valueOf(LocalDateTime.parse(text));
+        }
+        return Timestamp.valueOf(text);
+    }
+}
@@ -0,0 +1,17 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Rows of a bulk load body, read one at a time as the body arrives.
+ */
+interface BulkRowReader {
+    List<String> getColumns() throws IOException;
+
+    /**
+     * Reads the next row into values, which has one slot per column.  Values are either strings, converted to the
+     * column type when bound, or already typed.  Returns false at the end of the body.
+     */
+    boolean readRow(Object[] values) throws IOException;
+}
@@ -5,6 +5,14 @@ import java.util.List;
 public class Configuration {
 	private String datasourceJndi;
 	private List<String> tables;
+	private int batchSize = 500;
+	private int preparedStatementCacheSize = 64;
+	private int fetchSize = 1000;
+	private int sessionTimeoutSeconds = 600;
+	private int sessionWaitSeconds = 30;
+	private int resetParallelism = 4;
+	private boolean useTruncate = true;
+	private String snapshotDirectory;
 	
 	public Configuration() {}
 	
@@ -23,4 +31,71 @@ public class Configuration {
 	public List<String> getTables() {
 		return tables;
 	}
+	
+	public void setBatchSize(final int batchSize) {
+		this.batchSize = batchSize;
+	}
+	
+	public int getBatchSize() {
+		return batchSize;
+	}
+	
+	public void setPreparedStatementCacheSize(final int preparedStatementCacheSize) {
+		this.preparedStatementCacheSize = preparedStatementCacheSize;
+	}
+	
+	public int getPreparedStatementCacheSize() {
+		return preparedStatementCacheSize;
+	}
+	
+	public void setFetchSize(final int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+	
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	public void setSessionTimeoutSeconds(final int sessionTimeoutSeconds) {
+		this.sessionTimeoutSeconds = sessionTimeoutSeconds;
+	}
+
+	public int getSessionTimeoutSeconds() {
+		return sessionTimeoutSeconds;
+	}
+
+	public void setSessionWaitSeconds(final int sessionWaitSeconds) {
+		this.sessionWaitSeconds = sessionWaitSeconds;
+	}
+
+	/**
+	 * How long a request waits for its session's connection to be free before failing with 409 Conflict.
+	 */
+	public int getSessionWaitSeconds() {
+		return sessionWaitSeconds;
+	}
+
+	public void setResetParallelism(final int resetParallelism) {
+		this.resetParallelism = resetParallelism;
+	}
+
+	public int getResetParallelism() {
+		return resetParallelism;
+	}
+
+	public void setUseTruncate(final boolean useTruncate) {
+		this.useTruncate = useTruncate;
+	}
+
+	public boolean isUseTruncate() {
+		return useTruncate;
+	}
+
+	public void setSnapshotDirectory(final String snapshotDirectory) {
+		this.snapshotDirectory = snapshotDirectory;
+	}
+
+	public String getSnapshotDirectory() {
+		return snapshotDirectory;
+	}
 }
@@ -0,0 +1,125 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The connection a single request works on: either a fresh pooled connection, or the pinned connection of the
+ * database session named by the request.  A unit of work started with begin is a transaction of its own on a
+ * pooled connection and a savepoint within the session's transaction otherwise, so batches stay atomic either way.
+ */
+class ConnectionLease implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionLease.class);
+
+    private final Connection connection;
+    private final DatabaseSession session;
+    private final int preparedStatementCacheSize;
+    private PreparedStatementCache preparedStatements = null;
+
+    private boolean inUnitOfWork = false;
+    private boolean originalAutoCommit;
+    private Savepoint savepoint = null;
+
+    private ConnectionLease(final Connection connection, final DatabaseSession session, final int preparedStatementCacheSize) {
+        this.connection = connection;
+        this.session = session;
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+    }
+
+    static ConnectionLease pooled(final DataSource dataSource, final int preparedStatementCacheSize) throws SQLException {
+        return new ConnectionLease(dataSource.getConnection(), null, preparedStatementCacheSize);
+    }
+
+    /**
+     * Takes over the session's permit, which the caller has acquired; closing the lease releases it.
+     */
+    static ConnectionLease session(final DatabaseSession session) {
+        return new ConnectionLease(session.getConnection(), session, 0);
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    boolean isSession() {
+        return session != null;
+    }
+
+    /**
+     * Prepared statements kept for the session's lifetime, or for this request on a pooled connection.
+     */
+    PreparedStatementCache getPreparedStatements() {
+        if (session != null) {
+            return session.getPreparedStatements();
+        }
+        if (preparedStatements == null) {
+            preparedStatements = new PreparedStatementCache(connection, preparedStatementCacheSize);
+        }
+        return preparedStatements;
+    }
+
+    void begin() throws SQLException {
+        if (session != null) {
+            savepoint = connection.setSavepoint();
+        } else {
+            originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+        }
+        inUnitOfWork = true;
+    }
+
+    void commit() throws SQLException {
+        if (session != null) {
+            try {
+                connection.releaseSavepoint(savepoint);
+            } catch (final SQLFeatureNotSupportedException e) {
+                // The savepoint is discarded with the session's transaction instead
+            }
+        } else {
+            connection.commit();
+            connection.setAutoCommit(originalAutoCommit);
+        }
+        inUnitOfWork = false;
+    }
+
+    void rollback() throws SQLException {
+        inUnitOfWork = false;
+        if (session != null) {
+            connection.rollback(savepoint);
+        } else {
+            connection.rollback();
+            connection.setAutoCommit(originalAutoCommit);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (inUnitOfWork) {
+            try {
+                rollback();
+            } catch (final SQLException e) {
+                logger.warn("Error rolling back unfinished unit of work", e);
+            }
+        }
+
+        if (session != null) {
+            session.release();
+            return;
+        }
+        if (preparedStatements != null) {
+            preparedStatements.close();
+        }
+        try {
+            connection.close();
+        } catch (final SQLException e) {
+            logger.warn("Error closing connection", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV whose first record names the columns.  An empty unquoted field is null; a quoted empty field is the
+ * empty string.
+ */
+class CsvRowReader implements BulkRowReader {
+    private static final int BUFFER_SIZE = 0x2000;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<Object> record = new ArrayList<>();
+    private List<String> columns = null;
+    private long recordNumber = 0;
+
+    CsvRowReader(final Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public List<String> getColumns() throws IOException {
+        if (columns == null) {
+            if (!readRecord()) {
+                throw new IllegalArgumentException("CSV body has no header record");
+            }
+            final List<String> names = new ArrayList<>(record.size());
+            for (final Object name : record) {
+                names.add(name == null ? "" : name.toString().trim());
+            }
+            columns = Collections.unmodifiableList(names);
+        }
+        return columns;
+    }
+
+    @Override
+    public boolean readRow(final Object[] values) throws IOException {
+        getColumns();
+        if (!readRecord()) {
+            return false;
+        }
+        if (record.size() != values.length) {
+            throw new IllegalArgumentException(
+                    "CSV record " + recordNumber + " has " + record.size() + " fields but " + values.length + " columns were named");
+        }
+        Arrays.setAll(values, record::get);
+        return true;
+    }
+
+    private boolean readRecord() throws IOException {
+        record.clear();
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return false;
+        }
+        recordNumber++;
+
+        while (true) {
+            field.setLength(0);
+            boolean quoted = false;
+            if (c == '"') {
+                quoted = true;
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field in CSV record " + recordNumber);
+                    } else if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    field.append((char)c);
+                }
+            } else {
+                while (c != ',' && c != '\r' && c != '\n' && c != -1) {
+                    field.append((char)c);
+                    c = read();
+                }
+            }
+            record.add(quoted || field.length() > 0 ? field.toString() : null);
+
+            if (c == ',') {
+                c = read();
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                return true;
+            } else {
+                throw new IllegalArgumentException("Unexpected character after quoted field in CSV record " + recordNumber);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,61 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * How a database lets tables be emptied faster than with DELETE.
+ */
+enum DatabaseDialect {
+    /**
+     * TRUNCATE of a referenced table is only allowed when every referencing table is truncated in the same statement.
+     */
+    POSTGRESQL,
+
+    /**
+     * TRUNCATE of a referenced table is only allowed with foreign key checks switched off for the connection.
+     */
+    MYSQL {
+        @Override
+        void beforeTruncate(final Statement statement) throws SQLException {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+        }
+
+        @Override
+        void afterTruncate(final Statement statement) throws SQLException {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+    },
+
+    /**
+     * TRUNCATE is only allowed on tables no foreign key references.
+     */
+    STANDARD,
+
+    /**
+     * No usable TRUNCATE; every table is emptied with DELETE.
+     */
+    DELETE_ONLY;
+
+    static DatabaseDialect forProductName(final String productName) {
+        final String name = productName == null ? "" : productName.toLowerCase(Locale.ROOT);
+        if (name.contains("postgresql")) {
+            return POSTGRESQL;
+        }
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return MYSQL;
+        }
+        if (name.contains("h2") || name.contains("hsql") || name.contains("derby") || name.contains("oracle")
+                || name.contains("sql server") || name.contains("db2")) {
+            return STANDARD;
+        }
+        return DELETE_ONLY;
+    }
+
+    void beforeTruncate(final Statement statement) throws SQLException {
+    }
+
+    void afterTruncate(final Statement statement) throws SQLException {
+    }
+}
@@ -0,0 +1,310 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Empties a set of tables in an order that respects the foreign keys between them, planned once from the schema.
+ * Tables are cleared in steps: every table referencing another is emptied in an earlier step, and the tables of one
+ * step are independent of each other, so they are cleared in parallel over several connections.  TRUNCATE is used
+ * wherever the dialect allows it and DELETE elsewhere.
+ */
+class DatabaseReset {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseReset.class);
+
+    private final DatabaseDialect dialect;
+    private final List<List<TableClear>> steps;
+    private final List<String> deleteOrder;
+
+    private DatabaseReset(final DatabaseDialect dialect, final List<List<TableClear>> steps, final List<String> deleteOrder) {
+        this.dialect = dialect;
+        this.steps = steps;
+        this.deleteOrder = deleteOrder;
+    }
+
+    /**
+     * Plans clearing of the tables, or of every table in the schema when none are given, in any order.
+     */
+    static DatabaseReset plan(final Connection connection, final List<String> tables, final boolean useTruncate) throws SQLException {
+        final DatabaseSchema schema = DatabaseSchema.read(connection);
+        final List<String> tablesToClear = tables == null || tables.isEmpty() ? schema.getTableNames() : tables;
+
+        final List<String> knownTables = new ArrayList<>();
+        final List<String> unknownTables = new ArrayList<>();
+        for (final String table : tablesToClear) {
+            (schema.contains(table) ? knownTables : unknownTables).add(table);
+        }
+        if (!unknownTables.isEmpty()) {
+            logger.warn("No metadata for tables " + unknownTables + ", they are deleted last in the configured order");
+        }
+
+        final List<List<String>> levels = orderForClearing(knownTables, schema);
+        for (final String table : unknownTables) {
+            levels.add(Collections.singletonList(table));
+        }
+        final List<String> deleteOrder = new ArrayList<>();
+        levels.forEach(deleteOrder::addAll);
+
+        final DatabaseDialect dialect = useTruncate ? DatabaseDialect.forProductName(schema.getProductName()) : DatabaseDialect.DELETE_ONLY;
+        final List<List<TableClear>> steps = new ArrayList<>();
+
+        final Set<String> truncatedTogether = new LinkedHashSet<>();
+        if (dialect == DatabaseDialect.POSTGRESQL || dialect == DatabaseDialect.MYSQL) {
+            truncatedTogether.addAll(getSelfContainedTables(deleteOrder, knownTables, schema));
+        }
+        if (!truncatedTogether.isEmpty()) {
+            final List<String> together = new ArrayList<>();
+            deleteOrder.stream().filter(table -> truncatedTogether.contains(DatabaseSchema.key(table))).forEach(together::add);
+            if (dialect == DatabaseDialect.POSTGRESQL) {
+                final String tableList = StringUtils.join(together, ", ");
+                steps.add(Collections.singletonList(new TableClear(tableList, "TRUNCATE TABLE " + tableList, true)));
+            } else {
+                final List<TableClear> step = new ArrayList<>();
+                together.forEach(table -> step.add(TableClear.truncate(table)));
+                steps.add(step);
+            }
+        }
+
+        for (final List<String> level : levels) {
+            final List<TableClear> step = new ArrayList<>();
+            for (final String table : level) {
+                if (truncatedTogether.contains(DatabaseSchema.key(table))) {
+                    continue;
+                }
+                final boolean truncate = dialect == DatabaseDialect.STANDARD
+                        && schema.contains(table)
+                        && schema.getReferencingTables(table).isEmpty();
+                step.add(truncate ? TableClear.truncate(table) : TableClear.delete(table));
+            }
+            if (!step.isEmpty()) {
+                steps.add(step);
+            }
+        }
+
+        logger.info("Planned clearing of " + deleteOrder.size() + " tables in " + steps.size() + " steps for " + schema.getProductName());
+        return new DatabaseReset(dialect, steps, deleteOrder);
+    }
+
+    /**
+     * Groups the tables into levels, each of which only holds tables that no table of a later level references.
+     * Tables in a foreign key cycle follow one per level, in the given order.
+     */
+    private static List<List<String>> orderForClearing(final List<String> tables, final DatabaseSchema schema) {
+        final List<List<String>> levels = new ArrayList<>();
+        final List<String> remaining = new ArrayList<>(tables);
+
+        while (!remaining.isEmpty()) {
+            final Set<String> remainingKeys = new LinkedHashSet<>();
+            remaining.forEach(table -> remainingKeys.add(DatabaseSchema.key(table)));
+
+            final List<String> level = new ArrayList<>();
+            for (final String table : remaining) {
+                final String key = DatabaseSchema.key(table);
+                final boolean referenced = schema
+                        .getReferencingTables(table)
+                        .stream()
+                        .anyMatch(referencing -> !referencing.equals(key) && remainingKeys.contains(referencing));
+                if (!referenced) {
+                    level.add(table);
+                }
+            }
+
+            if (level.isEmpty()) {
+                logger.warn("Tables " + remaining + " reference each other in a cycle, deleting them in the configured order");
+                remaining.forEach(table -> levels.add(Collections.singletonList(table)));
+                break;
+            }
+            levels.add(level);
+            remaining.removeAll(level);
+        }
+        return levels;
+    }
+
+    /**
+     * Keys of the tables that are only referenced by tables also being cleared, which may be truncated as a group.
+     */
+    private static Set<String> getSelfContainedTables(final List<String> deleteOrder, final List<String> knownTables, final DatabaseSchema schema) {
+        final Set<String> tables = new LinkedHashSet<>();
+        for (final String table : deleteOrder) {
+            if (knownTables.contains(table)) {
+                tables.add(DatabaseSchema.key(table));
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = tables.removeIf(key -> !tables.containsAll(schema.getReferencingTables(key)));
+        }
+        return tables;
+    }
+
+    /**
+     * The tables cleared, ordered so that each comes after every table it references, as rows must be inserted.
+     */
+    List<String> getInsertOrder() {
+        final List<String> insertOrder = new ArrayList<>(deleteOrder);
+        Collections.reverse(insertOrder);
+        return insertOrder;
+    }
+
+    /**
+     * Clears the tables step by step, spreading each step over up to parallelism connections from the data source.
+     * Returns the time taken for each table.
+     */
+    JsonArray execute(final DataSource dataSource, final int parallelism) throws Exception {
+        final JsonArrayBuilder timings = Json.createArrayBuilder();
+        final int workerLimit = Math.max(parallelism, 1);
+
+        ExecutorService executor = null;
+        try {
+            for (final List<TableClear> step : steps) {
+                final JsonObject[] stepTimings = new JsonObject[step.size()];
+                final Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+                for (int i = 0; i < step.size(); i++) {
+                    pending.add(i);
+                }
+
+                final int workers = Math.min(workerLimit, step.size());
+                if (workers == 1) {
+                    clearTables(dataSource, step, pending, stepTimings);
+                } else {
+                    if (executor == null) {
+                        executor = Executors.newFixedThreadPool(workerLimit);
+                    }
+                    final List<Future<Void>> futures = new ArrayList<>(workers);
+                    for (int i = 0; i < workers; i++) {
+                        futures.add(executor.submit(() -> {
+                            clearTables(dataSource, step, pending, stepTimings);
+                            return null;
+                        }));
+                    }
+                    awaitAll(futures);
+                }
+
+                for (final JsonObject timing : stepTimings) {
+                    timings.add(timing);
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        }
+        return timings.build();
+    }
+
+    /**
+     * Deletes from every table in foreign key order within the connection's current transaction, for callers that
+     * must be able to roll the reset back.
+     */
+    JsonArray executeInTransaction(final Connection connection) throws SQLException {
+        final JsonArrayBuilder timings = Json.createArrayBuilder();
+        try (final Statement statement = connection.createStatement()) {
+            for (final String table : deleteOrder) {
+                timings.add(TableClear.delete(table).execute(statement));
+            }
+        }
+        return timings.build();
+    }
+
+    private void clearTables(
+            final DataSource dataSource,
+            final List<TableClear> step,
+            final Queue<Integer> pending,
+            final JsonObject[] stepTimings) throws SQLException {
+
+        try (
+                final Connection connection = dataSource.getConnection();
+                final Statement statement = connection.createStatement()) {
+
+            final boolean truncating = step.stream().anyMatch(tableClear -> tableClear.truncate);
+            if (truncating) {
+                dialect.beforeTruncate(statement);
+            }
+            try {
+                Integer index;
+                while ((index = pending.poll()) != null) {
+                    stepTimings[index] = step.get(index).execute(statement);
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
+                }
+            } finally {
+                if (truncating) {
+                    dialect.afterTruncate(statement);
+                }
+            }
+        }
+    }
+
+    private static void awaitAll(final List<Future<Void>> futures) throws Exception {
+        for (final Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception)e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static class TableClear {
+        private final String table;
+        private final String sql;
+        private final boolean truncate;
+
+        TableClear(final String table, final String sql, final boolean truncate) {
+            this.table = table;
+            this.sql = sql;
+            this.truncate = truncate;
+        }
+
+        static TableClear truncate(final String table) {
+            return new TableClear(table, "TRUNCATE TABLE " + table, true);
+        }
+
+        static TableClear delete(final String table) {
+            return new TableClear(table, "DELETE FROM " + table, false);
+        }
+
+        JsonObject execute(final Statement statement) throws SQLException {
+            final long startNanos = System.nanoTime();
+            statement.execute(sql);
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            logger.debug("Cleared " + table + " with " + (truncate ? "TRUNCATE" : "DELETE") + " in " + millis + "ms");
+
+            return Json
+                    .createObjectBuilder()
+                    .add("table", table)
+                    .add("method", truncate ? "TRUNCATE" : "DELETE")
+                    .add("millis", millis)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tables of the connection's schema and the foreign keys between them, read once through DatabaseMetaData.  Tables
+ * are looked up case-insensitively and without any schema qualifier, so configured names need not match the case
+ * the database reports.
+ */
+class DatabaseSchema {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseSchema.class);
+
+    private final String productName;
+    private final Map<String, String> tableNames;
+    private final Map<String, Set<String>> referencingTables;
+
+    private DatabaseSchema(final String productName, final Map<String, String> tableNames, final Map<String, Set<String>> referencingTables) {
+        this.productName = productName;
+        this.tableNames = tableNames;
+        this.referencingTables = referencingTables;
+    }
+
+    static DatabaseSchema read(final Connection connection) throws SQLException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        final String catalog = connection.getCatalog();
+        final String schema = getSchema(connection);
+
+        final Map<String, String> tableNames = new LinkedHashMap<>();
+        try (final ResultSet tables = metaData.getTables(catalog, schema, "%", new String[] { "TABLE" })) {
+            while (tables.next()) {
+                final String tableName = tables.getString("TABLE_NAME");
+                tableNames.put(key(tableName), tableName);
+            }
+        }
+
+        final Map<String, Set<String>> referencingTables = new HashMap<>();
+        for (final String tableName : tableNames.values()) {
+            try (final ResultSet importedKeys = metaData.getImportedKeys(catalog, schema, tableName)) {
+                while (importedKeys.next()) {
+                    referencingTables
+                        .computeIfAbsent(key(importedKeys.getString("PKTABLE_NAME")), k -> new LinkedHashSet<>())
+                        .add(key(tableName));
+                }
+            }
+        }
+
+        logger.info("Read " + tableNames.size() + " tables from " + metaData.getDatabaseProductName() + " metadata");
+        return new DatabaseSchema(metaData.getDatabaseProductName(), tableNames, referencingTables);
+    }
+
+    private static String getSchema(final Connection connection) {
+        try {
+            return connection.getSchema();
+        } catch (final SQLException | AbstractMethodError e) {
+            // Drivers older than JDBC 4.1 cannot report it; search every schema instead
+            return null;
+        }
+    }
+
+    /**
+     * The unqualified, upper case form tables are looked up by.
+     */
+    static String key(final String tableName) {
+        final int dot = tableName.lastIndexOf('.');
+        return tableName.substring(dot + 1).toUpperCase(Locale.ROOT);
+    }
+
+    String getProductName() {
+        return productName;
+    }
+
+    List<String> getTableNames() {
+        return new ArrayList<>(tableNames.values());
+    }
+
+    boolean contains(final String tableName) {
+        return tableNames.containsKey(key(tableName));
+    }
+
+    /**
+     * Keys of the tables with foreign keys to the table, including the table itself when it references itself.
+     */
+    Set<String> getReferencingTables(final String tableName) {
+        return referencingTables.getOrDefault(key(tableName), Collections.emptySet());
+    }
+}
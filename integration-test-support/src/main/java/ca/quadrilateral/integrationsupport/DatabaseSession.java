@@ -0,0 +1,119 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A connection pinned to a test, held in one open transaction that is rolled back when the session ends.  Requests
+ * naming the session take turns on the connection; the permit is not tied to a thread because streamed results
+ * release it from whichever thread finishes writing them.
+ */
+class DatabaseSession {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseSession.class);
+
+    private final String id;
+    private final Connection connection;
+    private final boolean originalAutoCommit;
+    private final PreparedStatementCache preparedStatements;
+    private final Semaphore permit = new Semaphore(1);
+    private volatile long lastUsedMillis = System.currentTimeMillis();
+    private Savepoint savepoint = null;
+
+    DatabaseSession(final String id, final Connection connection, final int preparedStatementCacheSize) throws SQLException {
+        this.id = id;
+        this.connection = connection;
+        this.originalAutoCommit = connection.getAutoCommit();
+        this.preparedStatements = new PreparedStatementCache(connection, preparedStatementCacheSize);
+        connection.setAutoCommit(false);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    PreparedStatementCache getPreparedStatements() {
+        return preparedStatements;
+    }
+
+    /**
+     * True when the session was last used before the time.  Callers that end idle sessions must hold the permit, so
+     * a request that takes it meanwhile is not cut off.
+     */
+    boolean isIdleSince(final long millis) {
+        return lastUsedMillis < millis;
+    }
+
+    /**
+     * Waits up to waitSeconds for the permit, or indefinitely when waitSeconds is not positive, and returns false if
+     * it is still held, for example by a query whose rows the client has not finished reading.
+     */
+    boolean acquire(final int waitSeconds) throws InterruptedException {
+        if (waitSeconds > 0) {
+            if (!permit.tryAcquire(waitSeconds, TimeUnit.SECONDS)) {
+                return false;
+            }
+        } else {
+            permit.acquire();
+        }
+        lastUsedMillis = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Takes the permit only if no request holds it, without counting as use of the session.
+     */
+    boolean tryAcquire() {
+        return permit.tryAcquire();
+    }
+
+    void release() {
+        lastUsedMillis = System.currentTimeMillis();
+        permit.release();
+    }
+
+    /**
+     * Marks the point rollbackToSavepoint returns to, replacing any earlier one.
+     */
+    void setSavepoint() throws SQLException {
+        savepoint = connection.setSavepoint();
+    }
+
+    /**
+     * Undoes everything since the savepoint, or since the session began when none has been set.
+     */
+    void rollbackToSavepoint() throws SQLException {
+        if (savepoint == null) {
+            connection.rollback();
+        } else {
+            connection.rollback(savepoint);
+        }
+    }
+
+    /**
+     * Rolls the whole session back and returns the connection to the pool.
+     */
+    void end() {
+        preparedStatements.close();
+        try {
+            connection.rollback();
+            connection.setAutoCommit(originalAutoCommit);
+        } catch (final SQLException e) {
+            logger.warn("Error rolling back database session " + id, e);
+        }
+        try {
+            connection.close();
+        } catch (final SQLException e) {
+            logger.warn("Error closing connection of database session " + id, e);
+        }
+    }
+}
@@ -1,30 +1,46 @@
 package ca.quadrilateral.integrationsupport;
 
-import java.math.BigDecimal;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Types;
-import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.json.Json;
 import javax.json.JsonArray;
-import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -34,7 +50,14 @@ import org.slf4j.LoggerFactory;
 public class IntegrationSupportResource {
     private static final Logger logger = LoggerFactory.getLogger(IntegrationSupportResource.class);
 
+    static final String SESSION_HEADER = "X-Integration-Session";
+
+    private static final SessionRegistry sessions = new SessionRegistry();
+    private static final Map<String, byte[]> memorySnapshots = new ConcurrentHashMap<>();
+
     private static Configuration configuration = null;
+    private static volatile DataSource dataSource = null;
+    private static volatile DatabaseReset databaseReset = null;
 
     @Path("ping")
     @GET
@@ -50,49 +73,126 @@ public class IntegrationSupportResource {
     @POST
     public Response configure(final Configuration configuration) {
         IntegrationSupportResource.configuration = configuration;
+        IntegrationSupportResource.dataSource = null;
+        IntegrationSupportResource.databaseReset = null;
         return Response.ok().build();
     }
 
-    @Path("data")
+    /**
+     * Pins a connection in an open transaction to a new session.  Data requests carrying the session id in the
+     * X-Integration-Session header run inside that transaction, which is rolled back when the session is deleted.
+     */
+    @Path("sessions")
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response openSession() throws Exception {
+        final DatabaseSession session = sessions.open(getDataSource(), configuration);
+        logger.info("Opened database session " + session.getId());
+
+        return Response
+                .ok(Json.createObjectBuilder().add("sessionId", session.getId()).build().toString())
+                .build();
+    }
+
+    /**
+     * Marks the point a later rollback of the session returns to, such as the end of a suite's shared fixtures.
+     */
+    @Path("sessions/{sessionId}/savepoint")
+    @POST
+    public Response setSessionSavepoint(@PathParam("sessionId") final String sessionId) throws Exception {
+        final DatabaseSession session = acquireSession(sessionId);
+        try {
+            session.setSavepoint();
+        } finally {
+            session.release();
+        }
+
+        return Response
+                .noContent()
+                .build();
+    }
+
+    /**
+     * Undoes the session's work since its savepoint, or since it was opened, keeping the session open.
+     */
+    @Path("sessions/{sessionId}/rollback")
+    @POST
+    public Response rollbackSession(@PathParam("sessionId") final String sessionId) throws Exception {
+        final DatabaseSession session = acquireSession(sessionId);
+        try {
+            session.rollbackToSavepoint();
+        } finally {
+            session.release();
+        }
+
+        return Response
+                .noContent()
+                .build();
+    }
+
+    @Path("sessions/{sessionId}")
     @DELETE
-    public Response clearDatabase() throws Exception {
-        logger.info("Clearing database");
-        final DataSource dataSource = getDataSource();
+    public Response endSession(@PathParam("sessionId") final String sessionId) throws Exception {
+        if (!sessions.end(acquireSession(sessionId))) {
+            throw new NotFoundException("No database session " + sessionId);
+        }
+        logger.info("Rolled back and ended database session " + sessionId);
 
-        try (
-                final Connection connection = dataSource.getConnection();
-                final Statement statement = connection.createStatement()) {
+        return Response
+                .noContent()
+                .build();
+    }
 
-            connection.setAutoCommit(false);
+    /**
+     * Empties the configured tables, or every table in the schema when none are configured, in foreign key order so
+     * the list need not be ordered by hand.  Outside a session, independent tables are truncated where the database
+     * allows it, in parallel over resetParallelism connections.  Within a session every table is deleted from inside
+     * the session's transaction.  Returns the time taken for each table.
+     */
+    @Path("data")
+    @Produces({MediaType.APPLICATION_JSON})
+    @DELETE
+    public Response clearDatabase(@HeaderParam(SESSION_HEADER) final String sessionId) throws Exception {
+        logger.info("Clearing database");
+        final long startNanos = System.nanoTime();
 
-            try {
-                for (final String tableName : configuration.getTables()) {
-                    statement.executeUpdate("DELETE FROM " + tableName);
+        final JsonArray tableTimings;
+        try {
+            final DatabaseReset reset = getDatabaseReset();
+            if (sessionId == null) {
+                tableTimings = reset.execute(getDataSource(), configuration.getResetParallelism());
+            } else {
+                try (final ConnectionLease lease = lease(sessionId)) {
+                    lease.begin();
+                    tableTimings = reset.executeInTransaction(lease.getConnection());
+                    lease.commit();
                 }
-                connection.commit();
-            } catch (final Exception e) {
-                logger.error("Error clearing database", e);
-                connection.rollback();
             }
+        } catch (final Exception e) {
+            logger.error("Error clearing database", e);
+            throw e;
         }
-        logger.info("Database clearing completed");
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        logger.info("Database clearing of " + tableTimings.size() + " tables completed in " + millis + "ms");
 
         return Response
-                .noContent()
+                .ok(Json.createObjectBuilder().add("millis", millis).add("tables", tableTimings).build().toString())
                 .build();
     }
 
     @Path("data")
     @Consumes({MediaType.TEXT_PLAIN})
     @POST
-    public void executeDatabaseCommands(final String commandText) throws Exception {
-        final DataSource dataSource = getDataSource();
+    public void executeDatabaseCommands(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            final String commandText) throws Exception {
 
         final String[] commands = StringUtils.split(commandText, ";");
 
         try (
-                final Connection connection = dataSource.getConnection();
-                final Statement statement = connection.createStatement()
+                final ConnectionLease lease = lease(sessionId);
+                final Statement statement = lease.getConnection().createStatement()
                 ) {
 
             for (final String command : commands) {
@@ -101,12 +201,288 @@ public class IntegrationSupportResource {
         }
     }
 
+    /**
+     * Runs the commands as JDBC batches of batchSize statements within a single transaction, rolling all of them back
+     * if any fails.  A batchSize of zero or less uses the configured batch size.  Returns the update count of each
+     * statement, in order.
+     */
+    @Path("data/batch")
+    @Consumes({MediaType.TEXT_PLAIN})
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response executeDatabaseCommandBatch(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            @QueryParam("batchSize") @DefaultValue("0") final int batchSize,
+            final String commandText) throws Exception {
+
+        return executeBatch(sessionId, batchSize, batch -> batch.addCommands(commandText));
+    }
+
+    /**
+     * As executeDatabaseCommandBatch, for a JSON array of statements each holding sql with '?' placeholders and
+     * an array of typed parameters.  Statements are prepared once per distinct sql and reused for every row.
+     */
+    @Path("data/batch")
+    @Consumes({MediaType.APPLICATION_JSON})
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response executeStatementBatch(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            @QueryParam("batchSize") @DefaultValue("0") final int batchSize,
+            final InputStream statementJson) throws Exception {
+
+        final JsonArray statements;
+        try (final JsonReader reader = Json.createReader(new InputStreamReader(statementJson, StandardCharsets.UTF_8))) {
+            statements = reader.readArray();
+        }
+
+        return executeBatch(sessionId, batchSize, batch -> {
+            for (int i = 0; i < statements.size(); i++) {
+                batch.addStatement(statements.getJsonObject(i));
+            }
+        });
+    }
+
+    private Response executeBatch(final String sessionId, final int batchSize, final BatchLoader batchLoader) throws Exception {
+        final int effectiveBatchSize = batchSize > 0 ? batchSize : configuration.getBatchSize();
+
+        final JsonArray updateCounts;
+        try (final ConnectionLease lease = lease(sessionId)) {
+            lease.begin();
+
+            try (final StatementBatch batch = new StatementBatch(lease.getConnection(), effectiveBatchSize, lease.getPreparedStatements())) {
+                batchLoader.load(batch);
+                updateCounts = batch.getUpdateCounts();
+                lease.commit();
+            } catch (final Exception e) {
+                logger.error("Error executing database command batch, rolling back", e);
+                lease.rollback();
+                throw e;
+            }
+        }
+
+        return Response
+                .ok(updateCounts.toString())
+                .build();
+    }
+
+    /**
+     * Inserts the rows of a CSV body, whose header record names the columns, into the table in batches as they
+     * arrive.  The whole load is one transaction.
+     */
+    @Path("data/bulk/{table}")
+    @Consumes({"text/csv"})
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response bulkLoadCsv(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            @PathParam("table") final String table,
+            @QueryParam("batchSize") @DefaultValue("0") final int batchSize,
+            final InputStream body) throws Exception {
+
+        return bulkLoad(sessionId, table, batchSize, new CsvRowReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    @Path("data/bulk/{table}")
+    @Consumes({"application/x-ndjson"})
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response bulkLoadJsonLines(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            @PathParam("table") final String table,
+            @QueryParam("batchSize") @DefaultValue("0") final int batchSize,
+            final InputStream body) throws Exception {
+
+        return bulkLoad(
+                sessionId,
+                table,
+                batchSize,
+                new JsonLinesRowReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))));
+    }
+
+    @Path("data/bulk/{table}")
+    @Consumes({BinaryRowReader.MEDIA_TYPE})
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response bulkLoadBinary(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            @PathParam("table") final String table,
+            @QueryParam("batchSize") @DefaultValue("0") final int batchSize,
+            final InputStream body) throws Exception {
+
+        return bulkLoad(sessionId, table, batchSize, new BinaryRowReader(new DataInputStream(new BufferedInputStream(body))));
+    }
+
+    private Response bulkLoad(
+            final String sessionId,
+            final String table,
+            final int batchSize,
+            final BulkRowReader rowReader) throws Exception {
+
+        final int effectiveBatchSize = batchSize > 0 ? batchSize : configuration.getBatchSize();
+
+        final long rowCount;
+        try (final ConnectionLease lease = lease(sessionId)) {
+            lease.begin();
+
+            try {
+                rowCount = new BulkLoader(lease.getConnection(), effectiveBatchSize).load(table, rowReader);
+                lease.commit();
+            } catch (final IllegalArgumentException e) {
+                logger.warn("Rejected bulk load into " + table + ": " + e.getMessage());
+                lease.rollback();
+                return Response
+                        .status(Status.BAD_REQUEST)
+                        .entity(Json.createObjectBuilder().add("error", String.valueOf(e.getMessage())).build().toString())
+                        .build();
+            } catch (final Exception e) {
+                logger.error("Error bulk loading " + table + ", rolling back", e);
+                lease.rollback();
+                throw e;
+            }
+        }
+        logger.info("Bulk loaded " + rowCount + " rows into " + table);
+
+        return Response
+                .ok(Json.createObjectBuilder().add("table", table).add("rows", rowCount).build().toString())
+                .build();
+    }
+
+    /**
+     * Captures the contents of the configured tables under the name, in memory or in the configured
+     * snapshotDirectory, replacing any snapshot of that name.
+     */
+    @Path("snapshots/{name}")
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response captureSnapshot(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            @PathParam("name") final String name) throws Exception {
+
+        final long startNanos = System.nanoTime();
+        final JsonObject result;
+        try (final ConnectionLease lease = lease(sessionId)) {
+            lease.begin();
+            result = getSnapshotStore().capture(
+                    name,
+                    lease.getConnection(),
+                    getDatabaseReset().getInsertOrder(),
+                    configuration.getFetchSize());
+            lease.commit();
+        } catch (final IllegalArgumentException e) {
+            logger.warn("Rejected snapshot " + name + ": " + e.getMessage());
+            return Response
+                    .status(Status.BAD_REQUEST)
+                    .entity(Json.createObjectBuilder().add("error", String.valueOf(e.getMessage())).build().toString())
+                    .build();
+        }
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        logger.info("Captured snapshot " + name + " of " + result.getJsonNumber("rows") + " rows in " + millis + "ms");
+
+        final JsonObjectBuilder response = Json.createObjectBuilder();
+        result.forEach(response::add);
+
+        return Response
+                .ok(response.add("millis", millis).build().toString())
+                .build();
+    }
+
+    /**
+     * Clears the configured tables as clearDatabase does, then bulk loads the snapshot's rows.  Outside a session the
+     * clearing is committed before the rows are loaded, so a failed restore leaves the tables empty.
+     */
+    @Path("snapshots/{name}/restore")
+    @Produces({MediaType.APPLICATION_JSON})
+    @POST
+    public Response restoreSnapshot(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            @PathParam("name") final String name) throws Exception {
+
+        final long startNanos = System.nanoTime();
+        final SnapshotStore snapshotStore = getSnapshotStore();
+        if (!snapshotStore.contains(SnapshotStore.validateName(name))) {
+            throw new NotFoundException("No snapshot named " + name);
+        }
+
+        final DatabaseReset reset = getDatabaseReset();
+        if (sessionId == null) {
+            reset.execute(getDataSource(), configuration.getResetParallelism());
+        }
+
+        final long rowCount;
+        try (final ConnectionLease lease = lease(sessionId)) {
+            lease.begin();
+            try {
+                if (sessionId != null) {
+                    reset.executeInTransaction(lease.getConnection());
+                }
+                rowCount = snapshotStore.restore(name, lease.getConnection(), configuration.getBatchSize());
+                lease.commit();
+            } catch (final Exception e) {
+                logger.error("Error restoring snapshot " + name + ", rolling back", e);
+                lease.rollback();
+                throw e;
+            }
+        }
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        logger.info("Restored snapshot " + name + " of " + rowCount + " rows in " + millis + "ms");
+
+        return Response
+                .ok(Json.createObjectBuilder().add("name", name).add("rows", rowCount).add("millis", millis).build().toString())
+                .build();
+    }
+
+    @Path("snapshots/{name}")
+    @DELETE
+    public Response deleteSnapshot(@PathParam("name") final String name) throws Exception {
+        if (!getSnapshotStore().delete(SnapshotStore.validateName(name))) {
+            throw new NotFoundException("No snapshot named " + name);
+        }
+
+        return Response
+                .noContent()
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface BatchLoader {
+        void load(StatementBatch batch) throws Exception;
+    }
+
     @Path("data")
     @Consumes({MediaType.TEXT_PLAIN})
     @Produces({MediaType.APPLICATION_JSON})
     @GET
-    public Response executeDatabaseQuery(final String commandText) throws Exception {
-        final DataSource dataSource = getDataSource();
+    public Response executeDatabaseQuery(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            final String commandText) throws Exception {
+
+        return streamQuery(sessionId, commandText, (resultSet, outputStream) -> new JsonRowWriter(resultSet).write(outputStream));
+    }
+
+    /**
+     * As executeDatabaseQuery, in the columnar binary format described by ColumnarRowWriter, selected by Accept.
+     */
+    @Path("data")
+    @Consumes({MediaType.TEXT_PLAIN})
+    @Produces({ColumnarRowWriter.MEDIA_TYPE})
+    @GET
+    public Response executeColumnarDatabaseQuery(
+            @HeaderParam(SESSION_HEADER) final String sessionId,
+            final String commandText) throws Exception {
+
+        return streamQuery(
+                sessionId,
+                commandText,
+                (resultSet, outputStream) -> new ColumnarRowWriter(resultSet, configuration.getFetchSize()).write(outputStream));
+    }
+
+    private Response streamQuery(
+            final String sessionId,
+            final String commandText,
+            final ResultSetWriter resultSetWriter) throws Exception {
 
         final String[] commands = StringUtils.split(commandText, ";");
         if (commands.length > 1) {
@@ -116,163 +492,123 @@ public class IntegrationSupportResource {
                     .build();
         }
 
-        try (
-                final Connection connection = dataSource.getConnection();
-                final Statement statement = connection.createStatement()
-                ) {
-
-            final ResultSet resultSet = statement.executeQuery(commandText);
+        // The query runs before the response is committed so SQL errors still produce an error status.  Rows are
+        // then streamed from the open cursor, which some drivers only use outside autocommit mode.  The lease, and
+        // with it a session's connection, is held until the rows have been written.
+        final ConnectionLease lease = lease(sessionId);
+        final Statement statement;
+        final ResultSet resultSet;
+        try {
+            lease.begin();
+            statement = lease.getConnection().createStatement();
+            statement.setFetchSize(configuration.getFetchSize());
+            resultSet = statement.executeQuery(commandText);
+        } catch (final Exception e) {
+            lease.close();
+            throw e;
+        }
 
-            final JsonArrayBuilder jsonArrayBuilder = resultSetToJson(resultSet);
+        final StreamingOutput rows = outputStream -> {
+            try {
+                resultSetWriter.write(resultSet, outputStream);
+                lease.commit();
+            } catch (final SQLException e) {
+                logger.error("Error streaming query results", e);
+                throw new WebApplicationException(e);
+            } finally {
+                closeQuietly(resultSet);
+                closeQuietly(statement);
+                lease.close();
+            }
+        };
 
-            final JsonArray jsonArray = jsonArrayBuilder.build();
+        return Response
+                    .ok(rows)
+                    .build();
+    }
 
-            return Response
-                        .ok(jsonArray.toString())
-                        .build();
-        }
+    @FunctionalInterface
+    private interface ResultSetWriter {
+        long write(ResultSet resultSet, OutputStream outputStream) throws IOException, SQLException;
     }
 
-    private DataSource getDataSource() {
+    private void closeQuietly(final AutoCloseable closeable) {
         try {
-            final InitialContext context = new InitialContext();
-            return (DataSource) context.lookup(configuration.getDatasourceJndi());
-        } catch (final NamingException e) {
-            logger.error("Error retrieving data source from JNDI", e);
-            throw new RuntimeException(e);
+            closeable.close();
+        } catch (final Exception e) {
+            logger.warn("Error closing " + closeable, e);
         }
     }
 
-    private JsonArrayBuilder resultSetToJson(final ResultSet resultSet) {
-        try {
-            final ResultSetMetaData metadata = resultSet.getMetaData();
-
-            final JsonArrayBuilder jsonArrayBuilder = Json.createArrayBuilder();
+    private ConnectionLease lease(final String sessionId) throws Exception {
+        if (sessionId == null) {
+            return ConnectionLease.pooled(getDataSource(), configuration.getPreparedStatementCacheSize());
+        }
 
-            while (resultSet.next()) {
-                final JsonObjectBuilder rowBuilder = Json.createObjectBuilder();
-                for(int i = 1; i <= metadata.getColumnCount(); i++) {
-                    putColumnValue(resultSet, metadata, rowBuilder, i);
-                }
-                jsonArrayBuilder.add(rowBuilder.build());
-            }
+        return ConnectionLease.session(acquireSession(sessionId));
+    }
 
-            return jsonArrayBuilder;
-        } catch (final SQLException e) {
-            throw new RuntimeException(e);
+    /**
+     * Waits for the session's connection to be free.  A session is used by one request at a time, and a streamed
+     * query holds it until its rows have been read, so a client that makes another call in the session meanwhile
+     * gets 409 Conflict after sessionWaitSeconds rather than waiting forever.
+     */
+    private DatabaseSession acquireSession(final String sessionId) throws InterruptedException {
+        final DatabaseSession session = getSession(sessionId);
+        if (!session.acquire(configuration.getSessionWaitSeconds())) {
+            throw new ClientErrorException(Response
+                    .status(Status.CONFLICT)
+                    .entity("\"Database session " + sessionId + " is still in use, for example by a streamed query whose rows have not been read\"")
+                    .build());
         }
+        if (sessions.get(sessionId) != session) {
+            session.release();
+            throw new NotFoundException("Database session " + sessionId + " has ended");
+        }
+        return session;
     }
 
-    private void putColumnValue(
-            final ResultSet resultSet,
-            final ResultSetMetaData metadata,
-            final JsonObjectBuilder rowBuilder,
-            final int index) throws SQLException {
-
-        final int columnType = metadata.getColumnType(index);
-        final String columnName = metadata.getColumnName(index);
-
-        switch (columnType) {
-            case Types.BIGINT:
-                final long longValue = resultSet.getLong(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, longValue);
-                }
-                break;
-            case Types.BOOLEAN:
-            case Types.BIT:
-                final boolean booleanValue = resultSet.getBoolean(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, booleanValue);
-                }
-                break;
-            case Types.CHAR:
-            case Types.VARCHAR:
-                final String stringValue = resultSet.getString(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, stringValue);
-                }
-                break;
-            case Types.DECIMAL:
-            case Types.NUMERIC:
-                final BigDecimal decimalValue = resultSet.getBigDecimal(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, decimalValue);
-                }
-                break;
-            case Types.DOUBLE:
-                final double doubleValue = resultSet.getDouble(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, doubleValue);
-                }
-                break;
-            case Types.FLOAT:
-            case Types.REAL:
-                final float floatValue = resultSet.getFloat(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, floatValue);
-                }
-                break;
-            case Types.INTEGER:
-                final int intValue = resultSet.getInt(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, intValue);
-                }
-                break;
-            case Types.NULL:
-                rowBuilder.addNull(metadata.getColumnName(index));
-                break;
-            case Types.SMALLINT:
-                final short shortValue = resultSet.getShort(index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, shortValue);
-                }
-                break;
-            case Types.DATE:
-            case Types.TIME:
-            case Types.TIMESTAMP:
-                final Date dateValue = getDateValue(columnType, resultSet, index);
-                if (resultSet.wasNull()) {
-                    rowBuilder.addNull(columnName);
-                } else {
-                    rowBuilder.add(columnName, getTimestamp(dateValue));
-                }
+    private DatabaseSession getSession(final String sessionId) {
+        final DatabaseSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new NotFoundException("No database session " + sessionId);
         }
+        return session;
     }
 
-    private Date getDateValue(final int columnType, final ResultSet resultSet, final int index) throws SQLException {
-        switch(columnType) {
-            case Types.DATE:
-                return resultSet.getDate(index);
-            case Types.TIME:
-                return resultSet.getTime(index);
-            case Types.TIMESTAMP:
-                return resultSet.getTimestamp(index);
+    private SnapshotStore getSnapshotStore() {
+        return new SnapshotStore(memorySnapshots, configuration.getSnapshotDirectory());
+    }
+
+    /**
+     * The plan for clearing the configured tables, read from the schema once per configuration.
+     */
+    private DatabaseReset getDatabaseReset() throws SQLException {
+        DatabaseReset reset = databaseReset;
+        if (reset == null) {
+            try (final Connection connection = getDataSource().getConnection()) {
+                reset = DatabaseReset.plan(connection, configuration.getTables(), configuration.isUseTruncate());
+            }
+            databaseReset = reset;
         }
-        throw new IllegalArgumentException("Only Date, Time and Timestamp column types are supported");
+        return reset;
     }
 
-    private Long getTimestamp(final Date datetime) {
-        if (datetime == null) {
-            return null;
-        } else {
-            return datetime.getTime();
+    /**
+     * The configured data source, looked up through JNDI once per configuration.
+     */
+    private DataSource getDataSource() {
+        DataSource resolved = dataSource;
+        if (resolved == null) {
+            try {
+                final InitialContext context = new InitialContext();
+                resolved = (DataSource) context.lookup(configuration.getDatasourceJndi());
+                dataSource = resolved;
+            } catch (final NamingException e) {
+                logger.error("Error retrieving data source from JNDI", e);
+                throw new RuntimeException(e);
+            }
         }
+        return resolved;
     }
 }
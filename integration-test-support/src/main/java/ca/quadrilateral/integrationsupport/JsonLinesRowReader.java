@@ -0,0 +1,106 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * One JSON object per line.  The members of the first object name the columns; members missing from later objects
+ * are null and members they add are ignored.
+ */
+class JsonLinesRowReader implements BulkRowReader {
+    private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final BufferedReader reader;
+    private List<String> columns = null;
+    private JsonObject firstRow = null;
+    private long lineNumber = 0;
+
+    JsonLinesRowReader(final BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public List<String> getColumns() throws IOException {
+        if (columns == null) {
+            firstRow = readObject();
+            if (firstRow == null) {
+                throw new IllegalArgumentException("JSON lines body has no rows");
+            }
+            columns = Collections.unmodifiableList(new ArrayList<>(firstRow.keySet()));
+        }
+        return columns;
+    }
+
+    @Override
+    public boolean readRow(final Object[] values) throws IOException {
+        getColumns();
+        final JsonObject row;
+        if (firstRow != null) {
+            row = firstRow;
+            firstRow = null;
+        } else {
+            row = readObject();
+        }
+        if (row == null) {
+            return false;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toValue(row.get(columns.get(i)));
+        }
+        return true;
+    }
+
+    private JsonObject readObject() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.trim().isEmpty());
+
+        try (final JsonReader jsonReader = Json.createReader(new StringReader(line))) {
+            return jsonReader.readObject();
+        } catch (final RuntimeException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not a JSON object", e);
+        }
+    }
+
+    private Object toValue(final JsonValue value) {
+        if (value == null) {
+            return null;
+        }
+        switch (value.getValueType()) {
+            case STRING:
+                return ((JsonString)value).getString();
+            case NUMBER:
+                final JsonNumber number = (JsonNumber)value;
+                if (number.isIntegral() && number.bigDecimalValue().abs().compareTo(MAX_LONG) <= 0) {
+                    return number.longValue();
+                }
+                return number.bigDecimalValue();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case NULL:
+                return null;
+            default:
+                return value.toString();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Date;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Writes a result set as a JSON array of row objects while the rows are fetched, so no more than the driver's fetch
+ * size of rows is held at once.  Column names and types are read from the metadata once rather than for every cell.
+ * Dates, times and timestamps are written as epoch milliseconds.
+ */
+class JsonRowWriter {
+    private final ResultSet resultSet;
+    private final String[] columnNames;
+    private final int[] columnTypes;
+
+    JsonRowWriter(final ResultSet resultSet) throws SQLException {
+        this.resultSet = resultSet;
+
+        final ResultSetMetaData metadata = resultSet.getMetaData();
+        this.columnNames = new String[metadata.getColumnCount()];
+        this.columnTypes = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = metadata.getColumnName(i + 1);
+            columnTypes[i] = metadata.getColumnType(i + 1);
+        }
+    }
+
+    /**
+     * Returns the number of rows written.  The stream is flushed but not closed.
+     */
+    long write(final OutputStream outputStream) throws SQLException {
+        final JsonGenerator generator = Json.createGenerator(outputStream);
+        long rowCount = 0;
+
+        generator.writeStartArray();
+        while (resultSet.next()) {
+            generator.writeStartObject();
+            for (int i = 0; i < columnNames.length; i++) {
+                writeColumnValue(generator, i);
+            }
+            generator.writeEnd();
+            rowCount++;
+        }
+        generator.writeEnd();
+        generator.flush();
+
+        return rowCount;
+    }
+
+    private void writeColumnValue(final JsonGenerator generator, final int column) throws SQLException {
+        final int index = column + 1;
+        final String columnName = columnNames[column];
+
+        switch (columnTypes[column]) {
+            case Types.BIGINT:
+                final long longValue = resultSet.getLong(index);
+                if (resultSet.wasNull()) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, longValue);
+                }
+                break;
+            case Types.BOOLEAN:
+            case Types.BIT:
+                final boolean booleanValue = resultSet.getBoolean(index);
+                if (resultSet.wasNull()) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, booleanValue);
+                }
+                break;
+            case Types.CHAR:
+            case Types.VARCHAR:
+                final String stringValue = resultSet.getString(index);
+                if (resultSet.wasNull()) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, stringValue);
+                }
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                final BigDecimal decimalValue = resultSet.getBigDecimal(index);
+                if (resultSet.wasNull()) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, decimalValue);
+                }
+                break;
+            case Types.DOUBLE:
+                final double doubleValue = resultSet.getDouble(index);
+                if (resultSet.wasNull()) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, doubleValue);
+                }
+                break;
+            case Types.FLOAT:
+            case Types.REAL:
+                final float floatValue = resultSet.getFloat(index);
+                if (resultSet.wasNull()) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, floatValue);
+                }
+                break;
+            case Types.INTEGER:
+            case Types.SMALLINT:
+                final int intValue = resultSet.getInt(index);
+                if (resultSet.wasNull()) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, intValue);
+                }
+                break;
+            case Types.NULL:
+                generator.writeNull(columnName);
+                break;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+                final Date dateValue = getDateValue(columnTypes[column], index);
+                if (dateValue == null) {
+                    generator.writeNull(columnName);
+                } else {
+                    generator.write(columnName, dateValue.getTime());
+                }
+                break;
+        }
+    }
+
+    private Date getDateValue(final int columnType, final int index) throws SQLException {
+        switch(columnType) {
+            case Types.DATE:
+                return resultSet.getDate(index);
+            case Types.TIME:
+                return resultSet.getTime(index);
+            case Types.TIMESTAMP:
+                return resultSet.getTimestamp(index);
+        }
+        throw new IllegalArgumentException("Only Date, Time and Timestamp column types are supported");
+    }
+}
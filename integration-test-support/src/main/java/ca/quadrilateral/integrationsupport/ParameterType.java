@@ -0,0 +1,88 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.json.JsonNumber;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * Statement parameter types as named in the JSON sent by the framework's SqlStatement.
+ */
+enum ParameterType {
+    STRING(Types.VARCHAR) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            statement.setString(index, ((JsonString)value).getString());
+        }
+    },
+    INTEGER(Types.INTEGER) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            statement.setInt(index, ((JsonNumber)value).intValueExact());
+        }
+    },
+    LONG(Types.BIGINT) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            statement.setLong(index, ((JsonNumber)value).longValueExact());
+        }
+    },
+    DECIMAL(Types.DECIMAL) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            statement.setBigDecimal(index, new BigDecimal(((JsonString)value).getString()));
+        }
+    },
+    DOUBLE(Types.DOUBLE) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            if (value instanceof JsonString) {
+                statement.setDouble(index, Double.parseDouble(((JsonString)value).getString()));
+            } else {
+                statement.setDouble(index, ((JsonNumber)value).doubleValue());
+            }
+        }
+    },
+    BOOLEAN(Types.BOOLEAN) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            statement.setBoolean(index, value == JsonValue.TRUE);
+        }
+    },
+    DATE(Types.DATE) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            statement.setDate(index, Date.valueOf(LocalDate.parse(((JsonString)value).getString())));
+        }
+    },
+    TIMESTAMP(Types.TIMESTAMP) {
+        @Override
+        void bindValue(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+            statement.setTimestamp(index, Timestamp.valueOf(LocalDateTime.parse(((JsonString)value).getString())));
+        }
+    };
+
+    private final int sqlType;
+
+    private ParameterType(final int sqlType) {
+        this.sqlType = sqlType;
+    }
+
+    void bind(final PreparedStatement statement, final int index, final JsonValue value) throws SQLException {
+        if (value == null || value.getValueType() == JsonValue.ValueType.NULL) {
+            statement.setNull(index, sqlType);
+        } else {
+            bindValue(statement, index, value);
+        }
+    }
+
+    abstract void bindValue(PreparedStatement statement, int index, JsonValue value) throws SQLException;
+}
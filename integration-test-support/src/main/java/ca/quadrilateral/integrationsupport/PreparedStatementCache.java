@@ -0,0 +1,60 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prepared statements of one connection keyed by SQL text, so statements built from the same template are parsed
+ * and planned once.  The least recently used statement is closed once more than maxSize are held.
+ *
+ * Not thread-safe; a connection is only used by one request at a time.
+ */
+class PreparedStatementCache implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    private final Connection connection;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    PreparedStatementCache(final Connection connection, final int maxSize) {
+        this.connection = connection;
+        this.maxSize = Math.max(maxSize, 1);
+    }
+
+    PreparedStatement get(final String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+            if (statements.size() > maxSize) {
+                final Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+                closeQuietly(eldest.next().getValue());
+                eldest.remove();
+            }
+        }
+        return statement;
+    }
+
+    @Override
+    public void close() {
+        for (final PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private void closeQuietly(final PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (final SQLException e) {
+            logger.warn("Error closing cached prepared statement", e);
+        }
+    }
+}
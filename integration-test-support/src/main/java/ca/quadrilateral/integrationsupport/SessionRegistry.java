@@ -0,0 +1,87 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Open database sessions by id.  Sessions left open longer than the configured timeout, for example by a test that
+ * died before its teardown, are rolled back and closed the next time a session is opened.
+ */
+class SessionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(SessionRegistry.class);
+
+    private final Map<String, DatabaseSession> sessions = new ConcurrentHashMap<>();
+
+    DatabaseSession open(final DataSource dataSource, final Configuration configuration) throws SQLException {
+        endIdleSessions(configuration.getSessionTimeoutSeconds());
+
+        final Connection connection = dataSource.getConnection();
+        try {
+            final DatabaseSession session = new DatabaseSession(
+                    UUID.randomUUID().toString(),
+                    connection,
+                    configuration.getPreparedStatementCacheSize());
+            sessions.put(session.getId(), session);
+            return session;
+        } catch (final SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns null when no session has the id.
+     */
+    DatabaseSession get(final String id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Ends the session, whose permit the caller holds and which is released.  Returns false when the session had
+     * already been ended.
+     */
+    boolean end(final DatabaseSession session) {
+        try {
+            if (!sessions.remove(session.getId(), session)) {
+                return false;
+            }
+            session.end();
+            return true;
+        } finally {
+            session.release();
+        }
+    }
+
+    private void endIdleSessions(final int timeoutSeconds) {
+        if (timeoutSeconds <= 0) {
+            return;
+        }
+        final long idleSince = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        final Iterator<DatabaseSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            final DatabaseSession session = iterator.next();
+            // Sessions a request is using are skipped rather than ended underneath it
+            if (session.isIdleSince(idleSince) && session.tryAcquire()) {
+                try {
+                    if (session.isIdleSince(idleSince)) {
+                        iterator.remove();
+                        logger.warn("Ending database session " + session.getId() + " after " + timeoutSeconds + " idle seconds");
+                        session.end();
+                    }
+                } finally {
+                    session.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+/**
+ * Named copies of table contents, held in memory or, when a directory is configured, in files that outlive the
+ * server.  A snapshot is big-endian binary:
+ *
+ * <pre>
+ * "ITS1"  int tableCount
+ * tables: UTF table name, then the table's rows in the BinaryRowReader format
+ * </pre>
+ *
+ * Tables are stored in the order they were captured, which restore inserts them in, so referenced tables must be
+ * captured first.
+ */
+class SnapshotStore {
+    private static final int MAGIC = 0x49545331;
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9_.-]*");
+    private static final String FILE_SUFFIX = ".snapshot";
+    private static final int BUFFER_SIZE = 0x10000;
+
+    private final Map<String, byte[]> memorySnapshots;
+    private final Path directory;
+
+    SnapshotStore(final Map<String, byte[]> memorySnapshots, final String directory) {
+        this.memorySnapshots = memorySnapshots;
+        this.directory = directory == null ? null : Paths.get(directory);
+    }
+
+    static String validateName(final String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("'" + name + "' is not a valid snapshot name");
+        }
+        return name;
+    }
+
+    boolean contains(final String name) {
+        return directory == null ? memorySnapshots.containsKey(name) : Files.exists(getFile(name));
+    }
+
+    /**
+     * Replaces any snapshot of the same name.  Returns the table, row and byte counts captured.
+     */
+    JsonObject capture(final String name, final Connection connection, final List<String> tables, final int fetchSize) throws IOException, SQLException {
+        validateName(name);
+
+        final ByteArrayOutputStream memoryOutput = directory == null ? new ByteArrayOutputStream(BUFFER_SIZE) : null;
+        final Path temporaryFile = directory == null ? null : createTemporaryFile(name);
+
+        long rowCount = 0;
+        final long byteCount;
+        try {
+            try (
+                    final OutputStream target = memoryOutput != null ? memoryOutput : Files.newOutputStream(temporaryFile);
+                    final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(target, BUFFER_SIZE));
+                    final Statement statement = connection.createStatement()) {
+
+                statement.setFetchSize(fetchSize);
+                output.writeInt(MAGIC);
+                output.writeInt(tables.size());
+                for (final String table : tables) {
+                    BulkLoader.validateIdentifier(table);
+                    output.writeUTF(table);
+                    try (final ResultSet resultSet = statement.executeQuery("SELECT * FROM " + table)) {
+                        rowCount += new BinaryRowWriter(resultSet).write(output);
+                    }
+                }
+                output.flush();
+                byteCount = output.size();
+            }
+
+            if (memoryOutput != null) {
+                memorySnapshots.put(name, memoryOutput.toByteArray());
+            } else {
+                Files.move(temporaryFile, getFile(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            if (temporaryFile != null) {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+
+        return Json
+                .createObjectBuilder()
+                .add("name", name)
+                .add("tables", tables.size())
+                .add("rows", rowCount)
+                .add("bytes", byteCount)
+                .build();
+    }
+
+    /**
+     * Inserts every row of the snapshot in batches.  The tables are expected to be empty.  Returns the number of
+     * rows inserted.
+     */
+    long restore(final String name, final Connection connection, final int batchSize) throws IOException, SQLException {
+        validateName(name);
+
+        final byte[] snapshot = directory == null ? memorySnapshots.get(name) : null;
+        if (directory == null && snapshot == null) {
+            throw new IllegalArgumentException("No snapshot named " + name);
+        }
+
+        try (
+                final InputStream source = snapshot != null ? new ByteArrayInputStream(snapshot) : Files.newInputStream(getFile(name));
+                final DataInputStream input = new DataInputStream(new BufferedInputStream(source, BUFFER_SIZE))) {
+
+            if (input.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Snapshot " + name + " is not in the snapshot format");
+            }
+
+            final BulkLoader loader = new BulkLoader(connection, batchSize);
+            long rowCount = 0;
+            final int tableCount = input.readInt();
+            for (int i = 0; i < tableCount; i++) {
+                final String table = input.readUTF();
+                rowCount += loader.load(table, new BinaryRowReader(input));
+            }
+            return rowCount;
+        }
+    }
+
+    /**
+     * Returns false when no snapshot has the name.
+     */
+    boolean delete(final String name) throws IOException {
+        validateName(name);
+        if (directory == null) {
+            return memorySnapshots.remove(name) != null;
+        }
+        return Files.deleteIfExists(getFile(name));
+    }
+
+    private Path getFile(final String name) {
+        return directory.resolve(name + FILE_SUFFIX);
+    }
+
+    private Path createTemporaryFile(final String name) throws IOException {
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, name, FILE_SUFFIX + ".tmp");
+    }
+}
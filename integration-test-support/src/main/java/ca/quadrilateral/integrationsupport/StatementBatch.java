@@ -0,0 +1,139 @@
+package ca.quadrilateral.integrationsupport;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Groups consecutive statements into JDBC batches of up to batchSize.  Consecutive parameterized statements with the
+ * same SQL share one cached prepared statement and batch; anything else flushes the pending batch first so update
+ * counts stay in submission order.
+ */
+class StatementBatch implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StatementBatch.class);
+
+    private final int batchSize;
+    private final Statement plainStatement;
+    private final PreparedStatementCache preparedStatements;
+    private final JsonArrayBuilder updateCounts = Json.createArrayBuilder();
+
+    private Statement pendingStatement = null;
+    private String pendingSql = null;
+    private int pendingCount = 0;
+
+    /**
+     * Prepared statements are taken from, and left open in, the given cache.
+     */
+    StatementBatch(final Connection connection, final int batchSize, final PreparedStatementCache preparedStatements) throws SQLException {
+        this.batchSize = batchSize;
+        this.plainStatement = connection.createStatement();
+        this.preparedStatements = preparedStatements;
+    }
+
+    void addCommands(final String commandText) throws SQLException {
+        for (final String command : StringUtils.split(commandText, ";")) {
+            if (StringUtils.isNotBlank(command)) {
+                addCommand(command);
+            }
+        }
+    }
+
+    void addCommand(final String command) throws SQLException {
+        if (pendingStatement != plainStatement) {
+            flush();
+        }
+        plainStatement.addBatch(command);
+        added(plainStatement, null);
+    }
+
+    /**
+     * Adds a statement in the form written by the framework's SqlStatement: sql plus an array of typed parameters.
+     * Statements without parameters may hold several commands separated by semicolons.
+     */
+    void addStatement(final JsonObject statementJson) throws SQLException {
+        final String sql = statementJson.getString("sql");
+        final JsonArray parameters = statementJson.getJsonArray("parameters");
+        if (parameters == null || parameters.isEmpty()) {
+            addCommands(sql);
+            return;
+        }
+
+        if (!sql.equals(pendingSql)) {
+            flush();
+        }
+        final PreparedStatement statement = preparedStatements.get(sql);
+        for (int i = 0; i < parameters.size(); i++) {
+            final JsonObject parameter = parameters.getJsonObject(i);
+            ParameterType
+                .valueOf(parameter.getString("type"))
+                .bind(statement, i + 1, parameter.get("value"));
+        }
+        statement.addBatch();
+        added(statement, sql);
+    }
+
+    private void added(final Statement statement, final String sql) throws SQLException {
+        pendingStatement = statement;
+        pendingSql = sql;
+        if (++pendingCount == batchSize) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException {
+        final Statement statement = pendingStatement;
+        final boolean pending = pendingCount > 0;
+        pendingStatement = null;
+        pendingSql = null;
+        pendingCount = 0;
+
+        if (pending) {
+            boolean executed = false;
+            try {
+                for (final int updateCount : statement.executeBatch()) {
+                    updateCounts.add(updateCount);
+                }
+                executed = true;
+            } finally {
+                if (!executed) {
+                    clearBatch(statement);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops a batch that was not executed, so the cached prepared statement does not carry its parameter sets into
+     * the next use.
+     */
+    private static void clearBatch(final Statement statement) {
+        try {
+            statement.clearBatch();
+        } catch (final SQLException e) {
+            logger.warn("Error clearing statement batch", e);
+        }
+    }
+
+    JsonArray getUpdateCounts() throws SQLException {
+        flush();
+        return updateCounts.build();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (pendingStatement != null && pendingStatement != plainStatement) {
+            clearBatch(pendingStatement);
+        }
+        plainStatement.close();
+    }
+}